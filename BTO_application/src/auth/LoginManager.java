@@ -23,6 +23,7 @@ public class LoginManager {
 	private final OfficerRegistrationManager officerRegistrationManager;
     private final BookingManager bookingManager;
     private final ReportManager reportManager;
+    private final BallotManager ballotManager;
     private final FilterManager filterManager;
 
     /**
@@ -38,6 +39,7 @@ public class LoginManager {
      * @param officerRegistrationManager Manages HDB Officer registrations for projects.
      * @param bookingManager            Manages the flat booking process.
      * @param reportManager             Manages report generation.
+     * @param ballotManager             Manages ballots for oversubscribed projects.
      * @param filterManager             Manages user-specific project view filters.
      */
 	public LoginManager(ApplicantManager applicantManager,
@@ -50,6 +52,7 @@ public class LoginManager {
                         OfficerRegistrationManager officerRegistrationManager,
                         BookingManager bookingManager,
                         ReportManager reportManager,
+                        BallotManager ballotManager,
                         FilterManager filterManager
                         ) {
 		this.applicantManager = applicantManager;
@@ -62,6 +65,7 @@ public class LoginManager {
         this.officerRegistrationManager = officerRegistrationManager;
         this.bookingManager = bookingManager;
         this.reportManager = reportManager;
+        this.ballotManager = ballotManager;
         this.filterManager = filterManager;
 	}
 	
@@ -91,10 +95,29 @@ public class LoginManager {
         return nric.matches("^[ST]\\d{7}[A-Za-z]$");
     }
 
+    /**
+     * Finds a user of any role by NRIC using each user manager's NRIC index.
+     * Officers are checked first, then managers, then applicants, so an officer
+     * who is also an applicant is always resolved as an officer.
+     *
+     * @param nric The NRIC to look up.
+     * @return The matching User, or null if no user of any role has the NRIC.
+     */
+    public User findAnyByNRIC(String nric) {
+        User user = officerUserManager.findByNRIC(nric);
+        if (user == null) {
+            user = managerUserManager.findByNRIC(nric);
+        }
+        if (user == null) {
+            user = applicantUserManager.findByNRIC(nric);
+        }
+        return user;
+    }
+
     /**
 	 * Handles the user login process.
 	 * Prompts the user for NRIC and password, validates the NRIC format,
-	 * attempts to authenticate against Officer, Manager, and Applicant lists.
+	 * looks up the account across Officer, Manager, and Applicant indexes and verifies the password.
 	 * Upon successful authentication, it launches the corresponding UI (HDBOfficerUI,
 	 * HDBManagerUI, or ApplicantUI). If authentication fails, it prompts the user again.
 	 * This method loops until a successful login occurs.
@@ -123,32 +146,10 @@ public class LoginManager {
 			authenticatedUser = null;
 			boolean found = false;
 
-            for(Officer o: officerUserManager.getUsers()){
-                if (o.getNRIC().equalsIgnoreCase(inputNRIC) && o.verifyPassword(inputPassword)) {
-                    authenticatedUser = o;
-                    found = true;
-                    break;
-                }
-            }			
-
-			if(!found) {
-                for(Manager m: managerUserManager.getUsers()){
-                    if (m.getNRIC().equalsIgnoreCase(inputNRIC) && m.verifyPassword(inputPassword)) {
-                         authenticatedUser = m;
-                         found = true;
-                         break;
-                    }
-                }
-			}
-
-			if(!found) {
-				for(Applicant a : applicantUserManager.getUsers()) {
-					if(a.getNRIC().equalsIgnoreCase(inputNRIC) && a.verifyPassword(inputPassword)) {
-	                    authenticatedUser = a;
-						found = true;
-						break;
-					}
-				}
+			User candidate = findAnyByNRIC(inputNRIC);
+			if (candidate != null && candidate.verifyPassword(inputPassword)) {
+				authenticatedUser = candidate;
+				found = true;
 			}
 
 			// Process Login Result
@@ -201,6 +202,7 @@ public class LoginManager {
                          officerRegistrationManager,
                          enquiryManager,
                          reportManager,
+                         ballotManager,
                          applicantUserManager,
                          officerUserManager,
                          managerUserManager,
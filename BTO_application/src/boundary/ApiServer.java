@@ -0,0 +1,644 @@
+package boundary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import auth.LoginManager;
+import control.ApplicantManager;
+import control.ApplicationManager;
+import control.BookingManager;
+import control.EnquiryManager;
+import control.ProjectManager;
+import control.ReportManager;
+import entities.Applicant;
+import entities.Enquiry;
+import entities.Manager;
+import entities.Officer;
+import entities.Project;
+import entities.Receipt;
+import entities.Report;
+import entities.Room;
+import entities.User;
+import enums.ApplicationStatus;
+import enums.OfficerRegistrationStatus;
+import enums.RoomType;
+import utils.Json;
+
+/**
+ * Serves a JSON API over HTTP on the loopback address, so that programs can use the control layer
+ * without the console menus. Requests are handled on virtual threads by the JDK's built-in HTTP server,
+ * which keeps connections alive between requests. Every request is authenticated with HTTP Basic
+ * authentication using the user's NRIC and password.
+ * <p>
+ * Endpoints:
+ * <ul>
+ * <li>{@code GET /api/projects} - projects the user can apply for (all projects for managers).</li>
+ * <li>{@code GET /api/application} - the user's application.</li>
+ * <li>{@code POST /api/application} - apply, with {@code {"project": ..., "roomType": "TwoRoom"}}.</li>
+ * <li>{@code DELETE /api/application} - request a withdrawal of the user's application.</li>
+ * <li>{@code POST /api/bookings} - book a flat (officers), with {@code {"applicant": NRIC}}; returns the receipt.</li>
+ * <li>{@code GET /api/enquiries} - the user's enquiries (all enquiries for managers).</li>
+ * <li>{@code POST /api/enquiries} - submit an enquiry, with {@code {"project": ..., "message": ...}}.</li>
+ * <li>{@code GET /api/reports/bookings} - the booking report (managers), optionally filtered by
+ * {@code married=true|false} and {@code roomType=}; streamed in chunks as {@code {"items": [...], "total": n}}.</li>
+ * </ul>
+ * List endpoints are paginated with {@code offset} and {@code limit} query parameters and return
+ * {@code {"total": n, "offset": o, "limit": l, "items": [...]}}. Messages printed by the managers while
+ * serving a request are returned in the response's {@code messages} array instead of the server console.
+ * <p>
+ * The managers are used under the same read/write lock as the console sessions of the {@link SessionServer}:
+ * requests that only read (GET) share the read lock and run in parallel, the others take the write lock.
+ */
+public class ApiServer {
+
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 500;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int REPORT_CHUNK_ROWS = 256;
+
+    private final int port;
+    private final ReentrantReadWriteLock managerLock;
+    private final LoginManager loginManager;
+    private final ApplicantManager applicantManager;
+    private final ApplicationManager applicationManager;
+    private final ProjectManager projectManager;
+    private final BookingManager bookingManager;
+    private final EnquiryManager enquiryManager;
+    private final ReportManager reportManager;
+    private final AtomicLong requestsServed = new AtomicLong();
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Constructs an API server over the given managers.
+     *
+     * @param port               The local port to listen on; 0 picks a free port.
+     * @param managerLock        The lock over the managers, shared with the other servers.
+     * @param loginManager       Used to authenticate users.
+     * @param applicantManager   Used to list the projects available to applicants.
+     * @param applicationManager Used to apply and withdraw.
+     * @param projectManager     Used to find projects.
+     * @param bookingManager     Used to book flats.
+     * @param enquiryManager     Used to list and submit enquiries.
+     * @param reportManager      Used to generate booking reports.
+     */
+    public ApiServer(int port, ReentrantReadWriteLock managerLock, LoginManager loginManager,
+                     ApplicantManager applicantManager, ApplicationManager applicationManager,
+                     ProjectManager projectManager, BookingManager bookingManager,
+                     EnquiryManager enquiryManager, ReportManager reportManager) {
+        this.port = port;
+        this.managerLock = managerLock;
+        this.loginManager = loginManager;
+        this.applicantManager = applicantManager;
+        this.applicationManager = applicationManager;
+        this.projectManager = projectManager;
+        this.bookingManager = bookingManager;
+        this.enquiryManager = enquiryManager;
+        this.reportManager = reportManager;
+    }
+
+    /**
+     * Starts listening on the loopback address.
+     *
+     * @return true if the server is listening, false if the port cannot be opened.
+     */
+    public synchronized boolean start() {
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        } catch (IOException e) {
+            System.out.println("Cannot serve the API on port " + port + ": " + e.getMessage());
+            return false;
+        }
+        SessionConsole.install();
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+        server.start();
+        System.out.println("Serving the JSON API on http://" + server.getAddress().getHostString()
+                + ":" + server.getAddress().getPort() + "/api/.");
+        return true;
+    }
+
+    /**
+     * Gets the port the server listens on.
+     * @return The local port, or -1 if the server is not started.
+     */
+    public synchronized int getPort() {
+        return server != null ? server.getAddress().getPort() : -1;
+    }
+
+    /**
+     * Stops the server, giving the requests in progress a moment to finish.
+     */
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(1);
+        executor.close();
+        server = null;
+        executor = null;
+        System.out.println("API stopped after " + requestsServed.get() + " request(s).");
+    }
+
+    private void handle(HttpExchange exchange) {
+        try {
+            requestsServed.incrementAndGet();
+            byte[] body = readBody(exchange);
+            if (body == null) {
+                sendError(exchange, 413, "Request body too large.");
+                return;
+            }
+            User user = read(() -> authenticate(exchange)).value;
+            if (user == null) {
+                exchange.getResponseHeaders().set("WWW-Authenticate", "Basic realm=\"BTO\"");
+                sendError(exchange, 401, "Invalid NRIC or password.");
+                return;
+            }
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            String json = new String(body, StandardCharsets.UTF_8);
+            switch (path) {
+                case "/api/projects":
+                    if (requireMethod(exchange, method, "GET")) listProjects(exchange, user, query);
+                    break;
+                case "/api/application":
+                    if (method.equals("GET")) {
+                        getApplication(exchange, user);
+                    } else if (method.equals("POST")) {
+                        apply(exchange, user, json);
+                    } else if (requireMethod(exchange, method, "DELETE")) {
+                        withdraw(exchange, user);
+                    }
+                    break;
+                case "/api/bookings":
+                    if (requireMethod(exchange, method, "POST")) bookFlat(exchange, user, json);
+                    break;
+                case "/api/enquiries":
+                    if (method.equals("GET")) {
+                        listEnquiries(exchange, user, query);
+                    } else if (requireMethod(exchange, method, "POST")) {
+                        submitEnquiry(exchange, user, json);
+                    }
+                    break;
+                case "/api/reports/bookings":
+                    if (requireMethod(exchange, method, "GET")) streamBookingReport(exchange, user, query);
+                    break;
+                default:
+                    sendError(exchange, 404, "No such endpoint: " + path);
+            }
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (IOException e) {
+            // The client went away while the response was sent
+        } catch (RuntimeException e) {
+            System.out.println("API request failed: " + e);
+            sendError(exchange, 500, "Internal error.");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void listProjects(HttpExchange exchange, User user, Map<String, String> query) throws IOException {
+        int offset = intParam(query, "offset", 0);
+        int limit = Math.min(intParam(query, "limit", DEFAULT_LIMIT), MAX_LIMIT);
+        Outcome<String> page = read(() -> {
+            List<Project> projects = user instanceof Applicant
+                    ? applicantManager.getAvailableProjects((Applicant) user)
+                    : projectManager.getProjects();
+            List<String> items = new ArrayList<>();
+            for (int i = offset; i < projects.size() && i < offset + limit; i++) {
+                items.add(projectJson(projects.get(i)));
+            }
+            return pageJson(projects.size(), offset, limit, items);
+        });
+        send(exchange, 200, page.value);
+    }
+
+    private void getApplication(HttpExchange exchange, User user) throws IOException {
+        if (!(user instanceof Applicant)) {
+            sendError(exchange, 403, "Only applicants and officers have applications.");
+            return;
+        }
+        Outcome<String> application = read(() -> applicationJson((Applicant) user));
+        send(exchange, 200, application.value);
+    }
+
+    private void apply(HttpExchange exchange, User user, String json) throws IOException {
+        if (!(user instanceof Applicant)) {
+            sendError(exchange, 403, "Only applicants and officers can apply.");
+            return;
+        }
+        Applicant applicant = (Applicant) user;
+        Map<String, Object> request = Json.parseObject(json);
+        String projectName = stringField(request, "project");
+        RoomType roomType = roomTypeParam(stringField(request, "roomType"));
+        Outcome<Boolean> applied = write(() -> {
+            Project project = null;
+            for (Project p : applicantManager.getAvailableProjects(applicant)) {
+                if (p.getName().equalsIgnoreCase(projectName)) {
+                    project = p;
+                    break;
+                }
+            }
+            if (project == null) {
+                System.out.println("Project '" + projectName + "' not found in the list of projects available to you.");
+                return false;
+            }
+            if (applicant instanceof Officer && !officerMayApply((Officer) applicant, project)) {
+                return false;
+            }
+            if (!applicantManager.getEligibleRoomTypes(applicant, project).contains(roomType)) {
+                System.out.println("You are not eligible for " + roomType + " in project '" + project.getName() + "'.");
+                return false;
+            }
+            Room room = project.getRoom(roomType);
+            if (room == null || room.getAvailableRooms() <= 0) {
+                System.out.println("Sorry, there are no more available units for " + roomType + " in project '" + project.getName() + "'.");
+                return false;
+            }
+            return applicationManager.apply(applicant, project, roomType);
+        });
+        sendOutcome(exchange, applied.value ? 201 : 409, applied, read(() -> applicationJson(applicant)).value);
+    }
+
+    // The officer checks of HDBOfficerUI: no application for a project the officer handles, or whose period overlaps one
+    private static boolean officerMayApply(Officer officer, Project project) {
+        for (Project registered : officer.getRegisteredProjects()) {
+            OfficerRegistrationStatus status = officer.getRegistrationStatusForProject(registered);
+            if (status != OfficerRegistrationStatus.PENDING && status != OfficerRegistrationStatus.APPROVED) {
+                continue;
+            }
+            if (registered.equals(project)) {
+                System.out.println("You cannot apply for project '" + project.getName() + "' because you have a "
+                        + status + " registration to handle it.");
+                return false;
+            }
+            if (registered.getOpenDate() != null && registered.getCloseDate() != null
+                    && !(project.getCloseDate().isBefore(registered.getOpenDate())
+                         || project.getOpenDate().isAfter(registered.getCloseDate()))) {
+                System.out.println("The application period for '" + project.getName() + "' overlaps with your "
+                        + status + " registration for project '" + registered.getName() + "'.");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void withdraw(HttpExchange exchange, User user) throws IOException {
+        if (!(user instanceof Applicant)) {
+            sendError(exchange, 403, "Only applicants and officers have applications.");
+            return;
+        }
+        Applicant applicant = (Applicant) user;
+        Outcome<Boolean> withdrawn = write(() -> applicationManager.withdrawApplication(applicant));
+        sendOutcome(exchange, withdrawn.value ? 200 : 409, withdrawn, read(() -> applicationJson(applicant)).value);
+    }
+
+    private void bookFlat(HttpExchange exchange, User user, String json) throws IOException {
+        if (!(user instanceof Officer)) {
+            sendError(exchange, 403, "Only officers can book flats.");
+            return;
+        }
+        String applicantNric = stringField(Json.parseObject(json), "applicant").trim().toUpperCase();
+        Outcome<String> booked = write(() -> {
+            if (!bookingManager.bookFlat((Officer) user, applicantNric)) {
+                return null;
+            }
+            Receipt receipt = bookingManager.generateBookingReceipt(applicationManager.findApplicantByNRIC(applicantNric));
+            return receipt != null ? receiptJson(receipt) : "null";
+        });
+        sendOutcome(exchange, booked.value != null ? 201 : 409, booked, booked.value != null ? booked.value : "null");
+    }
+
+    private void listEnquiries(HttpExchange exchange, User user, Map<String, String> query) throws IOException {
+        int offset = intParam(query, "offset", 0);
+        int limit = Math.min(intParam(query, "limit", DEFAULT_LIMIT), MAX_LIMIT);
+        Outcome<String> page = read(() -> {
+            List<Enquiry> enquiries = user instanceof Manager
+                    ? enquiryManager.getAllEnquiries()
+                    : enquiryManager.getEnquiriesByApplicant(user.getNRIC());
+            List<String> items = new ArrayList<>();
+            for (int i = offset; i < enquiries.size() && i < offset + limit; i++) {
+                items.add(enquiryJson(enquiries.get(i)));
+            }
+            return pageJson(enquiries.size(), offset, limit, items);
+        });
+        send(exchange, 200, page.value);
+    }
+
+    private void submitEnquiry(HttpExchange exchange, User user, String json) throws IOException {
+        if (!(user instanceof Applicant)) {
+            sendError(exchange, 403, "Only applicants and officers can submit enquiries.");
+            return;
+        }
+        Map<String, Object> request = Json.parseObject(json);
+        String projectName = stringField(request, "project");
+        String message = stringField(request, "message");
+        if (message.isBlank()) {
+            throw new IllegalArgumentException("The enquiry message cannot be empty.");
+        }
+        Outcome<String> submitted = write(() -> {
+            Project project = projectManager.findProjectByName(projectName);
+            if (project == null || !project.isVisibility()) {
+                System.out.println("Project '" + projectName + "' is not open for enquiries.");
+                return null;
+            }
+            Enquiry enquiry = new Enquiry(user.getNRIC(), user.getName(), project.getName(), message);
+            enquiryManager.submitEnquiry(enquiry);
+            return enquiryJson(enquiry);
+        });
+        sendOutcome(exchange, submitted.value != null ? 201 : 409, submitted,
+                submitted.value != null ? submitted.value : "null");
+    }
+
+    // Takes the booked applicants under the read lock, then formats and sends them a chunk at a time.
+    // Each chunk is formatted under the read lock, which is released while it is written to the client, so
+    // memory stays bounded by one chunk. An applicant whose booking went away before its chunk is skipped,
+    // which is why the total is sent last.
+    private void streamBookingReport(HttpExchange exchange, User user, Map<String, String> query) throws IOException {
+        if (!(user instanceof Manager)) {
+            sendError(exchange, 403, "Only managers can generate reports.");
+            return;
+        }
+        ReportManager.FilterCriteria criteria = new ReportManager.FilterCriteria();
+        if (query.containsKey("married")) {
+            criteria.setMaritalStatusFilter(Boolean.parseBoolean(query.get("married")));
+        }
+        if (query.containsKey("roomType")) {
+            criteria.setRoomTypeFilter(roomTypeParam(query.get("roomType")));
+        }
+        List<Applicant> booked = read(() -> reportManager.generateBookingReport(criteria.hasFilters() ? criteria : null)
+                .getBookedApplicants()).value;
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0); // chunked
+        OutputStream out = exchange.getResponseBody();
+        out.write("{\"items\":[".getBytes(StandardCharsets.UTF_8));
+        Lock readLock = managerLock.readLock();
+        StringBuilder chunk = new StringBuilder();
+        int total = 0;
+        for (int start = 0; start < booked.size(); start += REPORT_CHUNK_ROWS) {
+            int end = Math.min(booked.size(), start + REPORT_CHUNK_ROWS);
+            readLock.lock();
+            try {
+                for (Applicant applicant : booked.subList(start, end)) {
+                    if (applicant.getStatus() != ApplicationStatus.BOOKED || applicant.getAppliedProject() == null) {
+                        continue;
+                    }
+                    chunk.append(total > 0 ? "," : "").append(bookingJson(applicant));
+                    total++;
+                }
+            } finally {
+                readLock.unlock();
+            }
+            out.write(chunk.toString().getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            chunk.setLength(0);
+        }
+        out.write(("],\"total\":" + total + "}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The result of a call into the managers, with the messages they printed meanwhile.
+     */
+    private static class Outcome<T> {
+        final T value;
+        final List<String> messages;
+
+        Outcome(T value, List<String> messages) {
+            this.value = value;
+            this.messages = messages;
+        }
+    }
+
+    // Runs a read-only operation on the managers under the shared read lock, in parallel with other reads
+    private <T> Outcome<T> read(Supplier<T> operation) {
+        return call(operation, managerLock.readLock());
+    }
+
+    // Runs an operation that changes data under the exclusive write lock
+    private <T> Outcome<T> write(Supplier<T> operation) {
+        return call(operation, managerLock.writeLock());
+    }
+
+    // Runs an operation on the managers under the given lock, capturing what it prints
+    private <T> Outcome<T> call(Supplier<T> operation, Lock lock) {
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        SessionConsole.Session capture = new SessionConsole.Session(InputStream.nullInputStream(), printed, null);
+        SessionConsole.bind(capture);
+        T value;
+        lock.lock();
+        try {
+            value = operation.get();
+        } finally {
+            lock.unlock();
+            SessionConsole.unbind();
+        }
+        try {
+            capture.flush();
+        } catch (IOException e) {
+            // Cannot happen when writing to memory
+        }
+        List<String> messages = new ArrayList<>();
+        for (String line : printed.toString(StandardCharsets.UTF_8).split("\\R")) {
+            if (!line.isBlank()) {
+                messages.add(line.trim());
+            }
+        }
+        return new Outcome<>(value, messages);
+    }
+
+    private User authenticate(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.regionMatches(true, 0, "Basic ", 0, 6)) {
+            return null;
+        }
+        String credentials;
+        try {
+            credentials = new String(Base64.getDecoder().decode(header.substring(6).trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        int colon = credentials.indexOf(':');
+        if (colon < 0) {
+            return null;
+        }
+        User user = loginManager.findAnyByNRIC(credentials.substring(0, colon).trim().toUpperCase());
+        return user != null && user.verifyPassword(credentials.substring(colon + 1)) ? user : null;
+    }
+
+    // Reads the whole request body, so that the connection can be reused; null if it is too large
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                in.transferTo(OutputStream.nullOutputStream());
+                return null;
+            }
+            return body;
+        }
+    }
+
+    private static boolean requireMethod(HttpExchange exchange, String method, String allowed) throws IOException {
+        if (method.equals(allowed)) {
+            return true;
+        }
+        sendError(exchange, 405, "Method " + method + " is not allowed here.");
+        return false;
+    }
+
+    private static void sendOutcome(HttpExchange exchange, int status, Outcome<?> outcome, String resultJson) throws IOException {
+        StringBuilder json = new StringBuilder("{\"ok\":").append(status < 300).append(",\"result\":").append(resultJson)
+                .append(",\"messages\":[");
+        for (int i = 0; i < outcome.messages.size(); i++) {
+            json.append(i > 0 ? "," : "").append(Json.quote(outcome.messages.get(i)));
+        }
+        send(exchange, status, json.append("]}").toString());
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        try {
+            send(exchange, status, "{\"ok\":false,\"error\":" + Json.quote(message) + "}");
+        } catch (IOException e) {
+            // The client went away
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq >= 0 ? pair.substring(0, eq) : pair;
+            String value = eq >= 0 ? pair.substring(eq + 1) : "";
+            params.put(decode(name), decode(value));
+        }
+        return params;
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    private static int intParam(Map<String, String> query, String name, int defaultValue) {
+        String value = query.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed < 0) {
+                throw new IllegalArgumentException("Parameter " + name + " cannot be negative.");
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter " + name + " must be a number.");
+        }
+    }
+
+    private static String stringField(Map<String, Object> request, String name) {
+        Object value = request.get(name);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("Field '" + name + "' is required and must be a string.");
+        }
+        return (String) value;
+    }
+
+    private static RoomType roomTypeParam(String value) {
+        for (RoomType type : RoomType.values()) {
+            if (type.name().equalsIgnoreCase(value)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown room type '" + value + "'.");
+    }
+
+    private static String pageJson(int total, int offset, int limit, List<String> items) {
+        return "{\"total\":" + total + ",\"offset\":" + offset + ",\"limit\":" + limit
+                + ",\"items\":[" + String.join(",", items) + "]}";
+    }
+
+    private static String projectJson(Project project) {
+        StringBuilder rooms = new StringBuilder();
+        for (Room room : project.getRooms()) {
+            rooms.append(rooms.length() > 0 ? "," : "")
+                 .append("{\"type\":").append(Json.quote(room.getRoomType().name()))
+                 .append(",\"total\":").append(room.getTotalRooms())
+                 .append(",\"available\":").append(room.getAvailableRooms())
+                 .append(",\"price\":").append(room.getPrice()).append('}');
+        }
+        return "{\"name\":" + Json.quote(project.getName())
+                + ",\"neighbourhood\":" + Json.quote(project.getNeighbourhood())
+                + ",\"openDate\":" + Json.quote(String.valueOf(project.getOpenDate()))
+                + ",\"closeDate\":" + Json.quote(String.valueOf(project.getCloseDate()))
+                + ",\"manager\":" + Json.quote(project.getManager())
+                + ",\"visible\":" + project.isVisibility()
+                + ",\"rooms\":[" + rooms + "]}";
+    }
+
+    private static String applicationJson(Applicant applicant) {
+        Project project = applicant.getAppliedProject();
+        return "{\"nric\":" + Json.quote(applicant.getNRIC())
+                + ",\"project\":" + Json.quote(project != null ? project.getName() : null)
+                + ",\"roomType\":" + Json.quote(applicant.getRoomChosen() != null ? applicant.getRoomChosen().name() : null)
+                + ",\"status\":" + Json.quote(applicant.getStatus() != null ? applicant.getStatus().name() : null) + "}";
+    }
+
+    private static String enquiryJson(Enquiry enquiry) {
+        return "{\"applicant\":" + Json.quote(enquiry.getApplicantNRIC())
+                + ",\"applicantName\":" + Json.quote(enquiry.getApplicantName())
+                + ",\"project\":" + Json.quote(enquiry.getProjectName())
+                + ",\"message\":" + Json.quote(enquiry.getMessage())
+                + ",\"reply\":" + Json.quote(enquiry.getReply())
+                + ",\"replyingOfficer\":" + Json.quote(enquiry.getReplyingOfficer()) + "}";
+    }
+
+    private static String receiptJson(Receipt receipt) {
+        return "{\"applicant\":" + Json.quote(receipt.getApplicantNric())
+                + ",\"applicantName\":" + Json.quote(receipt.getApplicantName())
+                + ",\"project\":" + Json.quote(receipt.getProjectName())
+                + ",\"neighbourhood\":" + Json.quote(receipt.getNeighbourhood())
+                + ",\"roomType\":" + Json.quote(receipt.getFlatTypeBooked().name())
+                + ",\"price\":" + receipt.getPrice()
+                + ",\"date\":" + Json.quote(String.valueOf(receipt.getDateGenerated())) + "}";
+    }
+
+    private static String bookingJson(Applicant applicant) {
+        return "{\"nric\":" + Json.quote(applicant.getNRIC())
+                + ",\"name\":" + Json.quote(applicant.getName())
+                + ",\"age\":" + applicant.getAge()
+                + ",\"married\":" + applicant.isMarried()
+                + ",\"project\":" + Json.quote(applicant.getAppliedProject().getName())
+                + ",\"roomType\":" + Json.quote(applicant.getRoomChosen().name()) + "}";
+    }
+}
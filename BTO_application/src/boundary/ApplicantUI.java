@@ -110,9 +110,7 @@ public class ApplicantUI {
                 case 1: changePassword(); break;
                 case 2: viewAvailableProjects(); break;
                 case 3: 
-                	applyForProject(); 
-                	applicationManager.saveApplications("data/Applications.csv", applicantUserManager.getUsers());
-                	projectManager.saveProjects("data/ProjectList.csv");
+                	applyForProject(); // ApplicationManager.apply persists the application itself
                 	break;
                 case 4: viewApplicationStatus(); break;
                 case 5: withdrawApplication(); break;
@@ -361,20 +359,7 @@ public class ApplicantUI {
       * @return A List of RoomType the applicant can apply for in this project.
       */
     protected List<RoomType> getEligibleRoomTypesForProject(Applicant applicant, Project project) {
-        List<RoomType> eligibleTypes = new ArrayList<>();
-        if (project == null || project.getRooms() == null) return eligibleTypes;
-
-        for (Room room : project.getRooms()) {
-            RoomType type = room.getRoomType();
-            boolean canApply = false;
-            if (!applicant.isMarried() && applicant.getAge() >= 35) {
-                if (type == RoomType.TwoRoom) canApply = true;
-            } else if (applicant.isMarried() && applicant.getAge() >= 21) {
-                canApply = true;
-            }
-            if (canApply) eligibleTypes.add(type);
-        }
-        return eligibleTypes;
+        return applicantManager.getEligibleRoomTypes(applicant, project);
     }
 
     /**
@@ -5,6 +5,7 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 import java.util.Scanner;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -30,6 +31,7 @@ public class HDBManagerUI {
     private final OfficerRegistrationManager officerRegistrationManager;
     private final EnquiryManager enquiryManager;
     private final ReportManager reportManager;
+    private final BallotManager ballotManager;
     private final UserManager<Applicant> applicantUserManager;
     private final UserManager<Officer> officerUserManager;
     private final UserManager<Manager> managerUserManager;
@@ -47,6 +49,7 @@ public class HDBManagerUI {
      * @param officerRegistrationManager Manager for officer registrations.
      * @param enquiryManager            Manager for enquiries.
      * @param reportManager             Manager for report generation.
+     * @param ballotManager             Manager for ballots of pending applications.
      * @param applicantUserManager      Manager for applicant user data.
      * @param officerUserManager        Manager for officer user data.
      * @param managerUserManager        Manager for manager user data.
@@ -59,6 +62,7 @@ public class HDBManagerUI {
                         OfficerRegistrationManager officerRegistrationManager,
                         EnquiryManager enquiryManager,
                         ReportManager reportManager,
+                        BallotManager ballotManager,
                         UserManager<Applicant> applicantUserManager,
                         UserManager<Officer> officerUserManager,
                         UserManager<Manager> managerUserManager,
@@ -70,6 +74,7 @@ public class HDBManagerUI {
         this.officerRegistrationManager = officerRegistrationManager;
         this.enquiryManager = enquiryManager;
         this.reportManager = reportManager;
+        this.ballotManager = ballotManager;
         this.applicantUserManager = applicantUserManager;
         this.officerUserManager = officerUserManager;
         this.managerUserManager = managerUserManager;
@@ -524,24 +529,9 @@ public class HDBManagerUI {
         	if (projectManager.deleteProject(project.getName())) {
         	    projectManager.saveProjects("data/ProjectList.csv");
 
-        	    // Combine all applicants (including officers)
-        	    List<Applicant> allApplicants = new ArrayList<>();
-        	    allApplicants.addAll(applicantUserManager.getUsers());
-        	    allApplicants.addAll(officerUserManager.getUsers());
-
         	    // Remove applications associated with the deleted project so that it will reflect in applicant
-        	    for (Applicant a : allApplicants) {
-        	        if (a.getAppliedProject() != null &&
-        	            a.getAppliedProject().getName().equalsIgnoreCase(project.getName())) {
-        	            a.setAppliedProject(null);
-        	            a.setRoomChosen(null);
-        	            a.setStatus(null);
-        	        }
-        	    }
+        	    applicationManager.clearApplicationsFor(project);
 
-        	    // Save updated applications.csv
-        	    applicationManager.saveApplications("data/applications.csv", allApplicants);
-        	    
         	    List<Officer> allOfficers = officerUserManager.getUsers();
 
         	    for (Officer officer : allOfficers) {
@@ -593,8 +583,7 @@ public class HDBManagerUI {
 
         boolean newVisibility = !project.isVisibility();
 
-        if (projectManager.setProjectVisibility(projectName, newVisibility)) {
-             projectManager.saveProjects("data/ProjectList.csv");
+        if (projectManager.setProjectVisibility(projectName, newVisibility)) { // persists the change
              System.out.println("Visibility for '" + projectName + "' changed to " + (newVisibility ? "ON" : "OFF") + ".");
         }
     }
@@ -707,6 +696,45 @@ public class HDBManagerUI {
               System.out.println("--------------------------------------------------");
          }
 
+         System.out.println("1. Process a single application");
+         System.out.println("2. Process all pending applications");
+         System.out.println("3. Process selected applications");
+         System.out.println("4. Run a ballot for this project");
+         System.out.println("0. Cancel");
+         System.out.print("Enter choice: ");
+         int modeChoice = -1;
+         try { modeChoice = scanner.nextInt(); } catch (InputMismatchException e) {}
+         scanner.nextLine();
+
+         if (modeChoice == 4) {
+             runBallot(selectedProject);
+             return;
+         } else if (modeChoice == 2) {
+             processApplicationBatch(pendingApplicants);
+             return;
+         } else if (modeChoice == 3) {
+             System.out.print("Enter application #s separated by commas (e.g. 1,3,4): ");
+             List<Applicant> selected = new ArrayList<>();
+             for (String token : scanner.nextLine().split(",")) {
+                 try {
+                     int index = Integer.parseInt(token.trim());
+                     if (index < 1 || index > pendingApplicants.size()) {
+                         System.out.println("Invalid application # " + index + ". Action cancelled.");
+                         return;
+                     }
+                     selected.add(pendingApplicants.get(index - 1));
+                 } catch (NumberFormatException e) {
+                     System.out.println("Invalid application # '" + token.trim() + "'. Action cancelled.");
+                     return;
+                 }
+             }
+             processApplicationBatch(selected);
+             return;
+         } else if (modeChoice != 1) {
+             System.out.println("Action cancelled.");
+             return;
+         }
+
          System.out.print("Select application # to Approve/Reject (Enter 0 to cancel): ");
          int appChoice = -1;
          try { appChoice = scanner.nextInt(); } catch (InputMismatchException e) {}
@@ -739,6 +767,108 @@ public class HDBManagerUI {
         }
     }
 
+    /**
+     * Runs a ballot over the pending applications of a project: its available units are allocated in a
+     * random order drawn from a seed, optionally by priority tier. The seed is shown so the draw can be reproduced.
+     *
+     * @param project The project whose pending applications are balloted.
+     */
+    private void runBallot(Project project) {
+        if (ballotManager == null) {
+            System.out.println("Ballot functionality is not available (BallotManager not configured).");
+            return;
+        }
+        System.out.print("Enter ballot seed (leave blank for a random seed): ");
+        String seedInput = scanner.nextLine().trim();
+        long seed;
+        if (seedInput.isEmpty()) {
+            seed = new Random().nextLong();
+        } else {
+            try {
+                seed = Long.parseLong(seedInput);
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid seed. Action cancelled.");
+                return;
+            }
+        }
+
+        System.out.println("Priority:");
+        System.out.println("1. None");
+        System.out.println("2. Married applicants first");
+        System.out.println("3. Older applicants first (55 and above, 45-54, 35-44, below 35)");
+        System.out.println("4. Married applicants first, then older applicants");
+        System.out.print("Enter choice: ");
+        int priorityChoice = -1;
+        try { priorityChoice = scanner.nextInt(); } catch (InputMismatchException e) {}
+        scanner.nextLine();
+        if (priorityChoice < 1 || priorityChoice > 4) { System.out.println("Action cancelled."); return; }
+        BallotPriority priority = BallotPriority.values()[priorityChoice - 1];
+
+        System.out.println("Applicants who are not allocated a unit:");
+        System.out.println("1. Set to UNSUCCESSFUL");
+        System.out.println("2. Keep PENDING on a waitlist");
+        System.out.print("Enter choice: ");
+        int waitlistChoice = -1;
+        try { waitlistChoice = scanner.nextInt(); } catch (InputMismatchException e) {}
+        scanner.nextLine();
+        if (waitlistChoice != 1 && waitlistChoice != 2) { System.out.println("Action cancelled."); return; }
+
+        BallotManager.BallotResult result = ballotManager.runBallot(List.of(project), seed, priority, waitlistChoice == 2);
+        if (result.getDecided() < 0) {
+            System.out.println("Ballot failed. No applications were changed.");
+            return;
+        }
+
+        System.out.println("\n------ Ballot Results for: " + project.getName() + " (seed " + result.getSeed() + ") ------");
+        for (BallotManager.Draw draw : result.getDraws()) {
+            System.out.println(draw.getRoomType() + ": " + draw.getApplications() + " application(s) for " + draw.getUnits()
+                    + " unit(s), " + draw.getSuccessful().size() + " successful, " + draw.getOthers().size()
+                    + (result.isWaitlistKept() ? " waitlisted" : " unsuccessful"));
+            if (result.isWaitlistKept()) {
+                List<Applicant> waitlist = draw.getOthers();
+                for (int i = 0; i < waitlist.size(); i++) {
+                    System.out.println(" Waitlist #" + (i + 1) + ": " + waitlist.get(i).getName() + " (" + waitlist.get(i).getNRIC() + ")");
+                }
+            }
+        }
+        System.out.println("Ballot completed. " + result.getDecided() + " application(s) decided.");
+    }
+
+    /**
+     * Approves or rejects a batch of pending applications in one step.
+     * The batch is applied as a whole: if any application cannot be processed
+     * (e.g. not enough units left), none of them are changed.
+     *
+     * @param batch The pending applications to process.
+     */
+    private void processApplicationBatch(List<Applicant> batch) {
+        if (batch.isEmpty()) { System.out.println("No applications selected."); return; }
+
+        System.out.println("--------------------------------------------------");
+        System.out.println("Action for " + batch.size() + " application(s):");
+        System.out.println("1. Approve All Selected");
+        System.out.println("2. Reject All Selected");
+        System.out.println("0. Cancel");
+        System.out.print("Enter choice: ");
+        int actionChoice = -1;
+        try { actionChoice = scanner.nextInt(); } catch (InputMismatchException e) {}
+        scanner.nextLine();
+
+        if (actionChoice == 1) {
+             int approved = applicationManager.approveApplications(batch);
+             if (approved < 0) System.out.println("Batch approval failed. No applications were changed (check logs).");
+             else if (approved == batch.size()) System.out.println("Batch approval completed.");
+             else System.out.println("Batch approval partly completed: " + approved + " of " + batch.size() + " application(s) approved.");
+        } else if (actionChoice == 2) {
+             int rejected = applicationManager.rejectApplications(batch);
+             if (rejected < 0) System.out.println("Batch rejection failed. No applications were changed.");
+             else if (rejected == batch.size()) System.out.println("Batch rejection completed.");
+             else System.out.println("Batch rejection partly completed: " + rejected + " of " + batch.size() + " application(s) rejected.");
+        } else {
+            System.out.println("Action cancelled.");
+        }
+    }
+
     /**
      * Manages processing application withdrawal requests (status PENDING_WITHDRAWAL)
      * for projects handled by the current manager. Allows approving or rejecting the withdrawal.
@@ -890,7 +1020,6 @@ public class HDBManagerUI {
          String reply = scanner.nextLine();
 
          enquiryManager.replyToEnquiry(enquiryToReply, reply, manager.getName());
-         enquiryToReply.setReply(reply, manager.getName());
          enquiryManager.saveEnquiries();
          System.out.println("Reply submitted successfully.");
 
@@ -558,7 +558,7 @@ public class HDBOfficerUI extends ApplicantUI {
     }
 
     /**
-     * Allows the officer to view and reply to enquiries for the projects they are APPROVED to handle.
+     * Allows the officer to view and reply to the unreplied enquiries for the projects they are APPROVED to handle.
      */
     private void viewAndReplyToProjectEnquiries() {
         System.out.println("============= Reply My Enquiries ==========");
@@ -574,28 +574,22 @@ public class HDBOfficerUI extends ApplicantUI {
         
         int globalEnquiryCounter = 1;
 
-        // Display all enquiries, but only collect replyable ones
+        // List only the enquiries still awaiting a reply, straight from the unreplied index
         for (Project project : handledProjects) {
-            List<Enquiry> projectEnquiries = enquiryManager.getEnquiriesByProject(project.getName());
+            List<Enquiry> pendingEnquiries = enquiryManager.getUnrepliedEnquiriesByProject(project.getName());
 
-            if (projectEnquiries.isEmpty()) continue;
+            if (pendingEnquiries.isEmpty()) continue;
 
             System.out.println("Project: " + project.getName());
 
-            for (Enquiry e : projectEnquiries) {
+            for (Enquiry e : pendingEnquiries) {
                 System.out.println("Enquiry #" + globalEnquiryCounter);
                 System.out.println(" From NRIC:  " + e.getApplicantNRIC());
                 System.out.println(" From Name:  " + e.getApplicantName());
                 System.out.println(" Message:    " + e.getMessage());
-
-                if (e.getReply() == null || e.getReply().isEmpty()) {
-                    System.out.println(" Reply:      <No Reply Yet>");
-                    replyableEnquiries.add(e); // track only those without reply
-                } else {
-                    System.out.println(" Reply:      " + e.getReply());
-                    System.out.println(" Replied By: " + (e.getReplyingOfficer() == null ? "<Unknown>" : e.getReplyingOfficer()));
-                }
+                System.out.println(" Reply:      <No Reply Yet>");
                 System.out.println("-------------------------------------------");
+                replyableEnquiries.add(e);
                 globalEnquiryCounter++;
             }
         }
@@ -622,7 +616,6 @@ public class HDBOfficerUI extends ApplicantUI {
         String reply = scanner.nextLine();
 
         enquiryManager.replyToEnquiry(selected, reply, officer.getName());
-        selected.setReply(reply, officer.getName());
         enquiryManager.saveEnquiries("data/enquiries.csv");
 
         System.out.println("Reply submitted successfully.");
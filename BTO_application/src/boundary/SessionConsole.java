@@ -0,0 +1,264 @@
+package boundary;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Routes {@code System.in}, {@code System.out} and {@code System.err} to the session bound to the
+ * current thread, so that the console UIs, which read and print through the standard streams, can serve
+ * one client per thread. Threads without a session use the original streams of the process.
+ * <p>
+ * A session's input is handed out one line per read. The login page and each UI create their own
+ * {@link java.util.Scanner} on {@code System.in}, so a Scanner must never buffer a line meant for the next one.
+ * While a session waits for its next line it releases the managers' write lock and sends its buffered output
+ * to the client; the lock is taken again before the line is returned, so the UI code that works on the
+ * shared managers always runs under the lock and never holds it while waiting for a client.
+ */
+public class SessionConsole {
+
+    private static final ThreadLocal<Session> CURRENT = new ThreadLocal<>();
+    private static InputStream originalIn;
+    private static PrintStream originalOut;
+    private static PrintStream originalErr;
+
+    private SessionConsole() {
+    }
+
+    /**
+     * Replaces the standard streams by ones that dispatch to the current thread's session. Does nothing if already installed.
+     */
+    public static synchronized void install() {
+        if (originalIn != null) {
+            return;
+        }
+        originalIn = System.in;
+        originalOut = System.out;
+        originalErr = System.err;
+        Charset charset = originalOut.charset();
+        System.setIn(new DispatchingInputStream());
+        System.setOut(new PrintStream(new DispatchingOutputStream(false), true, charset));
+        System.setErr(new PrintStream(new DispatchingOutputStream(true), true, charset));
+    }
+
+    /**
+     * Restores the original standard streams.
+     */
+    public static synchronized void uninstall() {
+        if (originalIn == null) {
+            return;
+        }
+        System.setIn(originalIn);
+        System.setOut(originalOut);
+        System.setErr(originalErr);
+        originalIn = null;
+        originalOut = null;
+        originalErr = null;
+    }
+
+    /**
+     * Gets the standard input of the process, which is not routed to any session.
+     * @return The original standard input, or the current one if the console is not installed.
+     */
+    public static synchronized InputStream getOriginalIn() {
+        return originalIn != null ? originalIn : System.in;
+    }
+
+    /**
+     * Blocks until the operator types {@code stop} on the process's own console, or its input ends.
+     */
+    public static void awaitStopCommand() {
+        System.out.println("Type 'stop' to close all sessions and shut down.");
+        BufferedReader console = new BufferedReader(new InputStreamReader(getOriginalIn()));
+        try {
+            String command;
+            while ((command = console.readLine()) != null) {
+                if (command.trim().equalsIgnoreCase("stop")) {
+                    return;
+                }
+                System.out.println("Type 'stop' to shut down.");
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading the console: " + e.getMessage());
+        }
+    }
+
+    static void bind(Session session) {
+        CURRENT.set(session);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    private static synchronized InputStream defaultIn() {
+        return originalIn != null ? originalIn : InputStream.nullInputStream();
+    }
+
+    private static synchronized PrintStream defaultOut(boolean error) {
+        PrintStream out = error ? originalErr : originalOut;
+        return out != null ? out : new PrintStream(OutputStream.nullOutputStream());
+    }
+
+    /**
+     * The streams of one client connection. Output is buffered until the session waits for input or ends.
+     */
+    public static class Session {
+
+        private static final int MAX_LINE_LENGTH = 8192;
+
+        private final InputStream in;
+        private final OutputStream out;
+        private final ReentrantReadWriteLock.WriteLock lock;
+        private final ByteArrayOutputStream pendingOutput = new ByteArrayOutputStream();
+        private byte[] line = new byte[0];
+        private int linePosition = 0;
+        private boolean ended = false;
+
+        /**
+         * Constructs a session over a client's streams.
+         *
+         * @param in   The client's input.
+         * @param out  The client's output.
+         * @param lock The lock the session holds while it is not waiting for input, or null if it never waits holding one.
+         */
+        public Session(InputStream in, OutputStream out, ReentrantReadWriteLock.WriteLock lock) {
+            this.in = in;
+            this.out = out;
+            this.lock = lock;
+        }
+
+        synchronized void write(byte[] bytes, int offset, int length) {
+            pendingOutput.write(bytes, offset, length);
+        }
+
+        /**
+         * Sends the buffered output to the client.
+         * @throws IOException If the client cannot be written to.
+         */
+        public void flush() throws IOException {
+            byte[] bytes;
+            synchronized (this) {
+                bytes = pendingOutput.toByteArray();
+                pendingOutput.reset();
+            }
+            if (bytes.length > 0) {
+                out.write(bytes);
+                out.flush();
+            }
+        }
+
+        int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (linePosition >= line.length && !nextLine()) {
+                return -1;
+            }
+            int count = Math.min(length, line.length - linePosition);
+            System.arraycopy(line, linePosition, buffer, offset, count);
+            linePosition += count;
+            return count;
+        }
+
+        int available() {
+            return line.length - linePosition;
+        }
+
+        // Waits for the client's next line without holding the lock; false once the client has closed its input
+        private boolean nextLine() throws IOException {
+            if (ended) {
+                return false;
+            }
+            boolean held = lock != null && lock.isHeldByCurrentThread();
+            if (held) {
+                lock.unlock();
+            }
+            ByteArrayOutputStream received = new ByteArrayOutputStream();
+            try {
+                flush();
+                int b;
+                while ((b = in.read()) != -1) {
+                    if (received.size() < MAX_LINE_LENGTH) {
+                        received.write(b);
+                    }
+                    if (b == '\n') {
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                // A broken connection ends the session like a closed input
+            } finally {
+                if (held) {
+                    lock.lock();
+                }
+            }
+            if (received.size() == 0) {
+                ended = true;
+                return false;
+            }
+            line = received.toByteArray();
+            linePosition = 0;
+            return true;
+        }
+    }
+
+    private static class DispatchingInputStream extends InputStream {
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            int count = read(one, 0, 1);
+            return count <= 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            Session session = CURRENT.get();
+            return session != null ? session.read(buffer, offset, length) : defaultIn().read(buffer, offset, length);
+        }
+
+        @Override
+        public int available() throws IOException {
+            Session session = CURRENT.get();
+            return session != null ? session.available() : defaultIn().available();
+        }
+    }
+
+    private static class DispatchingOutputStream extends OutputStream {
+
+        private final boolean error;
+
+        DispatchingOutputStream(boolean error) {
+            this.error = error;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            Session session = CURRENT.get();
+            if (session != null) {
+                session.write(bytes, offset, length);
+            } else {
+                defaultOut(error).write(bytes, offset, length);
+            }
+        }
+
+        @Override
+        public void flush() {
+            if (CURRENT.get() == null) {
+                defaultOut(error).flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package boundary;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import auth.LoginManager;
+
+/**
+ * Serves the console UI to many clients at once over a local TCP socket (e.g. {@code nc localhost 5050}).
+ * Each connection gets its own virtual thread, which runs the login page and the applicant, officer or
+ * manager UI against the shared managers until the user logs out or the client disconnects.
+ * <p>
+ * The sessions take turns on the managers: a session holds the managers' write lock while it processes a
+ * line of input and releases it while it waits for the next one (see {@link SessionConsole}). A menu step
+ * may both read and change data, so sessions always take the write lock; the read-only requests of the
+ * {@link ApiServer} share the read lock. An idle client does not block anybody.
+ */
+public class SessionServer {
+
+    private final LoginManager loginManager;
+    private final int port;
+    private final ReentrantReadWriteLock.WriteLock sessionLock;
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sessionsStarted = new AtomicLong();
+    private ExecutorService sessions;
+    private ServerSocket serverSocket;
+    private Thread acceptor;
+
+    /**
+     * Constructs a server for the given login manager.
+     *
+     * @param loginManager The login manager that runs each session.
+     * @param port         The local port to listen on; 0 picks a free port.
+     * @param managerLock  The lock over the managers, shared with the other servers; sessions take its write lock.
+     */
+    public SessionServer(LoginManager loginManager, int port, ReentrantReadWriteLock managerLock) {
+        this.loginManager = loginManager;
+        this.port = port;
+        this.sessionLock = managerLock.writeLock();
+    }
+
+    /**
+     * Starts listening on the loopback address and accepting sessions.
+     *
+     * @return true if the server is listening, false if the port cannot be opened.
+     */
+    public synchronized boolean start() {
+        try {
+            serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            System.out.println("Cannot listen on port " + port + ": " + e.getMessage());
+            return false;
+        }
+        SessionConsole.install();
+        sessions = Executors.newVirtualThreadPerTaskExecutor();
+        acceptor = Thread.ofPlatform().name("session-acceptor").start(this::acceptLoop);
+        System.out.println("Serving sessions on " + serverSocket.getInetAddress().getHostAddress()
+                + ":" + serverSocket.getLocalPort() + ".");
+        return true;
+    }
+
+    /**
+     * Gets the port the server listens on.
+     * @return The local port, or -1 if the server is not started.
+     */
+    public synchronized int getPort() {
+        return serverSocket != null ? serverSocket.getLocalPort() : -1;
+    }
+
+    /**
+     * Gets the number of sessions started so far.
+     * @return The number of accepted connections.
+     */
+    public long getSessionsStarted() {
+        return sessionsStarted.get();
+    }
+
+    /**
+     * Gets the number of sessions currently connected.
+     * @return The number of open client connections.
+     */
+    public int getActiveSessions() {
+        return clients.size();
+    }
+
+    /**
+     * Stops accepting connections, disconnects the remaining clients and waits for every session to end.
+     * A disconnected session ends at its next read, so no session is cut off while it updates the managers.
+     */
+    public void stop() {
+        ExecutorService running;
+        synchronized (this) {
+            if (serverSocket == null) {
+                return;
+            }
+            try {
+                serverSocket.close();
+            } catch (IOException e) {
+                System.out.println("Error closing the server socket: " + e.getMessage());
+            }
+            running = sessions;
+        }
+        try {
+            acceptor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Socket client : clients) {
+            closeQuietly(client);
+        }
+        running.close(); // waits for the sessions to finish
+        synchronized (this) {
+            serverSocket = null;
+            sessions = null;
+        }
+        System.out.println("Server stopped after " + getSessionsStarted() + " session(s).");
+    }
+
+    private void acceptLoop() {
+        while (true) {
+            Socket client;
+            try {
+                client = serverSocket.accept();
+            } catch (SocketException e) {
+                return; // the server socket was closed
+            } catch (IOException e) {
+                System.out.println("Error accepting a session: " + e.getMessage());
+                continue;
+            }
+            clients.add(client);
+            sessionsStarted.incrementAndGet();
+            sessions.submit(() -> runSession(client));
+        }
+    }
+
+    // Runs the login page and the user's UI for one client, holding the session lock except while waiting for input
+    private void runSession(Socket client) {
+        SessionConsole.Session session;
+        try {
+            client.setTcpNoDelay(true);
+            session = new SessionConsole.Session(new BufferedInputStream(client.getInputStream()),
+                    client.getOutputStream(), sessionLock);
+        } catch (IOException e) {
+            clients.remove(client);
+            closeQuietly(client);
+            return;
+        }
+        SessionConsole.bind(session);
+        sessionLock.lock();
+        try {
+            LoginManager.welcomeBanner();
+            loginManager.login();
+        } catch (NoSuchElementException | IllegalStateException e) {
+            // The client closed the connection while a prompt was waiting for input
+        } catch (RuntimeException e) {
+            System.out.println("Session ended by an error: " + e);
+        } finally {
+            if (sessionLock.isHeldByCurrentThread()) {
+                sessionLock.unlock();
+            }
+            try {
+                session.flush();
+            } catch (IOException e) {
+                // The client is already gone
+            }
+            SessionConsole.unbind();
+            clients.remove(client);
+            closeQuietly(client);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Nothing left to do with a socket that cannot be closed
+        }
+    }
+}
@@ -98,6 +98,31 @@ public class ApplicantManager {
         return availableProjects;
     }
     
+    /**
+     * Determines which room types of a project an applicant is eligible to apply for,
+     * based on age and marital status (Single >=35 for 2-Room only; Married >=21 for any type).
+     *
+     * @param applicant The applicant whose eligibility is being checked.
+     * @param project   The project being considered.
+     * @return A List of RoomType the applicant can apply for in this project.
+     */
+    public List<RoomType> getEligibleRoomTypes(Applicant applicant, Project project) {
+        List<RoomType> eligibleTypes = new ArrayList<>();
+        if (applicant == null || project == null || project.getRooms() == null) return eligibleTypes;
+
+        for (Room room : project.getRooms()) {
+            RoomType type = room.getRoomType();
+            boolean canApply = false;
+            if (!applicant.isMarried() && applicant.getAge() >= 35) {
+                if (type == RoomType.TwoRoom) canApply = true;
+            } else if (applicant.isMarried() && applicant.getAge() >= 21) {
+                canApply = true;
+            }
+            if (canApply) eligibleTypes.add(type);
+        }
+        return eligibleTypes;
+    }
+
     /**
      * Retrieves a list of BTO projects potentially available for an HDB Officer to register for.
      * This method filters projects based on criteria relevant for officer registration,
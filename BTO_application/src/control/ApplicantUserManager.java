@@ -1,10 +1,13 @@
 package control;
 
 import entities.Applicant;
+import entities.ApplicantColumns;
 import entities.User;
-import utils.FileManager;
+import utils.RecordStore;
+import utils.RecordStores;
+import utils.SnapshotList;
 
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -15,12 +18,38 @@ import java.util.List;
  */
 public class ApplicantUserManager implements UserManager<Applicant> {
 
-    private List<Applicant> applicants = new ArrayList<>();
+    // Changed one at a time; readers get immutable snapshots
+    private final SnapshotList<Applicant> applicants = new SnapshotList<>();
+    private final UserIndex<Applicant> index = new UserIndex<>();
     private static final String FILE_PATH = "data/ApplicantList.csv";
+    private static final String HEADER = "Name,NRIC,Age,Status,Password";
+    // Single file or NRIC-hashed shards, depending on the configured shard count
+    private final RecordStore store = RecordStores.open(FILE_PATH, HEADER, true);
+    // Backing store for loaded applicants in columnar mode, null otherwise
+    private final ApplicantColumns columns;
+
+    /**
+     * Constructs an ApplicantUserManager that keeps each applicant as a regular object.
+     */
+    public ApplicantUserManager() {
+        this(false);
+    }
+
+    /**
+     * Constructs an ApplicantUserManager.
+     * In columnar mode, loaded applicants are stored in an {@link ApplicantColumns} store
+     * and the list holds lightweight views over its rows, which uses far less memory for large registries.
+     *
+     * @param columnar true to load applicants into a columnar store.
+     */
+    public ApplicantUserManager(boolean columnar) {
+        this.columns = columnar ? new ApplicantColumns() : null;
+    }
 
      /**
-     * Loads applicant data from the CSV file.
-     * Clears the current in-memory list before loading.
+     * Loads applicant data from the CSV file, or from its shards when the sharded layout is in use.
+     * Clears the current in-memory list before loading. If the data was stored in another layout than
+     * the configured one, it is saved again in the configured layout (migration).
      * Parses each line (skipping the header) into an Applicant object.
      * Handles potential errors during file reading or data parsing (e.g., NumberFormatException).
      * Assumes CSV format: Name,NRIC,Age,Status,Password
@@ -28,62 +57,82 @@ public class ApplicantUserManager implements UserManager<Applicant> {
     @Override
     public void loadUsers() {
         applicants.clear();
-        List<String> lines = FileManager.readFile(FILE_PATH);
-        for (String line : lines.subList(1, lines.size())) {
+        index.clear();
+        if (columns != null) {
+            columns.clear();
+        }
+        store.forEachRecord(record -> {
             try {
-                String[] parts = line.split(",");
-                if (parts.length >= 5) {
-                    String name = parts[0].trim();
-                    String nric = parts[1].trim().toUpperCase();
-                    int age = Integer.parseInt(parts[2].trim());
-                    String status = parts[3].trim().toLowerCase();
+                if (record.length >= 5) {
+                    String name = record[0].trim();
+                    String nric = record[1].trim().toUpperCase();
+                    int age = Integer.parseInt(record[2].trim());
+                    String status = record[3].trim().toLowerCase();
                     boolean isMarried = status.equals("married");
-                    String password = parts[4].trim();
-                    applicants.add(new Applicant(name, nric, age, isMarried, password));
+                    String password = record[4].trim();
+                    Applicant applicant = createApplicant(name, nric, age, isMarried, password);
+                    applicants.add(applicant);
+                    index.add(applicant);
                 } else {
-                    System.err.println("Skipping malformed line in " + FILE_PATH + ": " + line);
+                    System.err.println("Skipping malformed line in " + FILE_PATH + ": " + String.join(",", record));
                 }
             } catch (NumberFormatException e) {
-                System.err.println("Error parsing age in " + FILE_PATH + " for line: " + line + " - " + e.getMessage());
+                System.err.println("Error parsing age in " + FILE_PATH + " for line: " + String.join(",", record) + " - " + e.getMessage());
             } catch (Exception e) {
-                System.err.println("Error processing line in " + FILE_PATH + ": " + line + " - " + e.getMessage());
+                System.err.println("Error processing line in " + FILE_PATH + ": " + String.join(",", record) + " - " + e.getMessage());
                 e.printStackTrace();
             }
+        });
+        if (store.needsMigration()) {
+            saveUsers();
         }
     }
 
     /**
-     * Saves the current list of Applicant objects back to the CSV file
+     * Saves the current list of Applicant objects back to the CSV file (or every shard).
      * Overwrites the existing file content. Writes the header row first,
      * then formats each Applicant object into a CSV line.
      * Assumes CSV format: Name,NRIC,Age,Status,Password
      */
     @Override
     public void saveUsers() {
-        List<String> lines = new ArrayList<>();
-        lines.add("Name,NRIC,Age,Status,Password");
-        for (Applicant applicant : applicants) {
-            String status = applicant.isMarried() ? "married" : "single";
-            lines.add(
-                    applicant.getName() + "," +
-                    applicant.getNRIC() + "," +
-                    applicant.getAge() + "," +
-                    status + "," +
-                    applicant.getPassword()
-            );
+        store.markAllDirty();
+        store.save(applicants.snapshot(), Applicant::getNRIC, ApplicantUserManager::formatApplicant);
+    }
+
+    /**
+     * Saves changed applicants. In the sharded layout only the shards holding them are rewritten.
+     *
+     * @param changedUsers The applicants whose data changed.
+     */
+    @Override
+    public void saveUsers(Collection<? extends Applicant> changedUsers) {
+        for (Applicant applicant : changedUsers) {
+            store.markDirty(applicant.getNRIC());
         }
-        FileManager.writeFile(FILE_PATH, lines);
+        store.save(applicants.snapshot(), Applicant::getNRIC, ApplicantUserManager::formatApplicant);
+    }
+
+    private static String[] formatApplicant(Applicant applicant) {
+        String status = applicant.isMarried() ? "married" : "single";
+        return new String[] {
+                applicant.getName(),
+                applicant.getNRIC(),
+                String.valueOf(applicant.getAge()),
+                status,
+                applicant.getPassword()
+        };
     }
 
     /**
-     * Retrieves the current in-memory list of all loaded applicants.
+     * Retrieves an immutable snapshot of all loaded applicants, safe to iterate while applicants are added or removed.
      *
      * @return A List containing all Applicant objects managed by this instance.
      * Returns an empty list if no applicants have been loaded.
      */
     @Override
     public List<Applicant> getUsers() {
-        return applicants;
+        return applicants.snapshot();
     }
 
     /**
@@ -95,17 +144,73 @@ public class ApplicantUserManager implements UserManager<Applicant> {
      */
     @Override
     public Applicant findByNRIC(String nric) {
-        for (Applicant applicant : applicants) {
-            if (applicant.getNRIC().equalsIgnoreCase(nric)) {
-                return applicant;
-            }
+        return index.get(nric);
+    }
+
+    /**
+     * Adds an applicant to the in-memory list and NRIC index.
+     *
+     * @param user The Applicant to add.
+     * @return true if added, false if null or an account with the same NRIC already exists.
+     */
+    @Override
+    public boolean addUser(Applicant user) {
+        if (user == null || !index.add(user)) {
+            return false;
+        }
+        applicants.add(user);
+        store.markDirty(user.getNRIC());
+        return true;
+    }
+
+    /**
+     * Removes an applicant from the in-memory list and NRIC index.
+     *
+     * @param user The Applicant to remove.
+     * @return true if the Applicant was found and removed, false otherwise.
+     */
+    @Override
+    public boolean removeUser(Applicant user) {
+        if (user == null || !applicants.remove(user)) {
+            return false;
+        }
+        index.remove(user);
+        store.markDirty(user.getNRIC());
+        return true;
+    }
+
+    /**
+     * Creates an applicant in this manager's storage mode without adding it to the list:
+     * a row of the columnar store in columnar mode, a regular Applicant otherwise.
+     *
+     * @param name      The applicant's name.
+     * @param nric      The applicant's NRIC.
+     * @param age       The applicant's age.
+     * @param isMarried The applicant's marital status.
+     * @param password  The applicant's password.
+     * @return The new Applicant, to be passed to {@link #addUser(Applicant)}.
+     */
+    public Applicant createApplicant(String name, String nric, int age, boolean isMarried, String password) {
+        return columns != null
+                ? columns.add(name, nric, age, isMarried, password)
+                : new Applicant(name, nric, age, isMarried, password);
+    }
+
+    /**
+     * Removes all applicants from the in-memory list and NRIC index.
+     */
+    @Override
+    public void clearUsers() {
+        applicants.clear();
+        index.clear();
+        if (columns != null) {
+            columns.clear();
         }
-        return null;
     }
 
     /**
      * Changes the password for the applicant identified by the given NRIC.
-     * Finds the applicant and saves the updated user list if the change was successful.
+     * Finds the applicant and saves it if the change was successful (only its shard in the sharded layout).
      *
      * @param nric        The NRIC of the applicant whose password should be changed.
      * @param newPassword The new password to set.
@@ -116,7 +221,7 @@ public class ApplicantUserManager implements UserManager<Applicant> {
         Applicant user = findByNRIC(nric);
         if (user != null) {
             if (user.changePass(newPassword)) {
-                saveUsers();
+                saveUsers(List.of(user));
                 return true;
             } else {
                  return false;
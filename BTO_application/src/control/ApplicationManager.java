@@ -1,8 +1,22 @@
 package control;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import entities.Applicant;
 import entities.Officer;
@@ -10,6 +24,10 @@ import entities.Project;
 import entities.Room;
 import enums.RoomType;
 import utils.FileManager;
+import utils.Journal;
+import utils.RecordStore;
+import utils.RecordStores;
+import utils.StringPool;
 import enums.ApplicationStatus;
 
 /**
@@ -17,13 +35,29 @@ import enums.ApplicationStatus;
  * This includes handling application submission, approval, rejection, withdrawal requests,
  * and persisting application data to/from a CSV file. It interacts with ProjectManager
  * to update room availability and UserManagers to update applicant statuses.
+ * <p>
+ * Every status change goes through the {@link ApplicationStateMachine}, whose events save the changed
+ * applicants and keep the index of applicants by status up to date. When a change loses a race with another
+ * change to the same applicant, any room unit it had taken is returned and the operation fails.
  */
 public class ApplicationManager {
 
     private static final String APPLICATIONS_FILE_PATH = "data/Applications.csv";
+    private static final String APPLICATIONS_HEADER = "NRIC,Name,ProjectName,RoomType,Status";
+    // Applications.csv as a single file or NRIC-hashed shards, depending on the configured shard count
+    private final RecordStore applicationStore = RecordStores.open(APPLICATIONS_FILE_PATH, APPLICATIONS_HEADER, true);
+    // Files with at least this many records are resolved in parallel during loading
+    private static final int PARALLEL_LOAD_THRESHOLD = 10_000;
+    // Batches of at least this many applicants (e.g. a ballot) are saved by compacting the journal instead of
+    // appending one record each, and update the status index in one pass per status
+    private static final int LARGE_BATCH = 1_000;
     private final ProjectManager projectManager;
     private final UserManager<Applicant> applicantUserManager;
     private UserManager<Officer> officerUserManager;
+    private Journal journal;
+    private final ApplicationStateMachine stateMachine = new ApplicationStateMachine();
+    // Applicants by application status in the order they reached it; entries that went stale are skipped on read
+    private final Map<ApplicationStatus, Set<Applicant>> applicantsByStatus = new EnumMap<>(ApplicationStatus.class);
 
     /**
      * Constructs an ApplicationManager.
@@ -41,6 +75,116 @@ public class ApplicationManager {
         this.projectManager = projectManager;
         this.applicantUserManager = applicantUserManager;
         this.officerUserManager = officerUserManager;
+        for (ApplicationStatus status : ApplicationStatus.values()) {
+            applicantsByStatus.put(status, Collections.synchronizedSet(new LinkedHashSet<>()));
+        }
+        stateMachine.addListener(this::indexTransitions);
+        stateMachine.addListener(transitions -> {
+            if (transitions.size() == 1) {
+                saveApplicantUserState(transitions.get(0).getApplicant());
+            } else {
+                saveApplicantUserStates(transitions.stream().map(ApplicationStateMachine.Transition::getApplicant)
+                        .collect(Collectors.toList()));
+            }
+        });
+    }
+
+    /**
+     * Gets the state machine through which application statuses change, e.g. to listen to its events.
+     * @return The state machine of this manager's applications.
+     */
+    public ApplicationStateMachine getStateMachine() {
+        return stateMachine;
+    }
+
+    /**
+     * Changes an applicant's status along a legal edge of the state machine, if it still is the expected one,
+     * and saves the applicant.
+     *
+     * @param applicant The applicant whose status changes.
+     * @param from      The status the application must have, or null for no application.
+     * @param to        The new status, or null for no application.
+     * @return true if the status was changed, false if the change is illegal or the status was no longer {@code from}.
+     */
+    public boolean transition(Applicant applicant, ApplicationStatus from, ApplicationStatus to) {
+        return applicant != null && stateMachine.transition(applicant, from, to);
+    }
+
+    /**
+     * Gets the applicants and officers whose application currently has a given status, through the status index
+     * instead of a scan of all users.
+     *
+     * @param status The status to look up.
+     * @return The matching applicants, in the order they reached the status.
+     */
+    public List<Applicant> getApplicantsByStatus(ApplicationStatus status) {
+        Set<Applicant> indexed = applicantsByStatus.get(status);
+        List<Applicant> candidates;
+        synchronized (indexed) {
+            candidates = new ArrayList<>(indexed);
+        }
+        // Skip applicants whose status was since set outside the state machine
+        candidates.removeIf(a -> a.getStatus() != status);
+        return candidates;
+    }
+
+    /**
+     * Rebuilds the status index from all applicants and officers.
+     * Must be called after statuses are set outside the state machine or users are removed, i.e. after loading,
+     * restoring or replaying data.
+     */
+    public void rebuildStatusIndex() {
+        for (Set<Applicant> indexed : applicantsByStatus.values()) {
+            indexed.clear();
+        }
+        for (Applicant applicant : getAllApplicants()) {
+            ApplicationStatus status = applicant.getStatus();
+            if (status != null) {
+                applicantsByStatus.get(status).add(applicant);
+            }
+        }
+    }
+
+    private void indexTransitions(List<ApplicationStateMachine.Transition> transitions) {
+        if (transitions.size() < LARGE_BATCH) {
+            for (ApplicationStateMachine.Transition t : transitions) {
+                if (t.getFrom() != null) {
+                    applicantsByStatus.get(t.getFrom()).remove(t.getApplicant());
+                }
+                if (t.getTo() != null) {
+                    applicantsByStatus.get(t.getTo()).add(t.getApplicant());
+                }
+            }
+            return;
+        }
+        // A large batch (e.g. a ballot) drops the applicants that left a status in one pass over its entries
+        Set<ApplicationStatus> left = EnumSet.noneOf(ApplicationStatus.class);
+        Map<ApplicationStatus, List<Applicant>> arrived = new EnumMap<>(ApplicationStatus.class);
+        for (ApplicationStateMachine.Transition t : transitions) {
+            if (t.getFrom() != null) {
+                left.add(t.getFrom());
+            }
+            if (t.getTo() != null) {
+                arrived.computeIfAbsent(t.getTo(), s -> new ArrayList<>()).add(t.getApplicant());
+            }
+        }
+        for (ApplicationStatus status : left) {
+            applicantsByStatus.get(status).removeIf(a -> a.getStatus() != status);
+        }
+        for (Map.Entry<ApplicationStatus, List<Applicant>> entry : arrived.entrySet()) {
+            applicantsByStatus.get(entry.getKey()).addAll(entry.getValue());
+        }
+    }
+
+    /**
+     * Sets the journal used to record application state changes.
+     * When a journal is set, each state change appends a single record instead of
+     * rewriting the user and application CSV files.
+     *
+     * @param journal The write-ahead journal, or null to save full files directly.
+     */
+    public void setJournal(Journal journal) {
+        this.journal = journal;
     }
 
     /**
@@ -54,6 +198,21 @@ public class ApplicationManager {
         all.addAll(officerUserManager.getUsers());
         return all;
     }
+
+    /**
+     * Finds an applicant (including officers applying as applicants) by NRIC
+     * through the user managers' NRIC indexes. Applicants are checked before officers.
+     *
+     * @param nric The NRIC to look up.
+     * @return The matching applicant, or null if none is found.
+     */
+    public Applicant findApplicantByNRIC(String nric) {
+        Applicant applicant = applicantUserManager.findByNRIC(nric);
+        if (applicant == null && officerUserManager != null) {
+            applicant = officerUserManager.findByNRIC(nric);
+        }
+        return applicant;
+    }
     
     /**
      * Processes a BTO application submission.
@@ -72,8 +231,9 @@ public class ApplicationManager {
         }
 
         // Rule: Each applicant can only apply for one project at a time unless previous is UNSUCCESSFUL.
-        if (applicant.getStatus() != null && applicant.getStatus() != ApplicationStatus.UNSUCCESSFUL) {
-            System.out.println("Application failed: You already have an active or successful application (Status: " + applicant.getStatus() + ").");
+        ApplicationStatus currentStatus = applicant.getStatus();
+        if (currentStatus != null && currentStatus != ApplicationStatus.UNSUCCESSFUL) {
+            System.out.println("Application failed: You already have an active or successful application (Status: " + currentStatus + ").");
             System.out.println("Please withdraw your existing application before applying for a new one.");
             return false;
         }
@@ -91,15 +251,14 @@ public class ApplicationManager {
              return false;
         }
 
-        applicant.setAppliedProject(project);
-        applicant.setRoomChosen(chosenRoom);
-        applicant.setStatus(ApplicationStatus.PENDING);
-
-        // Trigger saving of the applicant's state
-        if (applicantUserManager != null) {
-             applicantUserManager.saveUsers();
-        } else {
-             System.err.println("Warning: ApplicantUserManager not set. Cannot save applicant state automatically.");
+        // The state machine's event saves the applicant's state
+        boolean applied = stateMachine.transition(applicant, currentStatus, ApplicationStatus.PENDING, a -> {
+            a.setAppliedProject(project);
+            a.setRoomChosen(chosenRoom);
+        });
+        if (!applied) {
+            System.out.println("Application failed: Your application status changed in the meantime. Please try again.");
+            return false;
         }
 
         System.out.println("Application for project '" + project.getName() + "' submitted successfully. Status is now PENDING."); //
@@ -139,18 +298,10 @@ public class ApplicationManager {
                 }
             }
 
-            // Set status to UNSUCCESSFUL and clear details
-            applicant.setStatus(ApplicationStatus.PENDING_WITHDRAWAL);
-
-            // Trigger saving of the applicant's state
-            if (applicant instanceof Officer) {
-				if (officerUserManager != null) {
-                    officerUserManager.saveUsers();
-                }
-            } else {
-                if (applicantUserManager != null) {
-                    applicantUserManager.saveUsers();
-                }
+            // The unit is only returned once a manager approves the withdrawal
+            if (!stateMachine.transition(applicant, currentStatus, ApplicationStatus.PENDING_WITHDRAWAL)) {
+                System.out.println("Withdrawal failed: Your application status changed in the meantime. Please try again.");
+                return false;
             }
 
             System.out.println("Application for project '" + (currentProject != null ? currentProject.getName() : "Unknown") + "' withdrawn. Status set to PENDING_WITHDRAWAL."); //
@@ -187,11 +338,15 @@ public class ApplicationManager {
 
         boolean updated = projectManager.updateRoomAvailability(project, chosenRoom, -1);
         if (!updated) {
-             System.err.println("CRITICAL: Failed to decrement available room count for " + chosenRoom + " in project " + project.getName() + " during approval.");
+             System.out.println("Approval failed: No " + chosenRoom + " units left in project " + project.getName() + ".");
+             return false;
         }
 
-        applicant.setStatus(ApplicationStatus.SUCCESSFUL);
-        saveApplicantUserState(applicant);
+        if (!stateMachine.transition(applicant, ApplicationStatus.PENDING, ApplicationStatus.SUCCESSFUL)) {
+            projectManager.updateRoomAvailability(project, chosenRoom, +1); // give back the unit taken above
+            System.err.println("Approval failed: The application of " + applicant.getNRIC() + " was changed by another user.");
+            return false;
+        }
 
         System.out.println("Application approved for Applicant " + applicant.getNRIC() + ". Status set to SUCCESSFUL.");
 
@@ -213,11 +368,10 @@ public class ApplicationManager {
               return false;
           }
 
-         applicant.setStatus(ApplicationStatus.UNSUCCESSFUL);
-         applicant.setAppliedProject(null);
-         applicant.setRoomChosen(null);
-
-         saveApplicantUserState(applicant);
+         if (!stateMachine.transition(applicant, ApplicationStatus.PENDING, ApplicationStatus.UNSUCCESSFUL, ApplicationManager::clearApplication)) {
+             System.err.println("Rejection failed: The application of " + applicant.getNRIC() + " was changed by another user.");
+             return false;
+         }
 
          System.out.println("Application rejected for Applicant " + applicant.getNRIC() + ". Status set to UNSUCCESSFUL.");
 
@@ -242,21 +396,19 @@ public class ApplicationManager {
 
         Project project = applicant.getAppliedProject();
         RoomType room = applicant.getRoomChosen();
-        boolean unitReturned = false;
+        if (!stateMachine.transition(applicant, ApplicationStatus.PENDING_WITHDRAWAL, null, ApplicationManager::clearApplication)) {
+            System.err.println("Withdrawal approval failed: The application of " + applicant.getNRIC() + " was changed by another user.");
+            return false;
+        }
 
+        // Only the approval that cleared the application returns its unit
         if (project != null && room != null) {
-            unitReturned = projectManager.updateRoomAvailability(project, room, +1);
+            boolean unitReturned = projectManager.updateRoomAvailability(project, room, +1);
             if (!unitReturned) {
                 System.err.println("Warning: Failed to increment room availability during withdrawal approval for NRIC " + applicant.getNRIC());
             }
         }
 
-        applicant.setAppliedProject(null);
-        applicant.setRoomChosen(null);
-        applicant.setStatus(null);
-
-        saveApplicantUserState(applicant);
-
         System.out.println("Withdrawal approved for NRIC " + applicant.getNRIC() + ". Application details cleared.");
         return true;
     }
@@ -275,38 +427,282 @@ public class ApplicationManager {
             System.err.println("Withdrawal rejection failed: Applicant is null or status is not PENDING_WITHDRAWAL.");
             return false;
         }
-        applicant.setStatus(ApplicationStatus.SUCCESSFUL);
-        saveApplicantUserState(applicant);
+        if (!stateMachine.transition(applicant, ApplicationStatus.PENDING_WITHDRAWAL, ApplicationStatus.SUCCESSFUL)) {
+            System.err.println("Withdrawal rejection failed: The application of " + applicant.getNRIC() + " was changed by another user.");
+            return false;
+        }
         System.out.println("Withdrawal rejected for NRIC " + applicant.getNRIC() + ". Status reverted to " + applicant.getStatus() + ".");
         return true;
     }
 
+    // Clears the project and room of an application that was rejected or withdrawn
+    private static void clearApplication(Applicant applicant) {
+        applicant.setAppliedProject(null);
+        applicant.setRoomChosen(null);
+    }
+
     /**
      * Saves the current state of the applicant and their application details.
      * This method is called after any changes to the applicant's status or application details.
+     * If a journal is set, a single APP record is appended; otherwise the user and
+     * application CSV files are rewritten.
      *
      * @param applicant The applicant whose state is to be saved.
      */
     private void saveApplicantUserState(Applicant applicant) {
+        if (journal != null) {
+            journalApplicantState(applicant);
+            return;
+        }
          if (applicant instanceof Officer) {
              if (officerUserManager != null) {
-                 officerUserManager.saveUsers();
+                 officerUserManager.saveUsers(List.of((Officer) applicant));
              } else {
                   System.err.println("Warning: OfficerUserManager not set. Cannot save officer state.");
              }
         } else {
              if (applicantUserManager != null) {
-                 applicantUserManager.saveUsers();
+                 applicantUserManager.saveUsers(List.of(applicant));
              } else {
                  System.err.println("Warning: ApplicantUserManager not set. Cannot save applicant state.");
              }
         }
-        saveApplications(APPLICATIONS_FILE_PATH, getAllApplicants());
+        saveApplications(List.of(applicant));
+    }
+
+    /**
+     * Appends an APP record with the applicant's current application state to the journal.
+     *
+     * @param applicant The applicant whose state is recorded.
+     */
+    private void journalApplicantState(Applicant applicant) {
+        // Read the state under the journal's monitor, so the last record of an applicant has its latest state
+        synchronized (journal) {
+            journal.append("APP",
+                    applicant.getNRIC(),
+                    applicant.getAppliedProject() != null ? applicant.getAppliedProject().getName() : "",
+                    applicant.getRoomChosen() != null ? applicant.getRoomChosen().name() : "",
+                    applicant.getStatus() != null ? applicant.getStatus().name() : "");
+        }
+    }
+
+    /**
+     * Saves the state of a batch of applicants with a single persistence flush.
+     * With a journal, one APP record per applicant is appended and the journal is synced once, or for a
+     * large batch (e.g. a ballot) the journal is compacted, which writes every file once;
+     * otherwise each affected user file (or shard) and the application file (or shards) are rewritten once.
+     *
+     * @param batch The applicants whose state is to be saved.
+     */
+    private void saveApplicantUserStates(Collection<Applicant> batch) {
+        if (journal != null && batch.size() >= LARGE_BATCH && journal.compact()) {
+            return;
+        }
+        if (journal != null) {
+            for (Applicant applicant : batch) {
+                journalApplicantState(applicant);
+            }
+            journal.sync();
+            return;
+        }
+        List<Officer> officers = new ArrayList<>();
+        List<Applicant> applicants = new ArrayList<>();
+        for (Applicant applicant : batch) {
+            if (applicant instanceof Officer) officers.add((Officer) applicant); else applicants.add(applicant);
+        }
+        if (!officers.isEmpty() && officerUserManager != null) officerUserManager.saveUsers(officers);
+        if (!applicants.isEmpty()) applicantUserManager.saveUsers(applicants);
+        saveApplications(batch);
     }
 
     /**
-     * Updates the status of an applicant and saves their state.
-     * This method is called when an officer or manager updates the status of an applicant.
+     * Approves a batch of PENDING BTO applications atomically.
+     * The whole batch is validated first: every applicant must be PENDING with a project and room chosen,
+     * and each project must have enough available units of each room type for all approvals in the batch.
+     * If any check fails, nothing is changed. Otherwise the room counts and statuses are updated in memory
+     * and persisted once for the whole batch. An applicant whose status is changed by another user between
+     * the check and the update is left out and its unit returned.
+     *
+     * @param applicants The applicants whose PENDING applications are to be approved.
+     * @return The number of applications approved, or -1 if the batch was rejected as a whole and nothing was changed.
+     */
+    public int approveApplications(Collection<Applicant> applicants) {
+        if (applicants == null || applicants.isEmpty()) {
+            System.err.println("Batch approval failed: No applications selected.");
+            return -1;
+        }
+        applicants = new LinkedHashSet<>(applicants); // ignore duplicate selections
+        // The units taken, kept per applicant in case another user clears an application before it is approved
+        Map<Applicant, Project> projects = new IdentityHashMap<>(applicants.size() * 2);
+        Map<Applicant, RoomType> rooms = new IdentityHashMap<>(applicants.size() * 2);
+        Map<Project, Map<RoomType, Integer>> demand = new LinkedHashMap<>();
+        for (Applicant applicant : applicants) {
+            if (applicant == null || applicant.getStatus() != ApplicationStatus.PENDING) {
+                System.err.println("Batch approval failed: Applicant " + (applicant == null ? "null" : applicant.getNRIC()) + " is null or status is not PENDING.");
+                return -1;
+            }
+            Project project = applicant.getAppliedProject();
+            RoomType room = applicant.getRoomChosen();
+            if (project == null || room == null) {
+                System.err.println("Batch approval failed: Project or chosen room data missing for applicant " + applicant.getNRIC() + ".");
+                return -1;
+            }
+            projects.put(applicant, project);
+            rooms.put(applicant, room);
+            demand.computeIfAbsent(project, p -> new EnumMap<>(RoomType.class)).merge(room, -1, Integer::sum);
+        }
+
+        if (!projectManager.applyRoomChanges(demand)) {
+            System.out.println("Batch approval failed: Not enough available units for the selected applications. No changes made.");
+            return -1;
+        }
+
+        List<Applicant> approved = stateMachine.transitionAll(applicants, ApplicationStatus.PENDING, ApplicationStatus.SUCCESSFUL, null);
+        if (approved.size() < applicants.size()) {
+            Set<Applicant> changed = Collections.newSetFromMap(new IdentityHashMap<>(approved.size() * 2));
+            changed.addAll(approved);
+            Map<Project, Map<RoomType, Integer>> unused = new LinkedHashMap<>();
+            for (Applicant applicant : applicants) {
+                if (!changed.contains(applicant)) {
+                    unused.computeIfAbsent(projects.get(applicant), p -> new EnumMap<>(RoomType.class))
+                          .merge(rooms.get(applicant), 1, Integer::sum);
+                }
+            }
+            projectManager.applyRoomChanges(unused);
+        }
+
+        System.out.println(approved.size() + " application(s) approved. Status set to SUCCESSFUL.");
+        if (approved.size() < applicants.size()) {
+            System.out.println((applicants.size() - approved.size()) + " application(s) were changed by another user and left out.");
+        }
+        return approved.size();
+    }
+
+    /**
+     * Rejects a batch of PENDING BTO applications atomically.
+     * Every applicant must be PENDING, otherwise nothing is changed. Rejected applicants are set to
+     * UNSUCCESSFUL with their project and room cleared, and the batch is persisted once. An applicant whose
+     * status is changed by another user between the check and the update is left out.
+     *
+     * @param applicants The applicants whose PENDING applications are to be rejected.
+     * @return The number of applications rejected, or -1 if the batch was rejected as a whole and nothing was changed.
+     */
+    public int rejectApplications(Collection<Applicant> applicants) {
+        if (applicants == null || applicants.isEmpty()) {
+            System.err.println("Batch rejection failed: No applications selected.");
+            return -1;
+        }
+        applicants = new LinkedHashSet<>(applicants); // ignore duplicate selections
+        for (Applicant applicant : applicants) {
+            if (applicant == null || applicant.getStatus() != ApplicationStatus.PENDING) {
+                System.err.println("Batch rejection failed: Applicant " + (applicant == null ? "null" : applicant.getNRIC()) + " is null or status is not PENDING.");
+                return -1;
+            }
+        }
+
+        List<Applicant> rejected = stateMachine.transitionAll(applicants, ApplicationStatus.PENDING, ApplicationStatus.UNSUCCESSFUL,
+                ApplicationManager::clearApplication);
+
+        System.out.println(rejected.size() + " application(s) rejected. Status set to UNSUCCESSFUL.");
+        if (rejected.size() < applicants.size()) {
+            System.out.println((applicants.size() - rejected.size()) + " application(s) were changed by another user and left out.");
+        }
+        return rejected.size();
+    }
+
+    /**
+     * Applies the outcome of a ballot: the winners' applications become SUCCESSFUL and take a unit each,
+     * and the losers' become UNSUCCESSFUL with their project and room cleared. Applicants left out of both
+     * (e.g. a waitlist) stay PENDING. The room counts and all applicants are each persisted once.
+     * Applicants whose status is no longer PENDING are skipped, and a winner's unit is returned.
+     *
+     * @param winners The PENDING applicants who were allocated a unit.
+     * @param losers  The PENDING applicants who were not.
+     * @return The number of applications decided, or -1 if there were not enough units for the winners and nothing was changed.
+     */
+    public int applyBallotOutcome(List<Applicant> winners, List<Applicant> losers) {
+        // The winners' units, kept in case another user clears an application before the ballot decides it
+        Project[] winnerProjects = new Project[winners.size()];
+        RoomType[] winnerRooms = new RoomType[winners.size()];
+        Map<Project, Map<RoomType, Integer>> demand = new LinkedHashMap<>();
+        for (int i = 0; i < winners.size(); i++) {
+            winnerProjects[i] = winners.get(i).getAppliedProject();
+            winnerRooms[i] = winners.get(i).getRoomChosen();
+            demand.computeIfAbsent(winnerProjects[i], p -> new EnumMap<>(RoomType.class))
+                  .merge(winnerRooms[i], -1, Integer::sum);
+        }
+        if (!demand.isEmpty() && !projectManager.applyRoomChanges(demand)) {
+            System.out.println("Ballot failed: Not enough available units for the successful applicants. No changes made.");
+            return -1;
+        }
+
+        Map<ApplicationStatus, List<Applicant>> outcome = new EnumMap<>(ApplicationStatus.class);
+        outcome.put(ApplicationStatus.SUCCESSFUL, winners);
+        outcome.put(ApplicationStatus.UNSUCCESSFUL, losers);
+        List<Applicant> decided = stateMachine.transitionAll(outcome, ApplicationStatus.PENDING, a -> {
+            if (a.getStatus() == ApplicationStatus.UNSUCCESSFUL) {
+                clearApplication(a);
+            }
+        });
+
+        int total = winners.size() + losers.size();
+        if (decided.size() < total) {
+            // Give back the units of winners whose application was changed by another user meanwhile
+            Set<Applicant> changed = Collections.newSetFromMap(new IdentityHashMap<>(decided.size() * 2));
+            changed.addAll(decided);
+            Map<Project, Map<RoomType, Integer>> unused = new LinkedHashMap<>();
+            for (int i = 0; i < winners.size(); i++) {
+                if (!changed.contains(winners.get(i))) {
+                    unused.computeIfAbsent(winnerProjects[i], p -> new EnumMap<>(RoomType.class))
+                          .merge(winnerRooms[i], 1, Integer::sum);
+                }
+            }
+            if (!unused.isEmpty()) {
+                projectManager.applyRoomChanges(unused);
+            }
+            System.out.println((total - decided.size()) + " application(s) were changed by another user and left out of the ballot.");
+        }
+        return decided.size();
+    }
+
+    /**
+     * Clears every application to a project, whatever its status, e.g. because the project was deleted.
+     * The applications are cleared through the state machine's deletion path, so the applicants are saved
+     * and the status index is updated. Room units are not returned, as the project is going away.
+     *
+     * @param project The project whose applications are cleared.
+     * @return The number of applications cleared.
+     */
+    public int clearApplicationsFor(Project project) {
+        Map<ApplicationStatus, List<Applicant>> byStatus = new EnumMap<>(ApplicationStatus.class);
+        for (Applicant applicant : getAllApplicants()) {
+            Project applied = applicant.getAppliedProject();
+            if (applied == null || !applied.getName().equalsIgnoreCase(project.getName())) {
+                continue;
+            }
+            ApplicationStatus status = applicant.getStatus();
+            if (status != null) {
+                byStatus.computeIfAbsent(status, s -> new ArrayList<>()).add(applicant);
+            } else {
+                clearApplication(applicant); // not an application, only a stale project reference
+            }
+        }
+        int found = 0;
+        int cleared = 0;
+        for (Map.Entry<ApplicationStatus, List<Applicant>> group : byStatus.entrySet()) {
+            found += group.getValue().size();
+            cleared += stateMachine.clearForDeletedProject(group.getValue(), group.getKey(), ApplicationManager::clearApplication).size();
+        }
+        if (cleared < found) {
+            System.out.println((found - cleared) + " application(s) were changed by another user and left out.");
+        }
+        return cleared;
+    }
+
+    /**
+     * Updates the status of an applicant from their current status and saves their state.
+     * The change must be a legal edge of the state machine; prefer {@link #transition} when the
+     * expected current status is known.
      *
      * @param applicant The applicant whose status is to be updated.
      * @param newStatus The new status to set for the applicant.
@@ -317,45 +713,117 @@ public class ApplicationManager {
              System.err.println("Cannot update status for null applicant.");
              return false;
         }
-        applicant.setStatus(newStatus);
-        saveApplicantUserState(applicant);
+        if (!stateMachine.transition(applicant, applicant.getStatus(), newStatus)) {
+             System.err.println("Cannot update status of applicant " + applicant.getNRIC() + " to " + newStatus + ".");
+             return false;
+        }
         System.out.println("Applicant " + applicant.getNRIC() + " status updated to " + newStatus + " and state saved.");
         return true;
     }
 
+    /**
+     * Applies an APP record replayed from the journal to the matching applicant or officer.
+     * Format: APP,NRIC,ProjectName,RoomType,Status (empty fields mean null).
+     *
+     * @param record The fields of the journal record.
+     * @return true if the record was an APP record and was applied, false otherwise.
+     */
+    public boolean applyJournalRecord(String[] record) {
+        if (record.length < 5 || !record[0].equals("APP")) {
+            return false;
+        }
+        Applicant applicant = applicantUserManager.findByNRIC(record[1]);
+        if (applicant == null && officerUserManager != null) {
+            applicant = officerUserManager.findByNRIC(record[1]);
+        }
+        if (applicant == null) {
+            System.err.println("Journal record skipped, applicant not found: " + record[1]);
+            return false;
+        }
+        Project project = record[2].isEmpty() ? null : projectManager.findProjectByName(record[2]);
+        applicant.setAppliedProject(project);
+        try {
+            applicant.setRoomChosen(record[3].isEmpty() ? null : RoomType.valueOf(record[3]));
+        } catch (IllegalArgumentException e) { applicant.setRoomChosen(null); }
+        try {
+            applicant.setStatus(record[4].isEmpty() ? null : ApplicationStatus.valueOf(record[4]));
+        } catch (IllegalArgumentException e) { applicant.setStatus(null); }
+        return true;
+    }
+
+    /**
+     * Saves the current application data for all applicants and officers to the default CSV file.
+     */
+    public void saveApplications() {
+        saveApplications(APPLICATIONS_FILE_PATH, getAllApplicants());
+    }
+
     /**
      * Saves the current application data for all relevant applicants to a CSV file.
      * Only includes applicants who have an active application (status is not null and not UNSUCCESSFUL).
-     * Writes a header row followed by data rows.
+     * Writes a header row followed by data rows. The default file is written in the configured
+     * layout (single file or shards).
      * Format: NRIC,Name,ProjectName,RoomType,Status
      *
      * @param filePath   The path to the CSV file to write to.
      * @param applicants The list of all applicants (including officers) whose applications should be considered for saving.
      */
     public void saveApplications(String filePath, List<Applicant> applicants) {
+        if (filePath.equals(APPLICATIONS_FILE_PATH)) {
+            applicationStore.markAllDirty();
+            applicationStore.save(applicants, Applicant::getNRIC, ApplicationManager::formatApplication);
+            return;
+        }
         List<String> lines = new ArrayList<>();
-        lines.add("NRIC,Name,ProjectName,RoomType,Status");
+        lines.add(APPLICATIONS_HEADER);
 
         for (Applicant a : applicants) {
-            if (a.getAppliedProject() != null && a.getStatus() != null && a.getStatus() != ApplicationStatus.UNSUCCESSFUL) {
-                String line = a.getNRIC() + "," +
-                              a.getName() + "," +
-                              a.getAppliedProject().getName() + "," +
-                              (a.getRoomChosen() != null ? a.getRoomChosen().name() : "") + "," +
-                              (a.getStatus() != null ? a.getStatus().name() : "");
-                lines.add(line);
+            String[] fields = formatApplication(a);
+            if (fields != null) {
+                lines.add(FileManager.toCsvLine(fields));
             }
         }
         FileManager.writeFile(filePath, lines);
     }
 
+    /**
+     * Saves the applications of applicants whose application changed to the default file.
+     * In the sharded layout only the shards holding these applicants are rewritten.
+     *
+     * @param changed The applicants (including officers) whose application changed.
+     */
+    public void saveApplications(Collection<? extends Applicant> changed) {
+        for (Applicant a : changed) {
+            applicationStore.markDirty(a.getNRIC());
+        }
+        applicationStore.save(getAllApplicants(), Applicant::getNRIC, ApplicationManager::formatApplication);
+    }
+
+    // Formats the application of an applicant as CSV fields, or returns null if there is no active application
+    private static String[] formatApplication(Applicant a) {
+        if (a.getAppliedProject() == null || a.getStatus() == null || a.getStatus() == ApplicationStatus.UNSUCCESSFUL) {
+            return null;
+        }
+        return new String[] {
+               a.getNRIC(),
+               a.getName(),
+               a.getAppliedProject().getName(),
+               a.getRoomChosen() != null ? a.getRoomChosen().name() : "",
+               a.getStatus().name()
+        };
+    }
+
     /**
      * Loads application data from a specified CSV file and links it to the provided lists
      * of applicants and projects.
-     * Skips the header row and parses each subsequent line.
-     * Finds the corresponding applicant and project objects based on NRIC and project name.
+     * Skips the header row and reads the remaining records. Applicants and projects are
+     * looked up through hash maps keyed by normalized NRIC and case-folded project name,
+     * built once per load. Large files are resolved in parallel chunks; the results are then
+     * applied in file order, so a later line for the same applicant overrides an earlier one.
      * Sets the `appliedProject`, `chosenRoom`, and `status` on the applicant object.
      * Handles potential parsing errors (e.g., invalid enum values, missing objects).
+     * The default file is read in the layout it is stored in (shards are read in parallel) and is
+     * saved again if that differs from the configured layout.
      * Format: NRIC,Name,ProjectName,RoomType,Status
      *
      * @param filePath   The path to the CSV file containing application data.
@@ -363,52 +831,93 @@ public class ApplicationManager {
      * @param projects   A list of all projects to link data to.
      */
     public void loadApplications(String filePath, List<Applicant> applicants, List<Project> projects) {
-        List<String> lines = FileManager.readFile(filePath);
-        if (lines == null || lines.size() <= 1) {
+        List<String[]> records = new ArrayList<>();
+        Consumer<String[]> collect = fields -> {
+            // Project, room type and status repeat on every line; share one copy of each while the records are held
+            for (int i = 2; i < fields.length && i <= 4; i++) {
+                fields[i] = StringPool.canonical(fields[i]);
+            }
+            records.add(fields);
+        };
+        boolean defaultFile = filePath.equals(APPLICATIONS_FILE_PATH);
+        if (defaultFile) {
+            applicationStore.forEachRecord(collect);
+        } else {
+            FileManager.forEachRecord(filePath, true, record -> collect.accept(record.toArray()));
+        }
+        if (records.isEmpty()) {
             System.out.println("No application data found in " + filePath + " or file is empty.");
             return;
         }
 
-        for (String line : lines.subList(1, lines.size())) {
-            try {
-                String[] parts = line.split(",", 5);
-                if (parts.length >= 5) {
-                    String nric = parts[0].trim().toUpperCase();
-                    String projectName = parts[2].trim();
-                    String roomTypeStr = parts[3].trim();
-                    String statusStr = parts[4].trim();
-
-                    Applicant targetApplicant = null;
-                    for (Applicant a : applicants) {
-                        if (a.getNRIC().equalsIgnoreCase(nric)) {
-                            targetApplicant = a;
-                            break;
-                        }
-                    }
-                    if (targetApplicant == null) continue;
-
-                    Project targetProject = null;
-                    for (Project p : projects) {
-                        if (p.getName().equalsIgnoreCase(projectName)) {
-                            targetProject = p;
-                            break;
-                        }
-                    }
-                    if (targetProject == null) continue;
-
-                    targetApplicant.setAppliedProject(targetProject);
-                    try {
-                        targetApplicant.setRoomChosen(!roomTypeStr.isEmpty() ? RoomType.valueOf(roomTypeStr) : null);
-                    } catch (IllegalArgumentException e) { targetApplicant.setRoomChosen(null); }
-                     try {
-                        targetApplicant.setStatus(!statusStr.isEmpty() ? ApplicationStatus.valueOf(statusStr) : null);
-                    } catch (IllegalArgumentException e) { targetApplicant.setStatus(null); }
+        // Earlier entries win on duplicate keys, matching the order of the lists
+        UserIndex<Applicant> applicantsByNric = new UserIndex<>();
+        for (Applicant a : applicants) {
+            applicantsByNric.add(a);
+        }
+        Map<String, Project> projectsByName = new HashMap<>();
+        for (Project p : projects) {
+            projectsByName.putIfAbsent(p.getName().toLowerCase(Locale.ROOT), p);
+        }
 
-                }
-            } catch (Exception e) {
-                 System.err.println("Error processing line in " + filePath + ": " + line + " - " + e.getMessage());
-            }
+        Stream<String[]> stream = records.size() >= PARALLEL_LOAD_THRESHOLD ? records.parallelStream() : records.stream();
+        List<LoadedApplication> loaded = stream
+                .map(fields -> resolveApplication(filePath, fields, applicantsByNric, projectsByName))
+                .collect(Collectors.toList());
+
+        for (LoadedApplication application : loaded) {
+            if (application == null) continue;
+            application.applicant.setAppliedProject(application.project);
+            application.applicant.setRoomChosen(application.roomType);
+            application.applicant.setStatus(application.status);
         }
          System.out.println("Application data loaded from " + filePath + " and linked.");
+         if (defaultFile && applicationStore.needsMigration()) {
+             saveApplications();
+         }
+    }
+
+    // Resolves one Applications.csv record against the lookup maps. Returns null if the record is skipped.
+    private static LoadedApplication resolveApplication(String filePath, String[] fields,
+            UserIndex<Applicant> applicantsByNric, Map<String, Project> projectsByName) {
+        try {
+            if (fields.length < 5) return null;
+            Applicant targetApplicant = applicantsByNric.get(fields[0]);
+            if (targetApplicant == null) return null;
+            Project targetProject = projectsByName.get(fields[2].trim().toLowerCase(Locale.ROOT));
+            if (targetProject == null) return null;
+
+            String roomTypeStr = fields[3].trim();
+            String statusStr = fields[4].trim();
+            RoomType roomType;
+            try {
+                roomType = !roomTypeStr.isEmpty() ? RoomType.valueOf(roomTypeStr) : null;
+            } catch (IllegalArgumentException e) { roomType = null; }
+            ApplicationStatus status;
+            try {
+                status = !statusStr.isEmpty() ? ApplicationStatus.valueOf(statusStr) : null;
+            } catch (IllegalArgumentException e) { status = null; }
+            return new LoadedApplication(targetApplicant, targetProject, roomType, status);
+        } catch (Exception e) {
+            System.err.println("Error processing line in " + filePath + ": " + String.join(",", fields) + " - " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * An Applications.csv record resolved to its applicant and project, waiting to be applied.
+     */
+    private static final class LoadedApplication {
+        private final Applicant applicant;
+        private final Project project;
+        private final RoomType roomType;
+        private final ApplicationStatus status;
+
+        private LoadedApplication(Applicant applicant, Project project, RoomType roomType, ApplicationStatus status) {
+            this.applicant = applicant;
+            this.project = project;
+            this.roomType = roomType;
+            this.status = status;
+        }
     }
 }
\ No newline at end of file
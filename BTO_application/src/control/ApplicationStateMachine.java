@@ -0,0 +1,242 @@
+package control;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import entities.Applicant;
+import enums.ApplicationStatus;
+
+/**
+ * The state machine of a BTO application over {@link ApplicationStatus}, where a null status means
+ * the applicant has no application.
+ * <p>
+ * Every status change goes through {@link #transition}, which checks that the change is a legal edge
+ * and then compare-and-sets the applicant's status. No lock is taken: when two changes race on the same
+ * applicant (e.g. a manager approves while another rejects), exactly one of them finds the status it expects
+ * and wins, and the other fails without side effects. Changes to different applicants never wait on each other.
+ * The one change outside the legal edges is {@link #clearForDeletedProject}, which ends applications of any
+ * status when their project is deleted; it compare-and-sets and publishes in the same way.
+ * <p>
+ * Each successful change is published as a {@link Transition} to the registered listeners, which keep
+ * persistence and indexes in step with the applicants' statuses. Listeners run on the thread that made
+ * the change, after it is complete.
+ */
+public class ApplicationStateMachine {
+
+    /**
+     * Receives the status changes made through the state machine.
+     */
+    public interface TransitionListener {
+        /**
+         * Called after one or more status changes made together (e.g. a batch approval).
+         * @param transitions The changes, in the order they were made.
+         */
+        void onTransitions(List<Transition> transitions);
+    }
+
+    /**
+     * A completed status change of one applicant.
+     */
+    public static final class Transition {
+        private final Applicant applicant;
+        private final ApplicationStatus from;
+        private final ApplicationStatus to;
+
+        Transition(Applicant applicant, ApplicationStatus from, ApplicationStatus to) {
+            this.applicant = applicant;
+            this.from = from;
+            this.to = to;
+        }
+
+        public Applicant getApplicant() { return applicant; }
+        public ApplicationStatus getFrom() { return from; }
+        public ApplicationStatus getTo() { return to; }
+    }
+
+    // Legal edges; changes from "no application" and to "no application" are kept apart as EnumMap has no null key
+    private static final Map<ApplicationStatus, Set<ApplicationStatus>> EDGES = new EnumMap<>(ApplicationStatus.class);
+    private static final Set<ApplicationStatus> FROM_NONE = EnumSet.of(ApplicationStatus.PENDING);
+    private static final Set<ApplicationStatus> TO_NONE = EnumSet.of(ApplicationStatus.PENDING_WITHDRAWAL,
+            ApplicationStatus.SUCCESSFUL_WITHDRAWAL);
+    static {
+        for (ApplicationStatus status : ApplicationStatus.values()) {
+            EDGES.put(status, EnumSet.noneOf(ApplicationStatus.class));
+        }
+        EDGES.get(ApplicationStatus.PENDING).addAll(EnumSet.of(ApplicationStatus.SUCCESSFUL,
+                ApplicationStatus.UNSUCCESSFUL, ApplicationStatus.PENDING_WITHDRAWAL));
+        EDGES.get(ApplicationStatus.SUCCESSFUL).addAll(EnumSet.of(ApplicationStatus.BOOKED,
+                ApplicationStatus.PENDING_WITHDRAWAL));
+        EDGES.get(ApplicationStatus.BOOKED).add(ApplicationStatus.PENDING_WITHDRAWAL);
+        EDGES.get(ApplicationStatus.UNSUCCESSFUL).add(ApplicationStatus.PENDING); // apply again
+        EDGES.get(ApplicationStatus.PENDING_WITHDRAWAL).addAll(EnumSet.of(ApplicationStatus.SUCCESSFUL,
+                ApplicationStatus.SUCCESSFUL_WITHDRAWAL)); // withdrawal rejected or approved
+        EDGES.get(ApplicationStatus.SUCCESSFUL_WITHDRAWAL).add(ApplicationStatus.PENDING);
+    }
+
+    private final List<TransitionListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Checks whether a status change is a legal edge of the state machine.
+     *
+     * @param from The current status, or null for no application.
+     * @param to   The new status, or null for no application.
+     * @return true if an application may go from the one status to the other.
+     */
+    public static boolean isLegal(ApplicationStatus from, ApplicationStatus to) {
+        if (from == null) {
+            return to != null && FROM_NONE.contains(to);
+        }
+        if (to == null) {
+            return TO_NONE.contains(from);
+        }
+        return EDGES.get(from).contains(to);
+    }
+
+    /**
+     * Registers a listener for the status changes made from now on.
+     * @param listener The listener to add.
+     */
+    public void addListener(TransitionListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Changes an applicant's status if it still is the expected one.
+     *
+     * @param applicant The applicant whose application changes.
+     * @param from      The status the application must have, or null for no application.
+     * @param to        The new status, or null to clear the application.
+     * @return true if the status was changed, false if the change is illegal or the status was no longer {@code from}.
+     */
+    public boolean transition(Applicant applicant, ApplicationStatus from, ApplicationStatus to) {
+        return transition(applicant, from, to, null);
+    }
+
+    /**
+     * Changes an applicant's status if it still is the expected one, and then updates the rest of the
+     * application (e.g. clears the project) before the change is published.
+     * The update runs only for the caller that won the change, so it needs no further checks.
+     *
+     * @param applicant The applicant whose application changes.
+     * @param from      The status the application must have, or null for no application.
+     * @param to        The new status, or null to clear the application.
+     * @param update    The update to the applicant's other application details, or null for none.
+     * @return true if the status was changed, false if the change is illegal or the status was no longer {@code from}.
+     */
+    public boolean transition(Applicant applicant, ApplicationStatus from, ApplicationStatus to, Consumer<Applicant> update) {
+        if (!checkLegal(applicant, from, to)) {
+            return false;
+        }
+        if (!applicant.compareAndSetStatus(from, to)) {
+            return false;
+        }
+        if (update != null) {
+            update.accept(applicant);
+        }
+        publish(Collections.singletonList(new Transition(applicant, from, to)));
+        return true;
+    }
+
+    /**
+     * Changes the status of several applicants from the same status to another, publishing the changes
+     * together once all are made. Applicants whose status is no longer {@code from} are skipped.
+     *
+     * @param applicants The applicants whose applications change.
+     * @param from       The status the applications must have.
+     * @param to         The new status.
+     * @param update     The update to each changed applicant's other application details, or null for none.
+     * @return The applicants whose status was changed, in the given order.
+     */
+    public List<Applicant> transitionAll(Collection<Applicant> applicants, ApplicationStatus from, ApplicationStatus to,
+            Consumer<Applicant> update) {
+        return transitionAll(Collections.singletonMap(to, applicants), from, update);
+    }
+
+    /**
+     * Changes the status of several applicants from the same status to a status chosen per group of applicants
+     * (e.g. SUCCESSFUL or UNSUCCESSFUL after a ballot), publishing the changes together once all are made.
+     * Applicants whose status is no longer {@code from} are skipped.
+     *
+     * @param targets The applicants whose applications change, by their new status.
+     * @param from    The status the applications must have.
+     * @param update  The update to each changed applicant's other application details, or null for none.
+     * @return The applicants whose status was changed, by new status and then in the given order.
+     */
+    public List<Applicant> transitionAll(Map<ApplicationStatus, ? extends Collection<Applicant>> targets,
+            ApplicationStatus from, Consumer<Applicant> update) {
+        return changeAll(targets, from, update, true);
+    }
+
+    /**
+     * Clears the applications of several applicants with the same status because the project they applied to
+     * is being deleted, publishing the changes together once all are made. Unlike {@link #transitionAll}, this
+     * is not limited to the legal edges: an application of any status ends without an application.
+     * Applicants whose status is no longer {@code from} are skipped.
+     *
+     * @param applicants The applicants whose applications are cleared.
+     * @param from       The status the applications must have.
+     * @param update     The update to each changed applicant's other application details, or null for none.
+     * @return The applicants whose application was cleared, in the given order.
+     */
+    public List<Applicant> clearForDeletedProject(Collection<Applicant> applicants, ApplicationStatus from,
+            Consumer<Applicant> update) {
+        Map<ApplicationStatus, Collection<Applicant>> targets = new HashMap<>();
+        targets.put(null, applicants);
+        return changeAll(targets, from, update, false);
+    }
+
+    private List<Applicant> changeAll(Map<ApplicationStatus, ? extends Collection<Applicant>> targets,
+            ApplicationStatus from, Consumer<Applicant> update, boolean legalEdgesOnly) {
+        int size = 0;
+        for (Collection<Applicant> applicants : targets.values()) {
+            size += applicants.size();
+        }
+        List<Transition> made = new ArrayList<>(size);
+        List<Applicant> changed = new ArrayList<>(size);
+        for (Map.Entry<ApplicationStatus, ? extends Collection<Applicant>> target : targets.entrySet()) {
+            ApplicationStatus to = target.getKey();
+            if (target.getValue().isEmpty() || (legalEdgesOnly && !checkLegal(null, from, to))) {
+                continue;
+            }
+            for (Applicant applicant : target.getValue()) {
+                if (!applicant.compareAndSetStatus(from, to)) {
+                    continue;
+                }
+                if (update != null) {
+                    update.accept(applicant);
+                }
+                made.add(new Transition(applicant, from, to));
+                changed.add(applicant);
+            }
+        }
+        if (!made.isEmpty()) {
+            publish(made);
+        }
+        return changed;
+    }
+
+    private static boolean checkLegal(Applicant applicant, ApplicationStatus from, ApplicationStatus to) {
+        if (isLegal(from, to)) {
+            return true;
+        }
+        System.out.println("Illegal status change " + from + " -> " + to
+                + (applicant != null ? " for NRIC " + applicant.getNRIC() : "") + ".");
+        return false;
+    }
+
+    private void publish(List<Transition> transitions) {
+        List<Transition> view = Collections.unmodifiableList(transitions);
+        for (TransitionListener listener : listeners) {
+            listener.onTransitions(view);
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package control;
+
+import entities.Applicant;
+import entities.Project;
+import entities.Room;
+import enums.ApplicationStatus;
+import enums.BallotPriority;
+import enums.RoomType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Allocates the units of oversubscribed projects by ballot instead of first come, first served.
+ * <p>
+ * The PENDING applications of each project and room type are drawn separately: they are put in a random
+ * order from a seeded generator, ordered by priority tier (the random order is kept within a tier), and the
+ * first applicants get the available units. The others become UNSUCCESSFUL, or stay PENDING on a ranked
+ * waitlist. The draws run in parallel on the common fork/join pool and the outcome is persisted once.
+ * <p>
+ * A ballot is reproducible: each draw's generator is seeded from the ballot seed, the project name and the
+ * room type, and the applicants are sorted by NRIC before the shuffle, so the same seed over the same
+ * applications always gives the same result, however the draws are scheduled.
+ */
+public class BallotManager {
+
+    // Age bands for the AGE_BANDS priorities, oldest first: 55 and above, 45 to 54, 35 to 44, below 35
+    private static final int[] AGE_BAND_FLOORS = {55, 45, 35};
+    // Draws with at least this many applications sort their applicants in parallel
+    private static final int PARALLEL_SORT_THRESHOLD = 10_000;
+
+    private final ApplicationManager applicationManager;
+    private final ProjectManager projectManager;
+
+    /**
+     * Constructs a BallotManager.
+     *
+     * @param applicationManager The manager whose PENDING applications are balloted.
+     * @param projectManager     The manager for project data and room availability.
+     * @throws IllegalArgumentException if any manager dependency is null.
+     */
+    public BallotManager(ApplicationManager applicationManager, ProjectManager projectManager) {
+        if (applicationManager == null || projectManager == null) {
+            throw new IllegalArgumentException("ApplicationManager and ProjectManager cannot be null.");
+        }
+        this.applicationManager = applicationManager;
+        this.projectManager = projectManager;
+    }
+
+    /**
+     * The outcome of a ballot for one project and room type.
+     */
+    public static class Draw {
+        private final Project project;
+        private final RoomType roomType;
+        private final int units;
+        private final List<Applicant> ranked;
+        private final int successful;
+
+        private Draw(Project project, RoomType roomType, int units, List<Applicant> ranked) {
+            this.project = project;
+            this.roomType = roomType;
+            this.units = units;
+            this.ranked = ranked;
+            this.successful = Math.min(units, ranked.size());
+        }
+
+        public Project getProject() { return project; }
+        public RoomType getRoomType() { return roomType; }
+        public int getUnits() { return units; }
+        public int getApplications() { return ranked.size(); }
+
+        /**
+         * Gets the applicants who were allocated a unit.
+         * @return The successful applicants, in ballot order.
+         */
+        public List<Applicant> getSuccessful() { return ranked.subList(0, successful); }
+
+        /**
+         * Gets the applicants who were not allocated a unit, i.e. the waitlist if it was kept.
+         * @return The other applicants, in ballot order.
+         */
+        public List<Applicant> getOthers() { return ranked.subList(successful, ranked.size()); }
+    }
+
+    /**
+     * The outcome of a whole ballot.
+     */
+    public static class BallotResult {
+        private final long seed;
+        private final BallotPriority priority;
+        private final boolean waitlistKept;
+        private final List<Draw> draws;
+        private final int decided;
+
+        private BallotResult(long seed, BallotPriority priority, boolean waitlistKept, List<Draw> draws, int decided) {
+            this.seed = seed;
+            this.priority = priority;
+            this.waitlistKept = waitlistKept;
+            this.draws = draws;
+            this.decided = decided;
+        }
+
+        public long getSeed() { return seed; }
+        public BallotPriority getPriority() { return priority; }
+        public boolean isWaitlistKept() { return waitlistKept; }
+        public List<Draw> getDraws() { return draws; }
+
+        /**
+         * Gets the number of applications whose status the ballot changed.
+         * @return The number of applications set to SUCCESSFUL or UNSUCCESSFUL, or -1 if the ballot was not applied.
+         */
+        public int getDecided() { return decided; }
+    }
+
+    /**
+     * Runs a ballot over the PENDING applications of the given projects.
+     *
+     * @param projects     The projects to ballot, or null for all projects.
+     * @param seed         The seed of the ballot; the same seed gives the same result.
+     * @param priority     The priority tiers, or null for none.
+     * @param keepWaitlist true to leave the applicants without a unit PENDING on a waitlist, false to set them UNSUCCESSFUL.
+     * @return The outcome of every draw; the draws are ordered by project name and room type.
+     */
+    public BallotResult runBallot(Collection<Project> projects, long seed, BallotPriority priority, boolean keepWaitlist) {
+        BallotPriority tiers = priority != null ? priority : BallotPriority.NONE;
+        Set<Project> scope = null;
+        if (projects != null) {
+            scope = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Project project : projects) {
+                Project managed = project == null ? null : projectManager.findProjectByName(project.getName());
+                if (managed != null) {
+                    scope.add(managed);
+                }
+            }
+        }
+
+        Map<Project, Map<RoomType, List<Applicant>>> groups = new IdentityHashMap<>();
+        for (Applicant applicant : applicationManager.getApplicantsByStatus(ApplicationStatus.PENDING)) {
+            Project project = applicant.getAppliedProject();
+            RoomType roomType = applicant.getRoomChosen();
+            if (project == null || roomType == null || (scope != null && !scope.contains(project))) {
+                continue;
+            }
+            groups.computeIfAbsent(project, p -> new EnumMap<>(RoomType.class))
+                  .computeIfAbsent(roomType, r -> new ArrayList<>())
+                  .add(applicant);
+        }
+
+        List<DrawTask> tasks = new ArrayList<>();
+        for (Map.Entry<Project, Map<RoomType, List<Applicant>>> project : groups.entrySet()) {
+            for (Map.Entry<RoomType, List<Applicant>> group : project.getValue().entrySet()) {
+                Room room = project.getKey().getRoom(group.getKey());
+                int units = room != null ? room.getAvailableRooms() : 0;
+                tasks.add(new DrawTask(project.getKey(), group.getKey(), units, group.getValue()));
+            }
+        }
+        tasks.sort(Comparator.comparing((DrawTask t) -> t.project.getName().toLowerCase(Locale.ROOT))
+                .thenComparing(t -> t.roomType));
+
+        List<Draw> draws = tasks.parallelStream()
+                .map(task -> task.draw(seed, tiers))
+                .collect(Collectors.toList());
+
+        List<Applicant> winners = new ArrayList<>();
+        List<Applicant> losers = new ArrayList<>();
+        for (Draw draw : draws) {
+            winners.addAll(draw.getSuccessful());
+            if (!keepWaitlist) {
+                losers.addAll(draw.getOthers());
+            }
+        }
+        int decided = winners.isEmpty() && losers.isEmpty() ? 0 : applicationManager.applyBallotOutcome(winners, losers);
+        return new BallotResult(seed, tiers, keepWaitlist, Collections.unmodifiableList(draws), decided);
+    }
+
+    /**
+     * Gets the priority tier of an applicant; lower tiers are allocated first.
+     *
+     * @param applicant The applicant.
+     * @param priority  The priority tiers of the ballot.
+     * @return The applicant's tier, from 0.
+     */
+    public static int tierOf(Applicant applicant, BallotPriority priority) {
+        switch (priority) {
+            case MARRIED_FIRST:
+                return applicant.isMarried() ? 0 : 1;
+            case AGE_BANDS:
+                return ageBand(applicant.getAge());
+            case MARRIED_THEN_AGE_BANDS:
+                return (applicant.isMarried() ? 0 : AGE_BAND_FLOORS.length + 1) + ageBand(applicant.getAge());
+            default:
+                return 0;
+        }
+    }
+
+    private static int ageBand(int age) {
+        for (int i = 0; i < AGE_BAND_FLOORS.length; i++) {
+            if (age >= AGE_BAND_FLOORS[i]) {
+                return i;
+            }
+        }
+        return AGE_BAND_FLOORS.length;
+    }
+
+    /**
+     * The PENDING applications of one project and room type, waiting to be drawn.
+     */
+    private static final class DrawTask {
+        private final Project project;
+        private final RoomType roomType;
+        private final int units;
+        private final List<Applicant> applicants;
+
+        private DrawTask(Project project, RoomType roomType, int units, List<Applicant> applicants) {
+            this.project = project;
+            this.roomType = roomType;
+            this.units = units;
+            this.applicants = applicants;
+        }
+
+        private Draw draw(long seed, BallotPriority priority) {
+            int n = applicants.size();
+            // Sort by NRIC first so the draw does not depend on the order the applications arrived in
+            Entry[] entries = new Entry[n];
+            for (int i = 0; i < n; i++) {
+                Applicant applicant = applicants.get(i);
+                entries[i] = new Entry(applicant.getNRIC(), applicant, tierOf(applicant, priority));
+            }
+            Comparator<Entry> byNric = Comparator.comparing(e -> e.nric);
+            if (n >= PARALLEL_SORT_THRESHOLD) {
+                Arrays.parallelSort(entries, byNric);
+            } else {
+                Arrays.sort(entries, byNric);
+            }
+
+            SplittableRandom random = new SplittableRandom(drawSeed(seed));
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                Entry swap = entries[i];
+                entries[i] = entries[j];
+                entries[j] = swap;
+            }
+
+            // Stable counting sort by tier keeps the random order within each tier
+            int tiers = 0;
+            for (Entry e : entries) {
+                tiers = Math.max(tiers, e.tier + 1);
+            }
+            int[] starts = new int[tiers + 1];
+            for (Entry e : entries) {
+                starts[e.tier + 1]++;
+            }
+            for (int t = 1; t <= tiers; t++) {
+                starts[t] += starts[t - 1];
+            }
+            Applicant[] ranked = new Applicant[n];
+            for (Entry e : entries) {
+                ranked[starts[e.tier]++] = e.applicant;
+            }
+            return new Draw(project, roomType, Math.max(0, units), Arrays.asList(ranked));
+        }
+
+        private long drawSeed(long seed) {
+            long h = seed;
+            h = h * 31 + project.getName().toLowerCase(Locale.ROOT).hashCode();
+            h = h * 31 + roomType.ordinal();
+            return h;
+        }
+    }
+
+    private static final class Entry {
+        private final String nric;
+        private final Applicant applicant;
+        private final int tier;
+
+        private Entry(String nric, Applicant applicant, int tier) {
+            this.nric = nric;
+            this.applicant = applicant;
+            this.tier = tier;
+        }
+    }
+}
@@ -52,13 +52,7 @@ public class BookingManager {
         }
 
         // 1. Find the Applicant
-        Applicant applicant = null;
-        for(Applicant app : applicationManager.getAllApplicants()) {
-            if(app.getNRIC().equalsIgnoreCase(applicantNRIC)) {
-                applicant = app;
-                break;
-            }
-        }
+        Applicant applicant = applicationManager.findApplicantByNRIC(applicantNRIC);
 
         if (applicant == null) {
             System.err.println("Booking failed: Applicant with NRIC '" + applicantNRIC + "' not found.");
@@ -98,8 +92,8 @@ public class BookingManager {
         }
 
 
-        // 5. Delegate status update AND saving to ApplicationManager
-        boolean statusUpdated = applicationManager.updateAndSaveApplicantStatus(applicant, ApplicationStatus.BOOKED);
+        // 5. Delegate status update AND saving to ApplicationManager; fails if another officer booked first
+        boolean statusUpdated = applicationManager.transition(applicant, ApplicationStatus.SUCCESSFUL, ApplicationStatus.BOOKED);
 
         if (statusUpdated) {
              System.out.println("Flat (" + chosenRoom + ") booked successfully by Officer " + bookingOfficer.getName() +
@@ -2,20 +2,44 @@ package control;
 
 import entities.Enquiry;
 import utils.FileManager;
+import utils.RecordStore;
+import utils.RecordStores;
+import utils.StringPool;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
 /**
  * Manages the creation, retrieval, modification, and persistence of Enquiry objects.
  * Handles loading enquiries from and saving them to `enquiries.csv`.
  * Provides methods for submitting, replying to, editing, and deleting enquiries.
+ * Enquiries are indexed by applicant NRIC and by project name, and enquiries still awaiting
+ * a reply are indexed separately, so lookups do not scan every enquiry. All changes to
+ * enquiries (submit, reply, edit, delete) should go through this manager to keep the indexes consistent.
  */
 public class EnquiryManager {
 
-    private List<Enquiry> allEnquiries = new ArrayList<>();
+    // Enquiry does not override equals, so these sets hold enquiries by identity, in submission order
+    private final Set<Enquiry> allEnquiries = new LinkedHashSet<>();
+    private final Map<String, Set<Enquiry>> byApplicant = new HashMap<>();
+    private final Map<String, Set<Enquiry>> byProject = new HashMap<>();
+    private final Set<Enquiry> unreplied = new LinkedHashSet<>();
+    private final Map<String, Set<Enquiry>> unrepliedByProject = new HashMap<>();
+    // Guards the sets and indexes: lookups share the read lock, changes take the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
     private static final String FILE_PATH = "data/enquiries.csv";
+    private static final String HEADER = "applicantNRIC,applicantName,Project,Message,Reply,ReplyingBy";
+    // Enquiries are keyed by applicant NRIC, so a change rewrites only that applicant's enquiries where supported
+    private final RecordStore store = RecordStores.open(FILE_PATH, HEADER, false);
 
     /**
      * Loads enquiries from the default CSV file path.
@@ -26,50 +50,53 @@ public class EnquiryManager {
 
     /**
      * Loads enquiry data from the specified CSV file path.
-     * Clears current enquiries. Parses lines into Enquiry objects,
-     * handling potential CSV formatting issues and parsing errors.
+     * Clears current enquiries. Streams records into Enquiry objects; quoted fields
+     * (e.g. messages or replies containing commas) are parsed per RFC 4180.
+     * The default file is read through the configured record store.
      * Format: applicantNRIC,applicantName,Project,Message,Reply,ReplyingBy
      *
      * @param filePath The path to the CSV file containing enquiry data.
      */
     public void loadEnquiries(String filePath) {
-        allEnquiries.clear();
-        List<String> lines = FileManager.readFile(filePath);
-        if (lines == null || lines.size() <= 1) {
-             System.out.println("No enquiry data found in " + filePath + " or file is empty.");
-             return;
-        }
-
-        for (String line : lines.subList(1, lines.size())) {
-            try {
-                 // Let's assume the simple comma split
-                String[] parts = line.split(",", 6);
-                if (parts.length >= 4) { // Need at least NRIC, Name, Project, Message
-                    String nr = parts[0].trim();
-                    String name = parts[1].trim();
-                    String project = parts[2].trim();
-                    String message = unescapeCsvField(parts[3].trim());
-                    // Reply might be missing if parts.length is 4, or empty if parts[4] exists but is empty/""
-                    String reply = (parts.length >= 5 && !unescapeCsvField(parts[4].trim()).isEmpty()) 
-                    	    ? unescapeCsvField(parts[4].trim()) 
-                    	    : null;
+        lock.writeLock().lock();
+        try {
+            clearIndexes();
+            boolean defaultFile = filePath.equals(FILE_PATH);
+            Consumer<String[]> handler = record -> {
+                try {
+                    if (record.length >= 4) { // Need at least NRIC, Name, Project, Message
+                        String nr = record[0].trim();
+                        String name = record[1].trim();
+                        String project = StringPool.canonical(record[2].trim());
+                        String message = record[3].trim();
+                        // Reply might be missing if there are only 4 fields, or empty if the field exists but is empty
+                        String reply = record.length > 4 ? record[4].trim() : "";
+                        String replyingOfficer = record.length > 5 ? record[5].trim() : "";
 
-                    	String replyingOfficer = (parts.length >= 6 && !unescapeCsvField(parts[5].trim()).isEmpty()) 
-                    	    ? unescapeCsvField(parts[5].trim()) 
-                    	    : null;
-
-                    Enquiry e = new Enquiry(nr, name, project, message);
-                    if (reply != null) {
-                         e.setReply(reply, replyingOfficer);
+                        Enquiry e = new Enquiry(nr, name, project, message);
+                        if (!reply.isEmpty()) {
+                             e.setReply(reply, replyingOfficer.isEmpty() ? null : StringPool.canonical(replyingOfficer));
+                        }
+                        addToIndexes(e);
+                    } else {
+                        System.err.println("Skipping malformed line in " + filePath + ": " + String.join(",", record));
                     }
-                    allEnquiries.add(e);
-                } else {
-                    System.err.println("Skipping malformed line in " + filePath + ": " + line);
+                } catch (Exception e) {
+                     System.err.println("Error processing line in " + filePath + ": " + String.join(",", record) + " - " + e.getMessage());
+                     e.printStackTrace();
                 }
-            } catch (Exception e) {
-                 System.err.println("Error processing line in " + filePath + ": " + line + " - " + e.getMessage());
-                 e.printStackTrace();
+            };
+            long count = defaultFile
+                    ? store.forEachRecord(handler)
+                    : FileManager.forEachRecord(filePath, true, record -> handler.accept(record.toArray()));
+            if (count == 0) {
+                 System.out.println("No enquiry data found in " + filePath + " or file is empty.");
+            }
+            if (defaultFile && store.needsMigration()) {
+                saveEnquiries(FILE_PATH);
             }
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
@@ -83,24 +110,40 @@ public class EnquiryManager {
     /**
      * Saves the current list of Enquiry objects to the specified CSV file path.
      * Overwrites the existing file. Formats each enquiry using CSV escaping rules.
+     * The default file is saved through the configured record store, which with a database backend
+     * writes only the enquiries that changed.
      * Format: applicantNRIC,applicantName,Project,Message,Reply,ReplyingBy
      *
      * @param filePath The path to the CSV file where enquiry data should be saved.
      */
     public void saveEnquiries(String filePath) {
-        List<String> lines = new ArrayList<>();
-        lines.add("applicantNRIC,applicantName,Project,Message,Reply,ReplyingBy");
-        for (Enquiry e : allEnquiries) {
-            lines.add(String.join(",",
-                escapeCsvField(e.getApplicantNRIC()),
-                escapeCsvField(e.getApplicantName()),
-                escapeCsvField(e.getProjectName()),
-                escapeCsvField(e.getMessage()),
-                escapeCsvField(e.getReply() == null ? "" : e.getReply()),
-                escapeCsvField(e.getReplyingOfficer()== null ? "" : e.getReplyingOfficer())
-            ));
+        lock.readLock().lock();
+        try {
+            if (filePath.equals(FILE_PATH)) {
+                store.markAllDirty();
+                store.save(allEnquiries, Enquiry::getApplicantNRIC, EnquiryManager::formatEnquiry);
+                return;
+            }
+            List<String> lines = new ArrayList<>();
+            lines.add(HEADER);
+            for (Enquiry e : allEnquiries) {
+                lines.add(FileManager.toCsvLine(formatEnquiry(e)));
+            }
+            FileManager.writeFile(filePath, lines);
+        } finally {
+            lock.readLock().unlock();
         }
-        FileManager.writeFile(filePath, lines);
+    }
+
+    private static String[] formatEnquiry(Enquiry e) {
+        return new String[] {
+            e.getApplicantNRIC(),
+            e.getApplicantName(),
+            e.getProjectName(),
+            e.getMessage(),
+            e.getReply() == null ? "" : e.getReply(),
+            e.getReplyingOfficer() == null ? "" : e.getReplyingOfficer()
+        };
     }
 
     /**
@@ -109,11 +152,16 @@ public class EnquiryManager {
      * @param enquiry The Enquiry object to submit. Must not be null.
      */
     public void submitEnquiry(Enquiry enquiry) {
-        if (enquiry != null) {
-             allEnquiries.add(enquiry);
-             System.out.println("Enquiry submitted by " + enquiry.getApplicantNRIC() + " for project " + enquiry.getProjectName());
-        } else {
-            System.err.println("Cannot submit a null enquiry.");
+        lock.writeLock().lock();
+        try {
+            if (enquiry != null) {
+                 addToIndexes(enquiry);
+                 System.out.println("Enquiry submitted by " + enquiry.getApplicantNRIC() + " for project " + enquiry.getProjectName());
+            } else {
+                System.err.println("Cannot submit a null enquiry.");
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
@@ -124,16 +172,15 @@ public class EnquiryManager {
      * @return A List of Enquiry objects submitted by the applicant. Returns an empty list if NRIC is invalid or no enquiries are found.
      */
     public List<Enquiry> getEnquiriesByApplicant(String applicantNRIC) {
-        List<Enquiry> applicantEnquiries = new ArrayList<>();
-        if (applicantNRIC == null || applicantNRIC.trim().isEmpty()) {
-            return applicantEnquiries;
-        }
-        for (Enquiry e : allEnquiries) {
-            if (e.getApplicantNRIC().equalsIgnoreCase(applicantNRIC.trim())) {
-                applicantEnquiries.add(e);
+        lock.readLock().lock();
+        try {
+            if (applicantNRIC == null || applicantNRIC.trim().isEmpty()) {
+                return new ArrayList<>();
             }
+            return new ArrayList<>(byApplicant.getOrDefault(applicantKey(applicantNRIC), Collections.emptySet()));
+        } finally {
+            lock.readLock().unlock();
         }
-        return applicantEnquiries;
     }
 
     /**
@@ -143,16 +190,61 @@ public class EnquiryManager {
      * @return A List of Enquiry objects for the project. Returns an empty list if name is invalid or no enquiries are found.
      */
     public List<Enquiry> getEnquiriesByProject(String projectName) {
-        List<Enquiry> projectEnquiries = new ArrayList<>();
-         if (projectName == null || projectName.trim().isEmpty()) {
-            return projectEnquiries;
+        lock.readLock().lock();
+        try {
+            if (projectName == null || projectName.trim().isEmpty()) {
+                return new ArrayList<>();
+            }
+            return new ArrayList<>(byProject.getOrDefault(projectKey(projectName), Collections.emptySet()));
+        } finally {
+            lock.readLock().unlock();
         }
-        for (Enquiry e : allEnquiries) {
-            if (e.getProjectName().equalsIgnoreCase(projectName.trim())) {
-                projectEnquiries.add(e);
+    }
+
+    /**
+     * Retrieves the enquiries for a project that have not been replied to yet, in submission order.
+     *
+     * @param projectName The name of the project.
+     * @return A List of unreplied enquiries for the project. Returns an empty list if name is invalid or none are pending.
+     */
+    public List<Enquiry> getUnrepliedEnquiriesByProject(String projectName) {
+        lock.readLock().lock();
+        try {
+            if (projectName == null || projectName.trim().isEmpty()) {
+                return new ArrayList<>();
             }
+            return new ArrayList<>(unrepliedByProject.getOrDefault(projectKey(projectName), Collections.emptySet()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves all enquiries that have not been replied to yet, in submission order.
+     *
+     * @return A List of unreplied enquiries.
+     */
+    public List<Enquiry> getUnrepliedEnquiries() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(unreplied);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of enquiries that have not been replied to yet.
+     *
+     * @return The number of unreplied enquiries.
+     */
+    public int getUnrepliedCount() {
+        lock.readLock().lock();
+        try {
+            return unreplied.size();
+        } finally {
+            lock.readLock().unlock();
         }
-        return projectEnquiries;
     }
 
     /**
@@ -164,11 +256,19 @@ public class EnquiryManager {
      * @param officerName The name of the HDB staff member providing the reply.
      */
     public void replyToEnquiry(Enquiry enquiry, String reply, String officerName) {
-        if (enquiry != null) {
-            enquiry.setReply(reply, officerName);
-             System.out.println("Reply added to enquiry from " + enquiry.getApplicantNRIC() + " for project " + enquiry.getProjectName());
-        } else {
-             System.err.println("Cannot reply to a null enquiry.");
+        lock.writeLock().lock();
+        try {
+            if (enquiry != null) {
+                enquiry.setReply(reply, officerName);
+                if (allEnquiries.contains(enquiry)) {
+                    updateReplyIndex(enquiry);
+                }
+                 System.out.println("Reply added to enquiry from " + enquiry.getApplicantNRIC() + " for project " + enquiry.getProjectName());
+            } else {
+                 System.err.println("Cannot reply to a null enquiry.");
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
@@ -182,25 +282,30 @@ public class EnquiryManager {
      * @return true if the enquiry was successfully edited, false otherwise (e.g., permission denied, already replied).
      */
     public boolean editEnquiry(Enquiry enquiry, String newMessage, String editorNric) {
-        if (enquiry == null || newMessage == null || editorNric == null) {
-            System.err.println("Cannot edit enquiry: null parameter provided.");
-            return false;
-        }
-        // Check ownership
-        if (!enquiry.getApplicantNRIC().equalsIgnoreCase(editorNric)) {
-             System.err.println("Edit failed: User " + editorNric + " is not the owner of this enquiry.");
-             return false;
-        }
-        // Check if already replied (cannot edit after reply)
-        if (enquiry.getReply() != null && !enquiry.getReply().isEmpty()) {
-             System.out.println("Edit failed: Enquiry has already been replied to.");
-             return false;
-        }
+        lock.writeLock().lock();
+        try {
+            if (enquiry == null || newMessage == null || editorNric == null) {
+                System.err.println("Cannot edit enquiry: null parameter provided.");
+                return false;
+            }
+            // Check ownership
+            if (!enquiry.getApplicantNRIC().equalsIgnoreCase(editorNric)) {
+                 System.err.println("Edit failed: User " + editorNric + " is not the owner of this enquiry.");
+                 return false;
+            }
+            // Check if already replied (cannot edit after reply)
+            if (enquiry.getReply() != null && !enquiry.getReply().isEmpty()) {
+                 System.out.println("Edit failed: Enquiry has already been replied to.");
+                 return false;
+            }
 
-        enquiry.setMessage(newMessage);
-        System.out.println("Enquiry message updated by " + editorNric);
-        // Need to call saveEnquiries() later
-        return true;
+            enquiry.setMessage(newMessage);
+            System.out.println("Enquiry message updated by " + editorNric);
+            // Need to call saveEnquiries() later
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
@@ -212,94 +317,115 @@ public class EnquiryManager {
      * @return true if the enquiry was successfully deleted, false otherwise (e.g., permission denied, already replied, not found).
      */
     public boolean deleteEnquiry(Enquiry enquiryToDelete, String deleterNric) {
-        if (enquiryToDelete == null || deleterNric == null) {
-             System.err.println("Cannot delete enquiry: null parameter provided.");
-            return false;
-        }
-         // Check ownership
-        if (!enquiryToDelete.getApplicantNRIC().equalsIgnoreCase(deleterNric)) {
-             System.err.println("Delete failed: User " + deleterNric + " is not the owner of this enquiry.");
-             return false;
-        }
-         // Check if already replied (cannot delete after reply)
-        if (enquiryToDelete.getReply() != null && !enquiryToDelete.getReply().isEmpty()) {
-             System.out.println("Delete failed: Enquiry has already been replied to.");
-             return false;
-        }
-
-        // Remove from the list using iterator for safety
-        Iterator<Enquiry> iterator = allEnquiries.iterator();
-        boolean removed = false;
-        while(iterator.hasNext()) {
-            Enquiry current = iterator.next();
-            if (current == enquiryToDelete) {
-                 iterator.remove();
-                 removed = true;
-                 break;
+        lock.writeLock().lock();
+        try {
+            if (enquiryToDelete == null || deleterNric == null) {
+                 System.err.println("Cannot delete enquiry: null parameter provided.");
+                return false;
+            }
+             // Check ownership
+            if (!enquiryToDelete.getApplicantNRIC().equalsIgnoreCase(deleterNric)) {
+                 System.err.println("Delete failed: User " + deleterNric + " is not the owner of this enquiry.");
+                 return false;
+            }
+             // Check if already replied (cannot delete after reply)
+            if (enquiryToDelete.getReply() != null && !enquiryToDelete.getReply().isEmpty()) {
+                 System.out.println("Delete failed: Enquiry has already been replied to.");
+                 return false;
             }
-        }
 
-        if (removed) {
-             System.out.println("Enquiry deleted by " + deleterNric);
-             // Need to call saveEnquiries() later
-        } else {
-             System.err.println("Delete failed: Enquiry object not found in the current list.");
+            boolean removed = allEnquiries.remove(enquiryToDelete);
+            if (removed) {
+                removeFrom(byApplicant, applicantKey(enquiryToDelete.getApplicantNRIC()), enquiryToDelete);
+                removeFrom(byProject, projectKey(enquiryToDelete.getProjectName()), enquiryToDelete);
+                unreplied.remove(enquiryToDelete);
+                removeFrom(unrepliedByProject, projectKey(enquiryToDelete.getProjectName()), enquiryToDelete);
+                 System.out.println("Enquiry deleted by " + deleterNric);
+                 // Need to call saveEnquiries() later
+            } else {
+                 System.err.println("Delete failed: Enquiry object not found in the current list.");
+            }
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
         }
-        return removed;
     }
 
     /**
-     * Retrieves the current in-memory list of all enquiries loaded into the manager.
+     * Retrieves all enquiries loaded into the manager, in submission order.
      *
-     * @return A List containing all Enquiry objects.
+     * @return A new List containing all Enquiry objects.
      */
     public List<Enquiry> getAllEnquiries() {
-        return allEnquiries;
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(allEnquiries);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
-     * Escapes a string field for CSV output according to standard rules.
-     * Wraps fields containing commas, quotes, or newlines in double quotes,
-     * and escapes internal double quotes by doubling them ("").
+     * Replaces all enquiries with the given ones, e.g. when restoring from a snapshot.
      *
-     * @param field The string field to escape.
-     * @return The properly escaped string for CSV, or an empty string if input is null.
+     * @param restored The enquiries, in submission order.
      */
-    private String escapeCsvField(String field) {
-        if (field == null) {
-            return ""; // Represent null as empty string in CSV
+    public void replaceEnquiries(List<Enquiry> restored) {
+        lock.writeLock().lock();
+        try {
+            clearIndexes();
+            for (Enquiry e : restored) {
+                addToIndexes(e);
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
-        // Check if escaping is needed
-        if (field.contains(",") || field.contains("\"") || field.contains("\n")) {
-            // Replace internal double quotes with two double quotes
-            String escapedField = field.replace("\"", "\"\"");
-            // Wrap the entire field in double quotes
-            return "\"" + escapedField + "\"";
+    }
+
+    private void clearIndexes() {
+        allEnquiries.clear();
+        byApplicant.clear();
+        byProject.clear();
+        unreplied.clear();
+        unrepliedByProject.clear();
+    }
+
+    private void addToIndexes(Enquiry e) {
+        if (!allEnquiries.add(e)) {
+            return;
         }
-        // No escaping needed
-        return field;
+        byApplicant.computeIfAbsent(applicantKey(e.getApplicantNRIC()), k -> new LinkedHashSet<>()).add(e);
+        byProject.computeIfAbsent(projectKey(e.getProjectName()), k -> new LinkedHashSet<>()).add(e);
+        updateReplyIndex(e);
     }
 
-    /**
-     * Unescapes a string field read from a CSV file.
-     * Removes surrounding double quotes if present and replaces doubled internal quotes ("")
-     * with single quotes ("). Basic implementation.
-     *
-     * @param field The potentially escaped string field from CSV.
-     * @return The unescaped string, or the original string if no escaping was detected. Returns null if input is null.
-     */
-    private String unescapeCsvField(String field) {
-        if (field == null) {
-            return null;
+    // Moves an enquiry into or out of the unreplied indexes to match its current reply
+    private void updateReplyIndex(Enquiry e) {
+        String key = projectKey(e.getProjectName());
+        if (e.getReply() == null || e.getReply().isEmpty()) {
+            unreplied.add(e);
+            unrepliedByProject.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(e);
+        } else {
+            unreplied.remove(e);
+            removeFrom(unrepliedByProject, key, e);
         }
-        // Check if it starts and ends with quotes (basic check)
-        if (field.startsWith("\"") && field.endsWith("\"")) {
-            // Remove surrounding quotes
-            String unquoted = field.substring(1, field.length() - 1);
-            // Replace escaped double quotes
-            return unquoted.replace("\"\"", "\"");
+    }
+
+    private static void removeFrom(Map<String, Set<Enquiry>> index, String key, Enquiry e) {
+        Set<Enquiry> enquiries = index.get(key);
+        if (enquiries != null) {
+            enquiries.remove(e);
+            if (enquiries.isEmpty()) {
+                index.remove(key);
+            }
         }
-        // No escaping detected or invalid format, return as is
-        return field;
+    }
+
+    private static String applicantKey(String nric) {
+        return nric == null ? "" : UserIndex.normalize(nric);
+    }
+
+    private static String projectKey(String projectName) {
+        return projectName == null ? "" : projectName.trim().toLowerCase(Locale.ROOT);
     }
 }
\ No newline at end of file
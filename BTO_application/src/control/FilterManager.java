@@ -1,16 +1,18 @@
 package control;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 import entities.Filter;
 import enums.RoomType;
+import utils.LongObjectMap;
+import utils.NricKey;
+import utils.RecordStore;
+import utils.RecordStores;
+import utils.StringPool;
 
 /**
  * Manages user-specific filter preferences for viewing BTO projects.
@@ -18,8 +20,11 @@ import enums.RoomType;
  * setting filters for a user, and saving all filters back to the CSV file.
  */
 public class FilterManager {
-	private Map<String, Filter> userFilters = new HashMap<>();
-    private final String filePath;
+	// Filters keyed by packed NRIC; NRICs outside the standard format fall back to a String-keyed map
+	private final LongObjectMap<Filter> userFilters = new LongObjectMap<>();
+	private final Map<String, Filter> otherFilters = new HashMap<>();
+    private static final String HEADER = "NRIC,Neighbourhood,RoomType";
+    private final RecordStore store;
     
     /**
      * Constructs a FilterManager and loads existing filter settings from the specified file path.
@@ -27,8 +32,21 @@ public class FilterManager {
      * @param filePath The path to the CSV file used for storing and loading filter settings.
      */
     public FilterManager(String filePath) {
-    	this.filePath = filePath;
-    	loadFilters();
+    	this(filePath, true);
+    }
+
+    /**
+     * Constructs a FilterManager for the specified file path, optionally deferring the load
+     * so that it can be run later with {@link #loadFilters()} (e.g. by the startup loader).
+     *
+     * @param filePath The path to the CSV file used for storing and loading filter settings.
+     * @param loadNow  true to load the filter settings immediately, false to defer loading.
+     */
+    public FilterManager(String filePath, boolean loadNow) {
+    	this.store = RecordStores.open(filePath, HEADER, false);
+    	if (loadNow) {
+    		loadFilters();
+    	}
     }
     
     /**
@@ -39,7 +57,9 @@ public class FilterManager {
      * @return The Filter object for the user, or a default Filter if none exists.
      */
     public Filter getFilter(String nric) {
-        return userFilters.getOrDefault(nric, new Filter());
+        long key = NricKey.encode(nric);
+        Filter filter = key != NricKey.INVALID ? userFilters.get(key) : otherFilters.get(nric);
+        return filter != null ? filter : new Filter();
     }
 
     /**
@@ -49,28 +69,51 @@ public class FilterManager {
      * @param filter The Filter object containing the desired settings.
      */
     public void setFilter(String nric, Filter filter) {
-        userFilters.put(nric, filter);
+        long key = NricKey.encode(nric);
+        if (filter == null) {
+            if (key != NricKey.INVALID) userFilters.remove(key); else otherFilters.remove(nric);
+        } else if (key != NricKey.INVALID) {
+            userFilters.put(key, filter);
+        } else {
+            otherFilters.put(nric, filter);
+        }
     }
 
     /**
-     * Saves the current filter settings for all users to the CSV file.
-     * Overwrites the existing file content.
+     * Saves the current filter settings for all users through the record store.
+     * Overwrites the existing file content; with a database backend only changed filters are written.
      * Format: NRIC,Neighbourhood,RoomType
      */
     public void saveFilters() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            writer.write("NRIC,Neighbourhood,RoomType\n");
-            for (Map.Entry<String, Filter> entry : userFilters.entrySet()) {
-                String nric = entry.getKey();
-                Filter filter = entry.getValue();
-                writer.write(String.format("%s,%s,%s\n",
-                        nric,
-                        filter.getNeighbourhood() != null ? filter.getNeighbourhood() : "",
-                        filter.getRoomType() != null ? filter.getRoomType().name() : ""));
-            }
-        } catch (IOException e) {
-            System.out.println("Failed to save filter settings: " + e.getMessage());
-        }
+        List<String[]> records = new ArrayList<>();
+        forEachFilter((nric, filter) -> records.add(formatFilter(nric, filter)));
+        store.markAllDirty();
+        store.save(records, record -> record[0], record -> record);
+    }
+
+    /**
+     * Passes every saved filter to the consumer, together with the NRIC it belongs to.
+     *
+     * @param consumer Receives each NRIC and its filter.
+     */
+    public void forEachFilter(BiConsumer<String, Filter> consumer) {
+        userFilters.forEach((key, filter) -> consumer.accept(NricKey.decode(key), filter));
+        otherFilters.forEach(consumer);
+    }
+
+    /**
+     * Removes all in-memory filter settings, e.g. before restoring them from a snapshot.
+     */
+    public void clearFilters() {
+        userFilters.clear();
+        otherFilters.clear();
+    }
+
+    private static String[] formatFilter(String nric, Filter filter) {
+        return new String[] {
+                nric,
+                filter.getNeighbourhood() != null ? filter.getNeighbourhood() : "",
+                filter.getRoomType() != null ? filter.getRoomType().name() : ""};
     }
 
     /**
@@ -80,23 +123,18 @@ public class FilterManager {
      * Format: NRIC,Neighbourhood,RoomType
      */
     public void loadFilters() {
-        File file = new File(filePath);
-        if (!file.exists()) return;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line = reader.readLine(); // skip header
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",", -1);
-                if (parts.length != 3) continue;
+        clearFilters();
+        store.forEachRecord(record -> {
+            if (record.length != 3) return;
 
-                String nric = parts[0].trim();
-                String neighbourhood = parts[1].trim().isEmpty() ? null : parts[1].trim();
-                RoomType roomType = parts[2].trim().isEmpty() ? null : RoomType.valueOf(parts[2].trim());
+            String nric = record[0].trim();
+            String neighbourhood = record[1].trim().isEmpty() ? null : StringPool.canonical(record[1].trim());
+            RoomType roomType = record[2].trim().isEmpty() ? null : RoomType.valueOf(record[2].trim());
 
-                userFilters.put(nric, new Filter(neighbourhood, roomType));
-            }
-        } catch (IOException e) {
-            System.out.println("Failed to load filter settings: " + e.getMessage());
+            setFilter(nric, new Filter(neighbourhood, roomType));
+        });
+        if (store.needsMigration()) {
+            saveFilters();
         }
     }
 }
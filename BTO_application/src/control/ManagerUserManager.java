@@ -1,9 +1,11 @@
 package control;
 
 import entities.Manager;
-import utils.FileManager;
+import utils.RecordStore;
+import utils.RecordStores;
+import utils.SnapshotList;
 
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -13,8 +15,12 @@ import java.util.List;
  */
 public class ManagerUserManager implements UserManager<Manager> {
 
-    private List<Manager> managers = new ArrayList<>();
+    // Changed one at a time; readers get immutable snapshots
+    private final SnapshotList<Manager> managers = new SnapshotList<>();
+    private final UserIndex<Manager> index = new UserIndex<>();
     private static final String FILE_PATH = "data/ManagerList.csv";
+    private static final String HEADER = "Name,NRIC,Age,Status,Password";
+    private final RecordStore store = RecordStores.open(FILE_PATH, HEADER, false);
 
     /**
      * Loads manager data from the CSV file.
@@ -24,27 +30,31 @@ public class ManagerUserManager implements UserManager<Manager> {
     @Override
     public void loadUsers() {
         managers.clear();
-        List<String> lines = FileManager.readFile(FILE_PATH);
-        for (String line : lines.subList(1, lines.size())) {
+        index.clear();
+        store.forEachRecord(record -> {
              try {
-                String[] parts = line.split(",");
-                if (parts.length >= 5) {
-                    String name = parts[0].trim();
-                    String nric = parts[1].trim().toUpperCase();
-                    int age = Integer.parseInt(parts[2].trim());
-                    String status = parts[3].trim().toLowerCase();
+                if (record.length >= 5) {
+                    String name = record[0].trim();
+                    String nric = record[1].trim().toUpperCase();
+                    int age = Integer.parseInt(record[2].trim());
+                    String status = record[3].trim().toLowerCase();
                     boolean isMarried = status.equals("married");
-                    String password = parts[4].trim();
-                    managers.add(new Manager(name, nric, age, isMarried, password));
+                    String password = record[4].trim();
+                    Manager manager = new Manager(name, nric, age, isMarried, password);
+                    managers.add(manager);
+                    index.add(manager);
                 } else {
-                    System.err.println("Skipping malformed line in " + FILE_PATH + ": " + line);
+                    System.err.println("Skipping malformed line in " + FILE_PATH + ": " + String.join(",", record));
                 }
             } catch (NumberFormatException e) {
-                System.err.println("Error parsing age in " + FILE_PATH + " for line: " + line + " - " + e.getMessage());
+                System.err.println("Error parsing age in " + FILE_PATH + " for line: " + String.join(",", record) + " - " + e.getMessage());
             } catch (Exception e) {
-                System.err.println("Error processing line in " + FILE_PATH + ": " + line + " - " + e.getMessage());
+                System.err.println("Error processing line in " + FILE_PATH + ": " + String.join(",", record) + " - " + e.getMessage());
                 e.printStackTrace();
             }
+        });
+        if (store.needsMigration()) {
+            saveUsers();
         }
     }
 
@@ -54,29 +64,42 @@ public class ManagerUserManager implements UserManager<Manager> {
      */
     @Override
     public void saveUsers() {
-        List<String> lines = new ArrayList<>();
-        lines.add("Name,NRIC,Age,Status,Password");
-        for (Manager manager : managers) {
-            String status = manager.isMarried() ? "married" : "single";
-            lines.add(
-                    manager.getName() + "," +
-                    manager.getNRIC() + "," +
-                    manager.getAge() + "," +
-                    status + "," +
-                    manager.getPassword()
-            );
+        store.markAllDirty();
+        store.save(managers.snapshot(), Manager::getNRIC, ManagerUserManager::formatManager);
+    }
+
+    /**
+     * Saves changed managers. With a database backend only their rows are written.
+     *
+     * @param changedUsers The managers whose data changed.
+     */
+    @Override
+    public void saveUsers(Collection<? extends Manager> changedUsers) {
+        for (Manager manager : changedUsers) {
+            store.markDirty(manager.getNRIC());
         }
-        FileManager.writeFile(FILE_PATH, lines);
+        store.save(managers.snapshot(), Manager::getNRIC, ManagerUserManager::formatManager);
+    }
+
+    private static String[] formatManager(Manager manager) {
+        String status = manager.isMarried() ? "married" : "single";
+        return new String[] {
+                manager.getName(),
+                manager.getNRIC(),
+                String.valueOf(manager.getAge()),
+                status,
+                manager.getPassword()
+        };
     }
 
     /**
-     * Retrieves the current in-memory list of all loaded managers.
+     * Retrieves an immutable snapshot of all loaded managers, safe to iterate while managers are added or removed.
      *
      * @return A List containing all Manager objects.
      */
     @Override
     public List<Manager> getUsers() {
-        return managers;
+        return managers.snapshot();
     }
 
     /**
@@ -87,17 +110,53 @@ public class ManagerUserManager implements UserManager<Manager> {
      */
     @Override
     public Manager findByNRIC(String nric) {
-        for (Manager manager : managers) {
-            if (manager.getNRIC().equalsIgnoreCase(nric)) {
-                return manager;
-            }
+        return index.get(nric);
+    }
+
+    /**
+     * Adds a manager to the in-memory list and NRIC index.
+     *
+     * @param user The Manager to add.
+     * @return true if added, false if null or an account with the same NRIC already exists.
+     */
+    @Override
+    public boolean addUser(Manager user) {
+        if (user == null || !index.add(user)) {
+            return false;
+        }
+        managers.add(user);
+        store.markDirty(user.getNRIC());
+        return true;
+    }
+
+    /**
+     * Removes a manager from the in-memory list and NRIC index.
+     *
+     * @param user The Manager to remove.
+     * @return true if the Manager was found and removed, false otherwise.
+     */
+    @Override
+    public boolean removeUser(Manager user) {
+        if (user == null || !managers.remove(user)) {
+            return false;
         }
-        return null;
+        index.remove(user);
+        store.markDirty(user.getNRIC());
+        return true;
+    }
+
+    /**
+     * Removes all managers from the in-memory list and NRIC index.
+     */
+    @Override
+    public void clearUsers() {
+        managers.clear();
+        index.clear();
     }
 
     /**
      * Changes the password for the manager identified by the given NRIC.
-     * Saves the updated manager list if the change is successful.
+     * Saves the manager if the change is successful.
      *
      * @param nric        The NRIC of the manager whose password should be changed.
      * @param newPassword The new password to set.
@@ -108,7 +167,7 @@ public class ManagerUserManager implements UserManager<Manager> {
         Manager user = findByNRIC(nric);
         if (user != null) {
             if (user.changePass(newPassword)) {
-                saveUsers();
+                saveUsers(List.of(user));
                 return true;
             } else {
                 return false;
@@ -147,7 +147,7 @@ public class OfficerRegistrationManager {
 
         // --- Register ---
         officer.addRegisteredProject(project, OfficerRegistrationStatus.PENDING);
-        officerUserManager.saveUsers();
+        officerUserManager.saveUsers(List.of(officer));
         System.out.println("Registration request submitted. Status: PENDING.");
         return true;
     }
@@ -172,12 +172,9 @@ public class OfficerRegistrationManager {
                 }
                 officer.updateRegistrationStatus(project, OfficerRegistrationStatus.APPROVED);
                 project.setOfficerSlot(project.getOfficerSlot() - 1);
-                if (officerUserManager instanceof OfficerUserManager) {
-                    ((OfficerUserManager) officerUserManager).updateProjectListCSV(project, officer.getName());
-                }
                 project.addOfficer(officer.getName());
-                officerUserManager.saveUsers();
-                projectManager.saveProjects("data/ProjectList.csv");
+                officerUserManager.saveUsers(List.of(officer));
+                projectManager.saveOfficerAssignment(project);
                 System.out.println("Officer " + officer.getName() + " approved for project '" + project.getName() + "'.");
                 return true;
             }
@@ -201,7 +198,7 @@ public class OfficerRegistrationManager {
             OfficerRegistrationStatus status = officer.getRegistrationStatusForProject(project);
             if (status == OfficerRegistrationStatus.PENDING && project.getManager().equalsIgnoreCase(rejector.getName())) {
                 officer.updateRegistrationStatus(project, OfficerRegistrationStatus.REJECTED);
-                officerUserManager.saveUsers();
+                officerUserManager.saveUsers(List.of(officer));
                 System.out.println("Officer " + officer.getName() + " rejected for project '" + project.getName() + "'.");
                 return true;
             }
@@ -3,9 +3,12 @@ package control;
 import entities.Officer;
 import entities.Project;
 import enums.OfficerRegistrationStatus;
-import utils.FileManager;
+import utils.RecordStore;
+import utils.RecordStores;
+import utils.SnapshotList;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -15,8 +18,13 @@ import java.util.List;
  */
 public class OfficerUserManager implements UserManager<Officer> {
 
-    private List<Officer> officers = new ArrayList<>();
+    // Changed one at a time; readers get immutable snapshots
+    private final SnapshotList<Officer> officers = new SnapshotList<>();
+    private final UserIndex<Officer> index = new UserIndex<>();
     private static final String FILE_PATH = "data/OfficerList.csv";
+    private static final String HEADER = "Name,NRIC,Age,Status,Password,RegisteredProjects,RegistrationStatuses";
+    // Single file or NRIC-hashed shards, depending on the configured shard count
+    private final RecordStore store = RecordStores.open(FILE_PATH, HEADER, true);
     private ProjectManager projectManager;
     
     /**
@@ -31,8 +39,9 @@ public class OfficerUserManager implements UserManager<Officer> {
     }
 
     /**
-     * Loads officer data from the CSV file.
-     * Clears current officers. Parses lines into Officer objects, including
+     * Loads officer data from the CSV file, or from its shards when the sharded layout is in use.
+     * Clears current officers. Data stored in another layout than the configured one is saved again
+     * in the configured layout (migration). Parses lines into Officer objects, including
      * semicolon-separated registered project names and their corresponding statuses.
      * Uses ProjectManager to find Project objects. Handles parsing errors.
      * Format: Name,NRIC,Age,Status,Password,RegisteredProjects,RegistrationStatuses
@@ -40,23 +49,22 @@ public class OfficerUserManager implements UserManager<Officer> {
     @Override
     public void loadUsers() {
         officers.clear();
-        List<String> lines = FileManager.readFile(FILE_PATH);
-        for (String line : lines.subList(1, lines.size())) {
+        index.clear();
+        store.forEachRecord(record -> {
             try {
-                String[] parts = line.split(",", -1);
-                if (parts.length >= 7) {
-                    String name = parts[0].trim();
-                    String nric = parts[1].trim().toUpperCase();
-                    int age = Integer.parseInt(parts[2].trim());
-                    String status = parts[3].trim().toLowerCase();
+                if (record.length >= 7) {
+                    String name = record[0].trim();
+                    String nric = record[1].trim().toUpperCase();
+                    int age = Integer.parseInt(record[2].trim());
+                    String status = record[3].trim().toLowerCase();
                     boolean isMarried = status.equals("married");
-                    String password = parts[4].trim();
+                    String password = record[4].trim();
                     
                     
                     Officer officer = new Officer(name, nric, age, isMarried, password);
                  // Load multiple registered projects and statuses
-                    String[] projectNames = parts[5].split(";");
-                    String[] statusStrings = parts[6].split(";");
+                    String[] projectNames = record[5].split(";");
+                    String[] statusStrings = record[6].split(";");
 
                     for (int i = 0; i < projectNames.length; i++) {
                         String projectName = projectNames[i].trim();
@@ -79,58 +87,75 @@ public class OfficerUserManager implements UserManager<Officer> {
                     }
 
                     officers.add(officer);
+                    index.add(officer);
                 } else {
-                    System.err.println("Skipping malformed line in " + FILE_PATH + ": " + line);
+                    System.err.println("Skipping malformed line in " + FILE_PATH + ": " + String.join(",", record));
                 }
             } catch (Exception e) {
-                System.err.println("Error loading officer from line: " + line);
+                System.err.println("Error loading officer from line: " + String.join(",", record));
                 e.printStackTrace();
             }
+        });
+        if (store.needsMigration()) {
+            saveUsers();
         }
     }
 
     /**
-     * Saves the current list of Officer objects to the CSV file.
+     * Saves the current list of Officer objects to the CSV file (or every shard).
      * Overwrites the existing file. Formats officer details including semicolon-separated
      * lists of registered project names and their statuses.
      * Format: Name,NRIC,Age,Status,Password,RegisteredProjects,RegistrationStatuses
      */
     @Override
     public void saveUsers() {
-        List<String> lines = new ArrayList<>();
-        lines.add("Name,NRIC,Age,Status,Password,RegisteredProjects,RegistrationStatuses");
-        for (Officer officer : officers) {
-            String marriedStatus = officer.isMarried() ? "married" : "single";
-            List<Project> projects = officer.getRegisteredProjects();
-            List<String> projNames = new ArrayList<>();
-            List<String> projStatuses = new ArrayList<>();
-            for (Project p : projects) {
-                projNames.add(p.getName());
-                OfficerRegistrationStatus regStatus = officer.getRegistrationStatusForProject(p);
-                projStatuses.add(regStatus != null ? regStatus.name() : "");
-            }
+        store.markAllDirty();
+        store.save(officers.snapshot(), Officer::getNRIC, OfficerUserManager::formatOfficer);
+    }
+
+    /**
+     * Saves changed officers. In the sharded layout only the shards holding them are rewritten.
+     *
+     * @param changedUsers The officers whose data changed.
+     */
+    @Override
+    public void saveUsers(Collection<? extends Officer> changedUsers) {
+        for (Officer officer : changedUsers) {
+            store.markDirty(officer.getNRIC());
+        }
+        store.save(officers.snapshot(), Officer::getNRIC, OfficerUserManager::formatOfficer);
+    }
 
-            lines.add(String.join(",",
-                officer.getName(),
-                officer.getNRIC(),
-                String.valueOf(officer.getAge()),
-                marriedStatus,
-                officer.getPassword(),
-                String.join(";", projNames),
-                String.join(";", projStatuses)
-            ));
+    private static String[] formatOfficer(Officer officer) {
+        String marriedStatus = officer.isMarried() ? "married" : "single";
+        List<Project> projects = officer.getRegisteredProjects();
+        List<String> projNames = new ArrayList<>();
+        List<String> projStatuses = new ArrayList<>();
+        for (Project p : projects) {
+            projNames.add(p.getName());
+            OfficerRegistrationStatus regStatus = officer.getRegistrationStatusForProject(p);
+            projStatuses.add(regStatus != null ? regStatus.name() : "");
         }
-        FileManager.writeFile(FILE_PATH, lines);
+
+        return new String[] {
+            officer.getName(),
+            officer.getNRIC(),
+            String.valueOf(officer.getAge()),
+            marriedStatus,
+            officer.getPassword(),
+            String.join(";", projNames),
+            String.join(";", projStatuses)
+        };
     }
 
     /**
-     * Retrieves the current in-memory list of all loaded officers.
+     * Retrieves an immutable snapshot of all loaded officers, safe to iterate while officers are added or removed.
      *
      * @return A List containing all Officer objects.
      */
     @Override
     public List<Officer> getUsers() {
-        return officers;
+        return officers.snapshot();
     }
 
     /**
@@ -141,17 +166,53 @@ public class OfficerUserManager implements UserManager<Officer> {
      */
     @Override
     public Officer findByNRIC(String nric) {
-        for (Officer officer : officers) {
-            if (officer.getNRIC().equalsIgnoreCase(nric)) {
-                return officer;
-            }
+        return index.get(nric);
+    }
+
+    /**
+     * Adds an officer to the in-memory list and NRIC index.
+     *
+     * @param user The Officer to add.
+     * @return true if added, false if null or an account with the same NRIC already exists.
+     */
+    @Override
+    public boolean addUser(Officer user) {
+        if (user == null || !index.add(user)) {
+            return false;
         }
-        return null;
+        officers.add(user);
+        store.markDirty(user.getNRIC());
+        return true;
+    }
+
+    /**
+     * Removes an officer from the in-memory list and NRIC index.
+     *
+     * @param user The Officer to remove.
+     * @return true if the Officer was found and removed, false otherwise.
+     */
+    @Override
+    public boolean removeUser(Officer user) {
+        if (user == null || !officers.remove(user)) {
+            return false;
+        }
+        index.remove(user);
+        store.markDirty(user.getNRIC());
+        return true;
+    }
+
+    /**
+     * Removes all officers from the in-memory list and NRIC index.
+     */
+    @Override
+    public void clearUsers() {
+        officers.clear();
+        index.clear();
     }
 
     /**
      * Changes the password for the officer identified by the given NRIC.
-     * Saves the updated officer list if the change is successful.
+     * Saves the officer if the change is successful (only its shard in the sharded layout).
      *
      * @param nric        The NRIC of the officer whose password should be changed.
      * @param newPassword The new password to set.
@@ -162,7 +223,7 @@ public class OfficerUserManager implements UserManager<Officer> {
         Officer user = findByNRIC(nric);
         if (user != null) {
             if (user.changePass(newPassword)) {
-                saveUsers();
+                saveUsers(List.of(user));
                 return true;
             } else {
                  return false;
@@ -173,36 +234,14 @@ public class OfficerUserManager implements UserManager<Officer> {
     }
     
     /**
-     * Updates the list of assigned officers in the `ProjectList.csv` file for a given project.
-     * Appends the officer's name (if not already present) to the 'Officer Name' column
-     * for the specified project row.
+     * Adds an officer's name to the list of assigned officers of a project (if not already present)
+     * and saves it. Only the project's officer fields are written when projects are kept in a record file.
      *
-     * @param project     The project whose officer list needs updating in the CSV.
+     * @param project     The project whose officer list needs updating.
      * @param officerName The name of the officer to add to the project's officer list.
      */
     public void updateProjectListCSV(Project project, String officerName) {
-        List<String> lines = FileManager.readFile("data/ProjectList.csv");
-        if (lines == null || lines.size() <= 1) return;
-
-        List<String> updatedLines = new ArrayList<>();
-        updatedLines.add(lines.get(0)); // header
-
-        for (String line : lines.subList(1, lines.size())) {
-            String[] parts = line.split(",", -1);
-            if (parts.length >= 1 && parts[0].trim().equalsIgnoreCase(project.getName())) {
-                if (parts.length >= 10) {
-                    String existing = parts[9].trim();
-                    if (!existing.contains(officerName)) {
-                        parts[9] = existing.isEmpty() ? officerName : existing + ";" + officerName;
-                    }
-                }
-                updatedLines.add(String.join(",", parts));
-            } else {
-                updatedLines.add(line);
-            }
-        }
-
-        FileManager.writeFile("data/ProjectList.csv", updatedLines);
+        project.addOfficer(officerName);
+        projectManager.saveOfficerAssignment(project);
     }
 }
-
@@ -5,68 +5,226 @@ import entities.Project;
 import entities.Room;
 import enums.RoomType;
 import utils.FileManager;
+import utils.Journal;
+import utils.RecordStore;
+import utils.RecordStores;
+import utils.SnapshotList;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
  * Manages the collection of Project objects within the system.
- * Handles loading projects from `ProjectList.csv`, saving changes back,
+ * Handles loading projects from `ProjectList.csv` (or the fixed-width `ProjectList.dat`, see
+ * {@link ProjectSlotFile}), saving changes back,
  * adding, deleting, finding projects, and modifying project attributes like
  * visibility, room availability, and assigned officers.
  */
 public class ProjectManager {
 
-    private List<Project> projects = new ArrayList<>();
+    // Changed one at a time; readers get immutable snapshots
+    private final SnapshotList<Project> projects = new SnapshotList<>();
+    // Case-folded project name -> project, kept in step with the projects list
+    private final Map<String, Project> projectsByName = new ConcurrentHashMap<>();
     private static final String FILE_PATH = "data/ProjectList.csv";
+    private static final String HEADER = "Project Name,Neighbourhood,Type 1,Num Units 1,Available Units 1,Price 1,Type 2,Num Units 2,Available Units 2,Price 2,Open Date,Close Date,Manager Name,Officer Slots,Officer Name,Visibility";
+    // Projects are keyed by name; the default file is read and written through this store
+    private final RecordStore store = RecordStores.open(FILE_PATH, HEADER, false);
+    /** Default path of the fixed-width project record file, see {@link ProjectSlotFile}. */
+    public static final String SLOT_FILE_PATH = "data/ProjectList.dat";
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("d/M/yy");
+    private Journal journal;
+    // Fixed-width record file used instead of the CSV file when set
+    private ProjectSlotFile slotFile;
+
+    /**
+     * Stores projects in a fixed-width record file instead of the CSV file, so that room availability,
+     * officer and visibility changes are written in place. Must be called before the projects are loaded.
+     *
+     * @param slotFile The record file, or null to keep the CSV file.
+     */
+    public void setSlotFile(ProjectSlotFile slotFile) {
+        this.slotFile = slotFile;
+    }
 
     /**
      * Loads project data from the specified CSV file path.
      * Clears existing projects.
      * Automatically sets project visibility to false if the project is outside its application date range upon loading.
      * Handles file reading and parsing errors.
+     * For the default path, the record file is read instead when it exists and is not older than the CSV file. Projects are migrated between the
+     * two formats when only the other one is in use: the CSV file is converted into the record file if one is
+     * set, and a leftover record file is converted back into the CSV file otherwise.
      *
      * @param filePath The path to the CSV file containing project data.
      */
-    public void loadProjects(String filePath) {
+    public synchronized void loadProjects(String filePath) {
         projects.clear();
-        List<String> lines = FileManager.readFile(filePath);
-        if (lines == null || lines.size() < 2) {
-            System.err.println("No project data found or file is empty in " + filePath);
+        projectsByName.clear();
+        if (filePath.equals(FILE_PATH) && loadSlotFile()) {
             return;
         }
-        for (String line : lines.subList(1, lines.size())) {
+        boolean defaultFile = filePath.equals(FILE_PATH);
+        boolean[] visibilityChanged = {false};
+        Consumer<String[]> handler = record -> {
             try {
                 // Delegate parsing to the Project class itself for better encapsulation
-                Project p = Project.fromCSV(line);
+                Project p = Project.fromCSV(record);
                 if (p != null) {
                 	//Update visibility, if not active return True
-                	if (!isProjectActive(p)) {
+                	if (!isProjectActive(p) && p.isVisibility()) {
                 		p.setVisibility(false);
+                		visibilityChanged[0] = true;
                 		System.out.println("Project " + p.getName() + " visibility set to false as it is outside date range.");
                 	}
                     projects.add(p);
+                    projectsByName.putIfAbsent(nameKey(p.getName()), p);
                 } else {
-                    System.err.println("Skipping line due to parsing error (Project.fromCSV returned null): " + line);
+                    System.err.println("Skipping line due to parsing error (Project.fromCSV returned null): " + String.join(",", record));
                 }
-            } catch (DateTimeParseException e) {
-                 System.err.println("Error parsing date in project from line: " + line + " - " + e.getMessage());
-            } catch (NumberFormatException e) {
-                 System.err.println("Error parsing number (units, price, slots) in project from line: " + line + " - " + e.getMessage());
-            } catch (IllegalArgumentException e) {
-                 System.err.println("Error parsing enum (RoomType?) in project from line: " + line + " - " + e.getMessage());
             } catch (Exception e) {
-                System.err.println("Error parsing project from line: " + line);
+                System.err.println("Error parsing project from line: " + String.join(",", record));
                 e.printStackTrace();
             }
+        };
+        long count = defaultFile
+                ? store.forEachRecord(handler)
+                : FileManager.forEachRecord(filePath, true, record -> handler.accept(record.toArray()));
+        if (count == 0) {
+            System.err.println("No project data found or file is empty in " + filePath);
+            return;
         }
          System.out.println("Project data loaded from " + filePath);
-         saveProjects(FILE_PATH);
+         if (slotFile != null && defaultFile) {
+             // Migrate to the record file; the CSV file is removed once the record file is on disk
+             if (slotFile.writeAll(projects.snapshot())) {
+                 FileManager.deleteFile(FILE_PATH);
+                 System.out.println("Migrated " + FILE_PATH + " to " + slotFile.getFilePath() + ".");
+             }
+             return;
+         }
+         // Only rewrite the file if loading actually hid a project or the store is migrating
+         if (visibilityChanged[0] || (defaultFile && store.needsMigration())) {
+             saveProjects(FILE_PATH);
+         }
+    }
+
+    // Loads the projects from the record file if it is the newest copy, migrating them back to the CSV file if no
+    // record file is configured. Returns false if the CSV file must be loaded instead.
+    private boolean loadSlotFile() {
+        ProjectSlotFile file = slotFile != null ? slotFile : new ProjectSlotFile(SLOT_FILE_PATH);
+        if (!file.exists() || file.lastModified() < FileManager.lastModified(FILE_PATH)) {
+            return false; // the CSV file was written later, e.g. by a run without the record file
+        }
+        List<Project> stored = file.load();
+        if (stored == null) {
+            return false;
+        }
+        System.out.println("Project data loaded from " + file.getFilePath());
+        boolean visibilityChanged = adoptProjects(stored);
+        if (slotFile == null) {
+            file.close();
+            try {
+                storeProjects().join();
+            } catch (Exception e) {
+                System.out.println("Migration of " + file.getFilePath() + " to " + FILE_PATH + " failed, keeping the record file.");
+                return true;
+            }
+            file.delete();
+            System.out.println("Migrated " + file.getFilePath() + " to " + FILE_PATH + ".");
+            return true;
+        }
+        if (visibilityChanged) {
+            saveProjects(FILE_PATH);
+        }
+        return true;
+    }
+
+    /**
+     * Replaces all managed projects with the given ones, e.g. when restoring from a snapshot.
+     * Applies the same date-range visibility rule as {@link #loadProjects(String)}.
+     *
+     * @param restored The projects to manage, in list order.
+     */
+    public synchronized void replaceProjects(List<Project> restored) {
+        boolean visibilityChanged = adoptProjects(restored);
+        if (slotFile != null && !visibilityChanged && !slotFile.attach(projects.snapshot())) {
+            visibilityChanged = true; // record file missing or out of step, write it in full
+        }
+        if (visibilityChanged) {
+            saveProjects(FILE_PATH);
+        }
+    }
+
+    // Replaces the managed projects, hiding those outside their date range; returns true if any was hidden
+    private boolean adoptProjects(List<Project> restored) {
+        projects.clear();
+        projectsByName.clear();
+        boolean visibilityChanged = false;
+        for (Project p : restored) {
+            if (!isProjectActive(p) && p.isVisibility()) {
+                p.setVisibility(false);
+                visibilityChanged = true;
+                System.out.println("Project " + p.getName() + " visibility set to false as it is outside date range.");
+            }
+            projects.add(p);
+            projectsByName.putIfAbsent(nameKey(p.getName()), p);
+        }
+        return visibilityChanged;
+    }
+
+    /**
+     * Sets the journal used to record room availability and visibility changes.
+     * When a journal is set, these changes append a single record instead of
+     * rewriting the whole project CSV file.
+     *
+     * @param journal The write-ahead journal, or null to save the full file directly.
+     */
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Applies a ROOM or VIS record replayed from the journal.
+     * Formats: ROOM,ProjectName,RoomType,AvailableUnits and VIS,ProjectName,Visibility.
+     *
+     * @param record The fields of the journal record.
+     * @return true if the record was a project record and was applied, false otherwise.
+     */
+    public boolean applyJournalRecord(String[] record) {
+        if (record.length >= 4 && record[0].equals("ROOM")) {
+            Project p = findProjectByName(record[1]);
+            if (p == null) {
+                System.err.println("Journal record skipped, project not found: " + record[1]);
+                return false;
+            }
+            try {
+                p.setRoomCount(RoomType.valueOf(record[2]), Integer.parseInt(record[3]));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Journal record skipped, invalid room data: " + String.join(",", record));
+                return false;
+            }
+            return true;
+        }
+        if (record.length >= 3 && record[0].equals("VIS")) {
+            Project p = findProjectByName(record[1]);
+            if (p == null) {
+                System.err.println("Journal record skipped, project not found: " + record[1]);
+                return false;
+            }
+            p.setVisibility(Boolean.parseBoolean(record[2]));
+            return true;
+        }
+        return false;
     }
 
     /**
@@ -75,9 +233,10 @@ public class ProjectManager {
      * @param project The Project object to add.
      * @return true if the project was successfully added, false otherwise.
      */
-    public boolean addProject(Project project) {
+    public synchronized boolean addProject(Project project) {
         if (project != null && findProjectByName(project.getName()) == null) {
              projects.add(project);
+             projectsByName.put(nameKey(project.getName()), project);
              return true;
         } else if (project == null) {
              System.err.println("Cannot add a null project.");
@@ -89,12 +248,43 @@ public class ProjectManager {
     }
 
     /**
-     * Retrieves the current in-memory list of all managed projects.
+     * Renames a managed project and updates the name index.
+     * Use this instead of calling {@link Project#setProjectName(String)} directly on a managed project.
+     *
+     * @param project The managed project to rename.
+     * @param newName The new project name.
+     * @return true if the project was renamed, false if it is not managed or the new name is blank or already taken.
+     */
+    public synchronized boolean renameProject(Project project, String newName) {
+        if (project == null || newName == null || newName.trim().isEmpty()) {
+            return false;
+        }
+        String oldKey = nameKey(project.getName());
+        String newKey = nameKey(newName);
+        if (projectsByName.get(oldKey) != project) {
+            System.err.println("Project '" + project.getName() + "' is not managed and cannot be renamed.");
+            return false;
+        }
+        Project existing = projectsByName.get(newKey);
+        if (existing != null && existing != project) {
+            System.err.println("Project with name '" + newName.trim() + "' already exists.");
+            return false;
+        }
+        project.setProjectName(newName.trim());
+        projectsByName.remove(oldKey);
+        projectsByName.put(newKey, project);
+        return true;
+    }
+
+    /**
+     * Retrieves an immutable snapshot of all managed projects, which readers can iterate while
+     * projects are added or deleted. Use {@link #addProject(Project)} and {@link #deleteProject(String)}
+     * to change the list, so that the name index stays consistent.
      *
      * @return A List containing all Project objects.
      */
     public List<Project> getProjects() {
-        return projects;
+        return projects.snapshot();
     }
 
     /**
@@ -107,29 +297,85 @@ public class ProjectManager {
         if (projectName == null || projectName.trim().isEmpty()) {
             return null;
         }
-        for (Project p : projects) {
-            if (p.getName().equalsIgnoreCase(projectName.trim())) {
-                return p;
-            }
-        }
-        return null;
+        return projectsByName.get(nameKey(projectName));
+    }
+
+    // Index key for a project name: trimmed and case-folded
+    private static String nameKey(String projectName) {
+        return projectName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Saves the current list of projects to the default CSV file path.
+     */
+    public void saveProjects() {
+        saveProjects(FILE_PATH);
     }
 
     /**
      * Saves the current list of projects to the specified CSV file path.
-     * Overwrites the existing file.
+     * Overwrites the existing file. Saving to the default path rewrites the record file when one is set,
+     * and otherwise goes through the configured record store, which with a database backend writes only
+     * the projects that changed.
      *
      * @param filePath The path to the CSV file where project data should be saved.
      */
     public void saveProjects(String filePath) {
+        if (slotFile != null && filePath.equals(FILE_PATH)) {
+            slotFile.writeAll(projects.snapshot());
+            return;
+        }
+        if (filePath.equals(FILE_PATH)) {
+            storeProjects();
+            return;
+        }
         List<String> lines = new ArrayList<>();
-        lines.add("Project Name,Neighbourhood,Type 1,Num Units 1,Available Units 1,Price 1,Type 2,Num Units 2,Available Units 2,Price 2,Open Date,Close Date,Manager Name,Officer Slots,Officer Name,Visibility");
-        for (Project p : projects) {
-            lines.add(toCSV(p));
+        lines.add(HEADER);
+        for (Project p : projects.snapshot()) {
+            lines.add(FileManager.toCsvLine(toRecord(p)));
         }
         FileManager.writeFile(filePath, lines);
     }
 
+    private CompletableFuture<Void> storeProjects() {
+        store.markAllDirty();
+        return store.save(projects.snapshot(), Project::getName, ProjectManager::toRecord);
+    }
+
+    // Saves a change to one project that was not written in place: rewrites the record file if one is set,
+    // otherwise marks only the project's record, which a database backend writes as a single row
+    private void saveProject(Project project) {
+        if (slotFile != null) {
+            saveProjects(FILE_PATH);
+            return;
+        }
+        store.markDirty(project.getName());
+        store.save(projects.snapshot(), Project::getName, ProjectManager::toRecord);
+    }
+
+    /**
+     * Saves the officer slots and assigned officers of a project after an officer was approved.
+     * With a record file only the project's officer fields are written in place; otherwise the
+     * project list is saved.
+     *
+     * @param project The managed project whose officers changed.
+     */
+    public void saveOfficerAssignment(Project project) {
+        if (slotFile != null && slotFile.updateOfficers(project)) {
+            return;
+        }
+        saveProject(project);
+    }
+
+    /**
+     * Syncs and closes the record file, if one is set. Call after the final save on exit.
+     */
+    public void close() {
+        if (slotFile != null) {
+            slotFile.close();
+        }
+    }
+
     /**
      * Checks if a project's application period is currently active (today's date is within open/close dates).
      *
@@ -147,7 +393,8 @@ public class ProjectManager {
     
     /**
      * Sets the visibility status for a project identified by its name.
-     * Saves the updated project list afterwards.
+     * Writes the flag in place if a record file is set, otherwise records it in the journal
+     * if one is set or saves the updated project list.
      *
      * @param projectName The name of the project to modify.
      * @param visible     The new visibility status (true for visible, false for hidden).
@@ -158,8 +405,14 @@ public class ProjectManager {
         if (p != null) {
             p.setVisibility(visible);
             System.out.println("Visibility for project '" + projectName + "' set to " + visible );
-        
-	        saveProjects(FILE_PATH);
+
+            if (slotFile != null && slotFile.updateVisibility(p)) {
+                // written in place
+            } else if (journal != null) {
+                journal.append("VIS", p.getName(), String.valueOf(visible));
+            } else {
+                saveProject(p);
+            }
 	        
 	        return true;
     	}
@@ -174,14 +427,20 @@ public class ProjectManager {
      * @param projectName The name of the project to delete.
      * @return true if the project was found and removed, false otherwise.
      */
-    public boolean deleteProject(String projectName) {
-         Iterator<Project> iterator = projects.iterator();
-         while (iterator.hasNext()) {
-             Project p = iterator.next();
-             if (p.getName().equalsIgnoreCase(projectName)) {
-                 iterator.remove();
-                 return true;
+    public synchronized boolean deleteProject(String projectName) {
+         Project p = findProjectByName(projectName);
+         if (p != null) {
+             projects.remove(p);
+             String key = nameKey(p.getName());
+             projectsByName.remove(key);
+             // Re-index a remaining project with the same name, if the file contained duplicates
+             for (Project other : projects.snapshot()) {
+                 if (nameKey(other.getName()).equals(key)) {
+                     projectsByName.put(key, other);
+                     break;
+                 }
              }
+             return true;
          }
          System.err.println("Project '" + projectName + "' not found for deletion.");
          return false;
@@ -189,7 +448,9 @@ public class ProjectManager {
 
     /**
      * Updates the available room count for a specific room type within a given project.
-     * Handles both incrementing and decrementing the count. Saves the project list after a successful update.
+     * Handles both incrementing and decrementing the count as a single atomic reserve or release,
+     * so concurrent updates cannot oversell units. After a successful update, writes the new count in place
+     * if a record file is set, records the change in the journal if one is set, otherwise saves the project list.
      *
      * @param project   The project containing the room to update.
      * @param roomType  The RoomType whose availability should be changed.
@@ -209,43 +470,32 @@ public class ProjectManager {
         }
 
 
-        Room targetRoom = null;
-        for (Room r : managedProject.getRooms()) {
-            if (r.getRoomType() == roomType) {
-                targetRoom = r;
-                break;
-            }
-        }
+        Room targetRoom = managedProject.getRoom(roomType);
 
         if (targetRoom == null) {
             System.err.println("Room type " + roomType + " not found in project '" + managedProject.getName() + "'.");
             return false;
         }
 
-        boolean success = false;
-        if (change < 0) { // Decrement
-            success = true;
-            for (int i = 0; i < -change; i++) {
-                if (!targetRoom.decrementAvailableRooms()) {
-                    success = false;
-                    break;
-                }
-            }
-        } else if (change > 0) { // Increment
-            success = true;
-            for (int i = 0; i < change; i++) {
-                if (!targetRoom.incrementAvailableRooms()) {
-                    success = false;
-                    break;
-                }
-            }
-        } else { // change == 0
+        // All-or-nothing atomic update: never oversells and never exceeds the total supply
+        boolean success;
+        if (change < 0) {
+            success = targetRoom.tryReserve(-change);
+        } else if (change > 0) {
+            success = targetRoom.release(change);
+        } else {
             success = true;
         }
 
         if (success && change != 0) {
             System.out.println("Available units for " + roomType + " in project '" + managedProject.getName() + "' updated. New count: " + targetRoom.getAvailableRooms());
-            saveProjects(FILE_PATH);
+            if (slotFile != null && slotFile.updateAvailableUnits(managedProject, targetRoom)) {
+                // written in place
+            } else if (journal != null) {
+                journalRoomState(managedProject.getName(), targetRoom);
+            } else {
+                saveProject(managedProject);
+            }
         } else if (!success && change !=0 ){
              System.out.println("Update to available units failed for " + roomType + " in project '" + managedProject.getName() + "'. Count remains: " + targetRoom.getAvailableRooms());
         }
@@ -253,6 +503,93 @@ public class ProjectManager {
         return success;
     }
 
+    /**
+     * Applies a batch of room availability changes atomically.
+     * Every project and room type is resolved first. Each change is then applied with an atomic
+     * reserve or release; if any change cannot be applied (the result would fall below zero or exceed
+     * the total), the changes already applied are rolled back and nothing is persisted.
+     * On success the changes are persisted once: one in-place write per changed room if a record file is set,
+     * one journal record per changed room if a journal is set, otherwise a single project list save.
+     *
+     * @param changes The change to apply per project and room type (negative to reserve, positive to release).
+     * @return true if the whole batch was applied, false if any change was invalid (no changes are kept).
+     */
+    public boolean applyRoomChanges(Map<Project, Map<RoomType, Integer>> changes) {
+        Map<Room, Integer> roomChanges = new LinkedHashMap<>();
+        Map<Room, String> roomProjects = new HashMap<>();
+        for (Map.Entry<Project, Map<RoomType, Integer>> entry : changes.entrySet()) {
+            Project managedProject = entry.getKey() == null ? null : findProjectByName(entry.getKey().getName());
+            if (managedProject == null) {
+                System.err.println("Batch room update failed: project not found in ProjectManager's list.");
+                return false;
+            }
+            for (Map.Entry<RoomType, Integer> change : entry.getValue().entrySet()) {
+                Room room = managedProject.getRoom(change.getKey());
+                if (room == null) {
+                    System.err.println("Batch room update failed: room type " + change.getKey() + " not found in project '" + managedProject.getName() + "'.");
+                    return false;
+                }
+                roomChanges.merge(room, change.getValue(), Integer::sum);
+                roomProjects.put(room, managedProject.getName());
+            }
+        }
+
+        List<Map.Entry<Room, Integer>> applied = new ArrayList<>();
+        for (Map.Entry<Room, Integer> change : roomChanges.entrySet()) {
+            Room room = change.getKey();
+            int delta = change.getValue();
+            boolean ok = delta == 0 || (delta < 0 ? room.tryReserve(-delta) : room.release(delta));
+            if (!ok) {
+                System.out.println("Batch room update failed: " + room.getRoomType() + " in project '" + roomProjects.get(room)
+                        + "' has " + room.getAvailableRooms() + " available unit(s), cannot apply change of " + delta + ".");
+                // Undo in reverse order; these cannot fail since they restore units just taken or given
+                for (int i = applied.size() - 1; i >= 0; i--) {
+                    Room undoRoom = applied.get(i).getKey();
+                    int undo = applied.get(i).getValue();
+                    if (undo < 0) {
+                        undoRoom.release(-undo);
+                    } else {
+                        undoRoom.tryReserve(undo);
+                    }
+                }
+                return false;
+            }
+            applied.add(change);
+        }
+
+        if (slotFile != null) {
+            boolean written = true;
+            for (Map.Entry<Room, Integer> change : roomChanges.entrySet()) {
+                Room room = change.getKey();
+                written &= slotFile.updateAvailableUnits(findProjectByName(roomProjects.get(room)), room);
+            }
+            if (!written) {
+                saveProjects(FILE_PATH);
+            }
+        } else if (journal != null) {
+            for (Map.Entry<Room, Integer> change : roomChanges.entrySet()) {
+                Room room = change.getKey();
+                journalRoomState(roomProjects.get(room), room);
+            }
+        } else {
+            for (String projectName : roomProjects.values()) {
+                store.markDirty(projectName);
+            }
+            store.save(projects.snapshot(), Project::getName, ProjectManager::toRecord);
+        }
+        return true;
+    }
+
+    /**
+     * Appends a ROOM record with the room's current available count to the journal.
+     */
+    private void journalRoomState(String projectName, Room room) {
+        // Read the count under the journal's monitor, so the last record of a room has its latest count
+        synchronized (journal) {
+            journal.append("ROOM", projectName, room.getRoomType().name(), String.valueOf(room.getAvailableRooms()));
+        }
+    }
+
     /**
      * Assigns an officer's name to a project.
      * Finds the project by name and updates its officer field.
@@ -284,7 +621,7 @@ public class ProjectManager {
      * @return true if a date conflict exists with another project managed by the same manager, false otherwise.
      */
     public boolean hasDateConflict(Project currentProject, String managerName, LocalDate newOpenDate, LocalDate newCloseDate) {
-        for (Project p : projects) {
+        for (Project p : projects.snapshot()) {
             if (!p.equals(currentProject) && p.getManager().equalsIgnoreCase(managerName)) {
                 // Check for overlapping date ranges
                 boolean overlap = !(newCloseDate.isBefore(p.getOpenDate()) || newOpenDate.isAfter(p.getCloseDate()));
@@ -295,15 +632,15 @@ public class ProjectManager {
     }
 
     /**
-     * Converts a Project object into a CSV-formatted string line.
+     * Converts a Project object into the fields of its CSV record.
      * Handles formatting of different data types (String, int, double, LocalDate, boolean, List<Room>).
-     * Uses the defined DATE_FORMATTER. Escapes fields containing commas or quotes.
+     * Uses the defined DATE_FORMATTER. Fields are escaped when the record is written.
      *
      * @param p The Project object to convert.
-     * @return A string representing the project in CSV format according to the defined header. Returns an empty string if the project is null.
+     * @return The fields of the project in the order of the defined header, or null if the project is null.
      */
-    private String toCSV(Project p) {
-        if (p == null) return "";
+    private static String[] toRecord(Project p) {
+        if (p == null) return null;
         List<Room> rooms = p.getRooms();
         String type1 = "", totalUnits1 = "0", availUnits1 = "0", price1 = "0.0";
         String type2 = "", totalUnits2 = "0", availUnits2 = "0", price2 = "0.0";
@@ -331,45 +668,23 @@ public class ProjectManager {
         String officerName = p.getOfficer() != null ? p.getOfficer() : "";
         String visibility = String.valueOf(p.isVisibility());
 
-        return String.join(",",
-                escapeCsvField(p.getName()),
-                escapeCsvField(p.getNeighbourhood()),
-                escapeCsvField(type1),
+        return new String[] {
+                p.getName(),
+                p.getNeighbourhood(),
+                type1,
                 totalUnits1,
                 availUnits1,
                 price1,
-                escapeCsvField(type2),
+                type2,
                 totalUnits2,
                 availUnits2,
                 price2,
-                escapeCsvField(openDateStr),
-                escapeCsvField(closeDateStr),
-                escapeCsvField(managerName),
+                openDateStr,
+                closeDateStr,
+                managerName,
                 String.valueOf(p.getOfficerSlot()),
-                escapeCsvField(officerName),
+                officerName,
                 visibility
-        );
-    }
-
-    /**
-     * Escapes a string field for CSV output if necessary.
-     * Adds double quotes around the field and escapes internal double quotes
-     * if the field contains commas, double quotes, or newline characters.
-     *
-     * @param field The string field to escape.
-     * @return The escaped string, or an empty string if the input field is null.
-     */
-    private String escapeCsvField(String field) {
-        if (field == null) {
-            return "";
-        }
-        // If the field contains a comma, double quote, or newline, it needs escaping
-        if (field.contains(",") || field.contains("\"") || field.contains("\n")) {
-            // Replace internal double quotes with two double quotes
-            String escapedField = field.replace("\"", "\"\"");
-            // Wrap the entire field in double quotes
-            return "\"" + escapedField + "\"";
-        }
-        return field;
+        };
     }
-}
\ No newline at end of file
+}
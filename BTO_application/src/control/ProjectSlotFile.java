@@ -0,0 +1,444 @@
+package control;
+
+import entities.Project;
+import entities.Room;
+import enums.RoomType;
+import utils.StringPool;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores projects in a fixed-width record file, where every project occupies a slot of the same size
+ * at a known offset. Counters such as the available units of a room type, the officer slots and the
+ * visibility flag sit at fixed offsets within the slot, so a change to one of them is written in place
+ * with a positional write of a few bytes instead of rewriting the whole project list.
+ * <p>
+ * The file starts with a header (magic, format version, record count, slot size, number of room types
+ * and the byte width of each text field). Each slot holds, in order: visibility (1 byte), officer slots
+ * (int), one block per {@link RoomType} in declaration order (present flag, total units, available units,
+ * price), open and close date (epoch day, {@link Integer#MIN_VALUE} if not set), then the name,
+ * neighbourhood, manager and officer names, each a short byte length (-1 for null) followed by its
+ * fixed-width UTF-8 field. Text widths are chosen on every full rewrite to fit the longest value, so an
+ * officer list that outgrows its field is handled by rewriting the file with wider fields.
+ * <p>
+ * Positional updates are written to the operating system immediately and synced when the file is closed
+ * or fully rewritten. The file is never compressed, since compressed data cannot be updated in place.
+ */
+public class ProjectSlotFile {
+
+    private static final int MAGIC = 0x42544F50; // "BTOP"
+    /** Incremented whenever the slot layout changes; files of other versions are not read. */
+    public static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int ROOM_TYPES = RoomType.values().length;
+
+    // Field offsets within a slot
+    private static final int VISIBILITY_OFFSET = 0;
+    private static final int OFFICER_SLOT_OFFSET = 1;
+    private static final int ROOMS_OFFSET = 5;
+    private static final int ROOM_SIZE = 1 + 4 + 4 + 8;
+    private static final int ROOM_AVAILABLE_OFFSET = 5;
+    private static final int DATES_OFFSET = ROOMS_OFFSET + ROOM_TYPES * ROOM_SIZE;
+    private static final int TEXT_OFFSET = DATES_OFFSET + 8;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    // Minimum widths of the name, neighbourhood, manager and officer fields, leaving room for growth
+    private static final int[] MIN_WIDTHS = {64, 32, 32, 128};
+    private static final int OFFICER_FIELD = 3;
+
+    private final String filePath;
+    private FileChannel channel;
+    private int slotSize;
+    private final int[] widths = new int[MIN_WIDTHS.length];
+    // Slot index of every project in the file
+    private final Map<Project, Integer> slots = new IdentityHashMap<>();
+
+    /**
+     * Constructs a slot file for the given path. Nothing is opened until the file is loaded or written.
+     *
+     * @param filePath The path of the record file, e.g. {@code data/ProjectList.dat}.
+     */
+    public ProjectSlotFile(String filePath) {
+        this.filePath = filePath;
+    }
+
+    /**
+     * Gets the path of the record file.
+     * @return The file path.
+     */
+    public String getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * Checks whether the record file exists.
+     * @return true if the file exists.
+     */
+    public boolean exists() {
+        return new File(filePath).isFile();
+    }
+
+    /**
+     * Gets the time the record file was last written.
+     * @return The last-modified time in milliseconds, 0 if the file does not exist.
+     */
+    public long lastModified() {
+        return new File(filePath).lastModified();
+    }
+
+    /**
+     * Reads all projects from the record file and opens it for positional updates.
+     *
+     * @return The projects in slot order, or null if the file is missing, of another format version or truncated.
+     */
+    public synchronized List<Project> load() {
+        closeChannel();
+        slots.clear();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(filePath), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                System.out.println("Not a project record file: " + filePath);
+                return null;
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                System.out.println("Unsupported project record file version " + version + " in " + filePath);
+                return null;
+            }
+            int count = in.readInt();
+            slotSize = in.readInt();
+            if (in.readInt() != ROOM_TYPES) {
+                System.out.println("Project record file " + filePath + " was written for other room types.");
+                return null;
+            }
+            for (int i = 0; i < widths.length; i++) {
+                widths[i] = in.readShort();
+            }
+            in.skipBytes(HEADER_SIZE - 20 - 2 * widths.length);
+            if (slotSize != textOffset(widths.length)) {
+                System.out.println("Invalid slot size in project record file " + filePath);
+                return null;
+            }
+
+            byte[] slot = new byte[slotSize];
+            List<Project> projects = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                in.readFully(slot);
+                Project p = readSlot(ByteBuffer.wrap(slot));
+                projects.add(p);
+                slots.put(p, i);
+            }
+            channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return projects;
+        } catch (EOFException e) {
+            System.out.println("Project record file is truncated: " + filePath);
+        } catch (IOException e) {
+            System.out.println("Error reading project record file: " + filePath + " - " + e.getMessage());
+        }
+        slots.clear();
+        return null;
+    }
+
+    /**
+     * Rewrites the whole record file with the given projects, e.g. after a project was added, edited
+     * or deleted. Text field widths are recomputed to fit every value. The file is written to a temporary
+     * file, synced and then moved over the old one, and reopened for positional updates.
+     *
+     * @param projects The projects to store, in slot order.
+     * @return true if the file was written.
+     */
+    public synchronized boolean writeAll(List<Project> projects) {
+        for (int i = 0; i < widths.length; i++) {
+            widths[i] = MIN_WIDTHS[i];
+        }
+        for (Project p : projects) {
+            String[] text = textFields(p);
+            for (int i = 0; i < widths.length; i++) {
+                widths[i] = Math.max(widths[i], utf8Length(text[i]));
+            }
+        }
+        slotSize = textOffset(widths.length);
+
+        closeChannel();
+        slots.clear();
+        Path target = Paths.get(filePath).toAbsolutePath().normalize();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(target.getParent());
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(projects.size()).putInt(slotSize).putInt(ROOM_TYPES);
+                for (int width : widths) {
+                    header.putShort((short) width);
+                }
+                header.clear();
+                writeFully(out, header);
+
+                int slotsPerBuffer = Math.max(1, (1 << 16) / slotSize);
+                ByteBuffer buffer = ByteBuffer.allocate(slotsPerBuffer * slotSize);
+                for (Project p : projects) {
+                    if (buffer.remaining() < slotSize) {
+                        buffer.flip();
+                        writeFully(out, buffer);
+                        buffer.clear();
+                    }
+                    writeSlot(buffer, p);
+                }
+                buffer.flip();
+                writeFully(out, buffer);
+                out.force(true);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            for (int i = 0; i < projects.size(); i++) {
+                slots.put(projects.get(i), i);
+            }
+            channel = FileChannel.open(target, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error writing project record file: " + filePath + " - " + e.getMessage());
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // the stale temporary file is replaced by the next full write
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Attaches to an existing record file that holds the given projects in the same order, e.g. after the
+     * projects were restored from a snapshot. The stored project names are compared slot by slot.
+     *
+     * @param projects The managed projects.
+     * @return true if the file matches and is open for positional updates, false if it must be rewritten.
+     */
+    public synchronized boolean attach(List<Project> projects) {
+        List<Project> stored = exists() ? load() : null;
+        slots.clear();
+        if (stored == null || stored.size() != projects.size()) {
+            return false;
+        }
+        for (int i = 0; i < projects.size(); i++) {
+            if (!stored.get(i).getName().equals(projects.get(i).getName())) {
+                return false;
+            }
+            slots.put(projects.get(i), i);
+        }
+        return true;
+    }
+
+    /**
+     * Writes the available units of one room type of a project in place.
+     *
+     * @param project The project, as stored by the last load or full write.
+     * @param room    The room whose available units changed.
+     * @return true if the update was written, false if the project has no slot and the file must be rewritten.
+     */
+    public synchronized boolean updateAvailableUnits(Project project, Room room) {
+        ByteBuffer value = ByteBuffer.allocate(4).putInt(room.getAvailableRooms());
+        int offset = ROOMS_OFFSET + room.getRoomType().ordinal() * ROOM_SIZE + ROOM_AVAILABLE_OFFSET;
+        return writeField(project, offset, value);
+    }
+
+    /**
+     * Writes the visibility flag of a project in place.
+     *
+     * @param project The project, as stored by the last load or full write.
+     * @return true if the update was written, false if the project has no slot and the file must be rewritten.
+     */
+    public synchronized boolean updateVisibility(Project project) {
+        ByteBuffer value = ByteBuffer.allocate(1).put((byte) (project.isVisibility() ? 1 : 0));
+        return writeField(project, VISIBILITY_OFFSET, value);
+    }
+
+    /**
+     * Writes the officer slots and assigned officer names of a project in place.
+     *
+     * @param project The project, as stored by the last load or full write.
+     * @return true if the update was written, false if the project has no slot or the officer names no longer
+     *         fit their field, in which case the file must be rewritten.
+     */
+    public synchronized boolean updateOfficers(Project project) {
+        byte[] names = encode(project.getOfficer());
+        if (names != null && names.length > widths[OFFICER_FIELD]) {
+            return false;
+        }
+        if (!writeField(project, OFFICER_SLOT_OFFSET, ByteBuffer.allocate(4).putInt(project.getOfficerSlot()))) {
+            return false;
+        }
+        ByteBuffer field = ByteBuffer.allocate(2 + widths[OFFICER_FIELD]);
+        putText(field, names, widths[OFFICER_FIELD]);
+        return writeField(project, textOffset(OFFICER_FIELD), field);
+    }
+
+    /**
+     * Syncs positional updates to disk and closes the file. It is reopened by the next load or full write.
+     */
+    public synchronized void close() {
+        closeChannel();
+        slots.clear();
+    }
+
+    /**
+     * Deletes the record file, e.g. after its projects were migrated back to the CSV file.
+     */
+    public synchronized void delete() {
+        close();
+        try {
+            Files.deleteIfExists(Paths.get(filePath));
+        } catch (IOException e) {
+            System.out.println("Error deleting project record file: " + filePath + " - " + e.getMessage());
+        }
+    }
+
+    // Writes a field of a project's slot with one positional write
+    private boolean writeField(Project project, int offset, ByteBuffer value) {
+        Integer slot = slots.get(project);
+        if (channel == null || slot == null) {
+            return false;
+        }
+        value.flip();
+        try {
+            long position = HEADER_SIZE + (long) slot * slotSize + offset;
+            while (value.hasRemaining()) {
+                position += channel.write(value, position);
+            }
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error updating project record file: " + filePath + " - " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void writeSlot(ByteBuffer buffer, Project p) {
+        int start = buffer.position();
+        buffer.put((byte) (p.isVisibility() ? 1 : 0));
+        buffer.putInt(p.getOfficerSlot());
+        for (RoomType type : RoomType.values()) {
+            Room room = p.getRoom(type);
+            if (room == null) {
+                buffer.put((byte) 0).putInt(0).putInt(0).putDouble(0);
+            } else {
+                buffer.put((byte) 1).putInt(room.getTotalRooms()).putInt(room.getAvailableRooms()).putDouble(room.getPrice());
+            }
+        }
+        buffer.putInt(epochDay(p.getOpenDate()));
+        buffer.putInt(epochDay(p.getCloseDate()));
+        String[] text = textFields(p);
+        for (int i = 0; i < widths.length; i++) {
+            putText(buffer, encode(text[i]), widths[i]);
+        }
+        buffer.position(start + slotSize);
+    }
+
+    private Project readSlot(ByteBuffer slot) {
+        boolean visibility = slot.get() != 0;
+        int officerSlot = slot.getInt();
+        List<Room> rooms = new ArrayList<>();
+        for (RoomType type : RoomType.values()) {
+            boolean present = slot.get() != 0;
+            int total = slot.getInt();
+            int available = slot.getInt();
+            double price = slot.getDouble();
+            if (present) {
+                rooms.add(new Room(type, total, available, price));
+            }
+        }
+        LocalDate openDate = toDate(slot.getInt());
+        LocalDate closeDate = toDate(slot.getInt());
+        String[] text = new String[widths.length];
+        for (int i = 0; i < widths.length; i++) {
+            int length = slot.getShort();
+            if (length >= 0) {
+                text[i] = new String(slot.array(), slot.position(), length, StandardCharsets.UTF_8);
+            }
+            slot.position(slot.position() + widths[i]);
+        }
+        return new Project(text[0], StringPool.canonical(text[1]), openDate, closeDate, StringPool.canonical(text[2]),
+                officerSlot, rooms, visibility, StringPool.canonical(text[3]));
+    }
+
+    private static String[] textFields(Project p) {
+        return new String[] {p.getName(), p.getNeighbourhood(), p.getManager(), p.getOfficer()};
+    }
+
+    private static void putText(ByteBuffer buffer, byte[] bytes, int width) {
+        int start = buffer.position();
+        if (bytes == null) {
+            buffer.putShort((short) -1);
+        } else {
+            buffer.putShort((short) bytes.length).put(bytes);
+        }
+        // Zero the unused part of the field so stale bytes of a longer old value do not remain
+        while (buffer.position() < start + 2 + width) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    private static byte[] encode(String text) {
+        return text == null ? null : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int utf8Length(String text) {
+        return text == null ? 0 : encode(text).length;
+    }
+
+    // Offset of a text field within a slot; the offset of the field after the last one is the slot size
+    private int textOffset(int field) {
+        int offset = TEXT_OFFSET;
+        for (int i = 0; i < field; i++) {
+            offset += 2 + widths[i];
+        }
+        return offset;
+    }
+
+    private static int epochDay(LocalDate date) {
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+
+    private static LocalDate toDate(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            System.out.println("Error closing project record file: " + filePath + " - " + e.getMessage());
+        }
+        channel = null;
+    }
+}
@@ -66,9 +66,8 @@ public class ReportManager {
      */
     public Report generateBookingReport(FilterCriteria criteria) {
 
-        List<Applicant> bookedApplicants = applicationManager.getAllApplicants().stream()
-            .filter(applicant -> applicant.getStatus() == ApplicationStatus.BOOKED &&
-                                 applicant.getAppliedProject() != null &&
+        List<Applicant> bookedApplicants = applicationManager.getApplicantsByStatus(ApplicationStatus.BOOKED).stream()
+            .filter(applicant -> applicant.getAppliedProject() != null &&
                                  applicant.getRoomChosen() != null)
             .filter(applicant -> criteria == null || criteria.getMaritalStatusFilter() == null || applicant.isMarried() == criteria.getMaritalStatusFilter())
             .filter(applicant -> criteria == null || criteria.getRoomTypeFilter() == null || applicant.getRoomChosen() == criteria.getRoomTypeFilter())
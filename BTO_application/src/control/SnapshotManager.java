@@ -0,0 +1,483 @@
+package control;
+
+import entities.Applicant;
+import entities.Enquiry;
+import entities.Filter;
+import entities.Manager;
+import entities.Officer;
+import entities.Project;
+import entities.Room;
+import enums.ApplicationStatus;
+import enums.OfficerRegistrationStatus;
+import enums.RoomType;
+import utils.BinaryInput;
+import utils.BinaryOutput;
+import utils.FileManager;
+import utils.PersistenceScheduler;
+import utils.ShardedCsvStore;
+import utils.StringPool;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Writes and restores a binary snapshot of all data held by the managers, so a restart
+ * does not have to re-parse every CSV file.
+ * The file starts with a fixed header (magic, schema version, body length and CRC32 of the body),
+ * followed by the sections projects, applicants, officers, managers, enquiries, filters and file fingerprints,
+ * each a varint count followed by its records (see {@link BinaryOutput} for the value encoding).
+ * The file fingerprints are those the {@link PersistenceScheduler} held when the snapshot was taken, so that
+ * after a restore, saving a file's unchanged content is still skipped without reading the file back.
+ * Applications and officer registrations refer to projects by their position in the projects section.
+ * The CSV files remain the primary store: the snapshot is only used when it is newer than all of them,
+ * and a snapshot with a different schema version or a bad checksum is ignored.
+ */
+public class SnapshotManager {
+
+    private static final byte[] MAGIC = {'B', 'T', 'O', 'S'};
+    /** Incremented whenever the layout of a section changes; older snapshots are then ignored. */
+    public static final int SCHEMA_VERSION = 2;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8;
+
+    // The files a snapshot replaces; it is stale once any of them has been written after it
+    private static final String[] SOURCE_FILES = {
+            "data/ProjectList.csv",
+            ProjectManager.SLOT_FILE_PATH,
+            "data/ApplicantList.csv",
+            "data/OfficerList.csv",
+            "data/ManagerList.csv",
+            "data/Applications.csv",
+            "data/enquiries.csv",
+            "data/Filter.csv"
+    };
+
+    private final String filePath;
+    private final ProjectManager projectManager;
+    private final ApplicantUserManager applicantUserManager;
+    private final UserManager<Officer> officerUserManager;
+    private final UserManager<Manager> managerUserManager;
+    private final EnquiryManager enquiryManager;
+    private final FilterManager filterManager;
+
+    /**
+     * Constructs a SnapshotManager over the given managers.
+     *
+     * @param filePath             The path of the snapshot file.
+     * @param projectManager       The manager for project data.
+     * @param applicantUserManager The manager for applicant user data.
+     * @param officerUserManager   The manager for officer user data.
+     * @param managerUserManager   The manager for manager user data.
+     * @param enquiryManager       The manager for enquiries.
+     * @param filterManager        The manager for saved filters.
+     */
+    public SnapshotManager(String filePath,
+                           ProjectManager projectManager,
+                           ApplicantUserManager applicantUserManager,
+                           UserManager<Officer> officerUserManager,
+                           UserManager<Manager> managerUserManager,
+                           EnquiryManager enquiryManager,
+                           FilterManager filterManager) {
+        this.filePath = filePath;
+        this.projectManager = projectManager;
+        this.applicantUserManager = applicantUserManager;
+        this.officerUserManager = officerUserManager;
+        this.managerUserManager = managerUserManager;
+        this.enquiryManager = enquiryManager;
+        this.filterManager = filterManager;
+    }
+
+    /**
+     * Checks whether the snapshot exists and is at least as new as every CSV file it replaces,
+     * including shard files.
+     *
+     * @return true if the snapshot can be loaded instead of the CSV files.
+     */
+    public boolean isSnapshotCurrent() {
+        File snapshot = new File(filePath);
+        if (!snapshot.isFile()) {
+            return false;
+        }
+        long snapshotTime = snapshot.lastModified();
+        for (String source : SOURCE_FILES) {
+            if (FileManager.lastModified(source) > snapshotTime) { // newest of the plain and compressed copies
+                return false;
+            }
+        }
+        File[] shards = new File(ShardedCsvStore.shardDirectory("data")).listFiles();
+        if (shards != null) {
+            for (File shard : shards) {
+                if (shard.lastModified() > snapshotTime) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the current state of all managers to the snapshot file.
+     * The snapshot is written to a temporary file and then renamed over the old one,
+     * so an interrupted write never leaves a partial snapshot behind.
+     *
+     * @return true if the snapshot was written, false if an error occurred.
+     */
+    public boolean writeSnapshot() {
+        Path target = Paths.get(filePath).toAbsolutePath().normalize();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        long start = System.nanoTime();
+        try {
+            long length;
+            long checksum;
+            try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+                file.write(new byte[HEADER_SIZE]); // patched below once the body length and checksum are known
+                CRC32 crc = new CRC32();
+                BinaryOutput out = new BinaryOutput(new BufferedOutputStream(new CheckedOutputStream(file, crc), 1 << 16));
+                writeBody(out);
+                out.flush();
+                length = out.getBytesWritten();
+                checksum = crc.getValue();
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.put(MAGIC).putInt(SCHEMA_VERSION).putLong(length).putLong(checksum).flip();
+                while (header.hasRemaining()) {
+                    file.getChannel().write(header, header.position());
+                }
+                file.getChannel().force(true);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            System.out.println(String.format("Snapshot written to %s (%d bytes) in %d ms.",
+                    filePath, HEADER_SIZE + length, (System.nanoTime() - start) / 1_000_000));
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error writing snapshot: " + filePath + " - " + e.getMessage());
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // the stale temporary file is replaced by the next snapshot
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Restores all managers from the snapshot file.
+     * The header and checksum are verified before anything is restored. If the snapshot cannot be
+     * used (missing, other schema version, corrupt), the managers may be partially restored and
+     * must be reloaded from the CSV files.
+     *
+     * @return true if every section was restored, false if the CSV files must be loaded instead.
+     */
+    public boolean loadSnapshot() {
+        File file = new File(filePath);
+        if (!file.isFile()) {
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            long length = verify(file);
+            if (length < 0) {
+                return false;
+            }
+            Map<String, byte[]> fingerprints = new HashMap<>();
+            try (BinaryInput in = new BinaryInput(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+                in.skipBytes(HEADER_SIZE); // verified above
+                readBody(in, fingerprints);
+                if (in.getBytesRead() != HEADER_SIZE + length) {
+                    System.out.println("Snapshot " + filePath + " has unexpected trailing data, loading CSV files instead.");
+                    return false;
+                }
+            }
+            PersistenceScheduler scheduler = FileManager.getScheduler();
+            for (Map.Entry<String, byte[]> fingerprint : fingerprints.entrySet()) {
+                scheduler.markClean(fingerprint.getKey(), fingerprint.getValue());
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Snapshot " + filePath + " could not be read (" + e.getMessage() + "), loading CSV files instead.");
+            return false;
+        }
+        System.out.println(String.format("Data restored from %s in %d ms.", filePath, (System.nanoTime() - start) / 1_000_000));
+        return true;
+    }
+
+    // Checks the header and the body checksum; returns the body length, or -1 if the snapshot cannot be used
+    private long verify(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (magic[i] != MAGIC[i]) {
+                    System.out.println("Snapshot " + filePath + " is not a snapshot file, loading CSV files instead.");
+                    return -1;
+                }
+            }
+            int version = in.readInt();
+            if (version != SCHEMA_VERSION) {
+                System.out.println("Snapshot " + filePath + " has schema version " + version
+                        + " (expected " + SCHEMA_VERSION + "), loading CSV files instead.");
+                return -1;
+            }
+            long length = in.readLong();
+            long expected = in.readLong();
+            CRC32 crc = new CRC32();
+            CheckedInputStream body = new CheckedInputStream(in, crc);
+            byte[] buffer = new byte[1 << 16];
+            long remaining = length;
+            while (remaining > 0) {
+                int n = body.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (n < 0) {
+                    System.out.println("Snapshot " + filePath + " is truncated, loading CSV files instead.");
+                    return -1;
+                }
+                remaining -= n;
+            }
+            if (crc.getValue() != expected) {
+                System.out.println("Snapshot " + filePath + " failed its checksum, loading CSV files instead.");
+                return -1;
+            }
+            return length;
+        }
+    }
+
+    private void writeBody(BinaryOutput out) throws IOException {
+        List<Project> projects = projectManager.getProjects();
+        Map<Project, Integer> projectIds = new IdentityHashMap<>();
+        out.writeVarInt(projects.size());
+        for (Project p : projects) {
+            projectIds.put(p, projectIds.size());
+            out.writeString(p.getName());
+            out.writeString(p.getNeighbourhood());
+            out.writeDate(p.getOpenDate());
+            out.writeDate(p.getCloseDate());
+            out.writeString(p.getManager());
+            out.writeString(p.getOfficer());
+            out.writeVarInt(p.getOfficerSlot());
+            out.writeBoolean(p.isVisibility());
+            out.writeVarInt(p.getRooms().size());
+            for (Room room : p.getRooms()) {
+                out.writeEnum(room.getRoomType());
+                out.writeVarInt(room.getTotalRooms());
+                out.writeVarInt(room.getAvailableRooms());
+                out.writeDouble(room.getPrice());
+            }
+        }
+
+        List<Applicant> applicants = applicantUserManager.getUsers();
+        out.writeVarInt(applicants.size());
+        for (Applicant a : applicants) {
+            writeApplicant(out, a, projectIds);
+        }
+
+        List<Officer> officers = officerUserManager.getUsers();
+        out.writeVarInt(officers.size());
+        for (Officer o : officers) {
+            writeApplicant(out, o, projectIds);
+            List<Project> registered = new ArrayList<>();
+            for (Project p : o.getRegisteredProjects()) {
+                if (projectIds.containsKey(p)) {
+                    registered.add(p);
+                }
+            }
+            out.writeVarInt(registered.size());
+            for (Project p : registered) {
+                out.writeVarInt(projectIds.get(p));
+                out.writeEnum(o.getRegistrationStatusForProject(p));
+            }
+        }
+
+        List<Manager> managers = managerUserManager.getUsers();
+        out.writeVarInt(managers.size());
+        for (Manager m : managers) {
+            out.writeString(m.getName());
+            out.writeString(m.getNRIC());
+            out.writeVarInt(m.getAge());
+            out.writeBoolean(m.isMarried());
+            out.writeString(m.getPassword());
+        }
+
+        List<Enquiry> enquiries = enquiryManager.getAllEnquiries();
+        out.writeVarInt(enquiries.size());
+        for (Enquiry e : enquiries) {
+            out.writeString(e.getApplicantNRIC());
+            out.writeString(e.getApplicantName());
+            out.writeString(e.getProjectName());
+            out.writeString(e.getMessage());
+            out.writeString(e.getReply());
+            out.writeString(e.getReplyingOfficer());
+        }
+
+        List<String> filterNrics = new ArrayList<>();
+        List<Filter> filters = new ArrayList<>();
+        filterManager.forEachFilter((nric, filter) -> {
+            filterNrics.add(nric);
+            filters.add(filter);
+        });
+        out.writeVarInt(filters.size());
+        for (int i = 0; i < filters.size(); i++) {
+            out.writeString(filterNrics.get(i));
+            out.writeString(filters.get(i).getNeighbourhood());
+            out.writeEnum(filters.get(i).getRoomType());
+        }
+
+        Map<String, byte[]> fingerprints = FileManager.getScheduler().getCleanFingerprints();
+        out.writeVarInt(fingerprints.size());
+        for (Map.Entry<String, byte[]> fingerprint : fingerprints.entrySet()) {
+            out.writeString(fingerprint.getKey());
+            out.writeString(HexFormat.of().formatHex(fingerprint.getValue()));
+        }
+    }
+
+    // User fields followed by the application, which is recorded only when Applications.csv would keep it
+    private static void writeApplicant(BinaryOutput out, Applicant a, Map<Project, Integer> projectIds) throws IOException {
+        out.writeString(a.getName());
+        out.writeString(a.getNRIC());
+        out.writeVarInt(a.getAge());
+        out.writeBoolean(a.isMarried());
+        out.writeString(a.getPassword());
+        Integer projectId = a.getAppliedProject() != null ? projectIds.get(a.getAppliedProject()) : null;
+        if (projectId != null && a.getStatus() != null && a.getStatus() != ApplicationStatus.UNSUCCESSFUL) {
+            out.writeVarInt(projectId + 1);
+            out.writeEnum(a.getRoomChosen());
+            out.writeEnum(a.getStatus());
+        } else {
+            out.writeVarInt(0);
+        }
+    }
+
+    private void readBody(BinaryInput in, Map<String, byte[]> fingerprints) throws IOException {
+        int projectCount = in.readVarInt();
+        List<Project> projects = new ArrayList<>(projectCount);
+        for (int i = 0; i < projectCount; i++) {
+            String name = in.readString();
+            String neighbourhood = StringPool.canonical(in.readString());
+            LocalDate openDate = in.readDate();
+            LocalDate closeDate = in.readDate();
+            String manager = StringPool.canonical(in.readString());
+            String officer = StringPool.canonical(in.readString());
+            int officerSlot = in.readVarInt();
+            boolean visibility = in.readBoolean();
+            int roomCount = in.readVarInt();
+            List<Room> rooms = new ArrayList<>(roomCount);
+            for (int r = 0; r < roomCount; r++) {
+                RoomType type = in.readEnum(RoomType.values());
+                int total = in.readVarInt();
+                int available = in.readVarInt();
+                rooms.add(new Room(type, total, available, in.readDouble()));
+            }
+            projects.add(new Project(name, neighbourhood, openDate, closeDate, manager, officerSlot, rooms, visibility, officer));
+        }
+        projectManager.replaceProjects(projects);
+
+        int applicantCount = in.readVarInt();
+        applicantUserManager.clearUsers();
+        for (int i = 0; i < applicantCount; i++) {
+            String name = in.readString();
+            String nric = in.readString();
+            int age = in.readVarInt();
+            boolean married = in.readBoolean();
+            Applicant applicant = applicantUserManager.createApplicant(name, nric, age, married, in.readString());
+            readApplication(in, applicant, projects);
+            applicantUserManager.addUser(applicant);
+        }
+
+        int officerCount = in.readVarInt();
+        officerUserManager.clearUsers();
+        for (int i = 0; i < officerCount; i++) {
+            String name = in.readString();
+            String nric = in.readString();
+            int age = in.readVarInt();
+            boolean married = in.readBoolean();
+            Officer officer = new Officer(name, nric, age, married, in.readString());
+            readApplication(in, officer, projects);
+            int registrations = in.readVarInt();
+            for (int r = 0; r < registrations; r++) {
+                Project project = projectAt(projects, in.readVarInt());
+                OfficerRegistrationStatus status = in.readEnum(OfficerRegistrationStatus.values());
+                officer.addRegisteredProject(project, status != null ? status : OfficerRegistrationStatus.PENDING);
+            }
+            officerUserManager.addUser(officer);
+        }
+
+        int managerCount = in.readVarInt();
+        managerUserManager.clearUsers();
+        for (int i = 0; i < managerCount; i++) {
+            String name = in.readString();
+            String nric = in.readString();
+            int age = in.readVarInt();
+            boolean married = in.readBoolean();
+            managerUserManager.addUser(new Manager(name, nric, age, married, in.readString()));
+        }
+
+        int enquiryCount = in.readVarInt();
+        List<Enquiry> enquiries = new ArrayList<>(enquiryCount);
+        for (int i = 0; i < enquiryCount; i++) {
+            String nric = in.readString();
+            String name = in.readString();
+            String project = StringPool.canonical(in.readString());
+            String message = in.readString();
+            String reply = in.readString();
+            String replyingOfficer = StringPool.canonical(in.readString());
+            Enquiry e = new Enquiry(nric, name, project, message);
+            if (reply != null) {
+                e.setReply(reply, replyingOfficer);
+            }
+            enquiries.add(e);
+        }
+        enquiryManager.replaceEnquiries(enquiries);
+
+        int filterCount = in.readVarInt();
+        filterManager.clearFilters();
+        for (int i = 0; i < filterCount; i++) {
+            String nric = in.readString();
+            String neighbourhood = StringPool.canonical(in.readString());
+            filterManager.setFilter(nric, new Filter(neighbourhood, in.readEnum(RoomType.values())));
+        }
+
+        int fingerprintCount = in.readVarInt();
+        for (int i = 0; i < fingerprintCount; i++) {
+            String path = in.readString();
+            fingerprints.put(path, HexFormat.of().parseHex(in.readString()));
+        }
+    }
+
+    private static void readApplication(BinaryInput in, Applicant applicant, List<Project> projects) throws IOException {
+        int projectId = in.readVarInt();
+        if (projectId == 0) {
+            return;
+        }
+        applicant.setAppliedProject(projectAt(projects, projectId - 1));
+        applicant.setRoomChosen(in.readEnum(RoomType.values()));
+        applicant.setStatus(in.readEnum(ApplicationStatus.values()));
+    }
+
+    private static Project projectAt(List<Project> projects, int id) throws IOException {
+        if (id < 0 || id >= projects.size()) {
+            throw new IOException("Project reference out of range: " + id);
+        }
+        return projects.get(id);
+    }
+}
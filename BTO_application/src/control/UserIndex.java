@@ -0,0 +1,142 @@
+package control;
+
+import entities.User;
+import utils.LongObjectMap;
+import utils.NricKey;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hash index over a collection of users, keyed by NRIC.
+ * Used by the UserManager implementations so that NRIC lookups do not
+ * need to scan the full user list. The owning manager is responsible for
+ * keeping the index in step with its list on load, add and remove.
+ * Valid NRICs are packed into a {@code long} with {@link NricKey} and stored in a
+ * primitive-keyed map, so lookups allocate nothing; any NRIC that does not match the
+ * standard format falls back to a map keyed by the normalized string.
+ * Lookups share a read lock and run in parallel; adds and removes take the write lock one at a time.
+ *
+ * @param <T> The specific subtype of User being indexed.
+ */
+public class UserIndex<T extends User> {
+
+    private final LongObjectMap<T> byKey = new LongObjectMap<>();
+    private final Map<String, T> byNric = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Normalizes an NRIC for use as an index key (trimmed, upper case).
+     *
+     * @param nric The raw NRIC string.
+     * @return The normalized NRIC, or null if the input is null.
+     */
+    public static String normalize(String nric) {
+        return nric == null ? null : nric.trim().toUpperCase();
+    }
+
+    /**
+     * Adds a user to the index. If another user is already indexed under the
+     * same NRIC, the existing entry is kept so lookups match the first user in list order.
+     *
+     * @param user The user to index.
+     * @return true if the user was indexed, false if the NRIC was already taken or the user is invalid.
+     */
+    public boolean add(T user) {
+        if (user == null || user.getNRIC() == null) {
+            return false;
+        }
+        long key = NricKey.encode(user.getNRIC());
+        lock.writeLock().lock();
+        try {
+            if (key != NricKey.INVALID) {
+                return byKey.putIfAbsent(key, user) == null;
+            }
+            return byNric.putIfAbsent(normalize(user.getNRIC()), user) == null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a user from the index, only if the NRIC is currently mapped to that user.
+     *
+     * @param user The user to remove.
+     * @return true if the entry was removed, false otherwise.
+     */
+    public boolean remove(T user) {
+        if (user == null || user.getNRIC() == null) {
+            return false;
+        }
+        long key = NricKey.encode(user.getNRIC());
+        lock.writeLock().lock();
+        try {
+            if (key != NricKey.INVALID) {
+                return byKey.remove(key, user);
+            }
+            return byNric.remove(normalize(user.getNRIC()), user);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Looks up a user by NRIC. The lookup is case-insensitive.
+     *
+     * @param nric The NRIC to look up.
+     * @return The matching user, or null if none is indexed.
+     */
+    public T get(String nric) {
+        if (nric == null) {
+            return null;
+        }
+        long key = NricKey.encode(nric);
+        lock.readLock().lock();
+        try {
+            if (key != NricKey.INVALID) {
+                return byKey.get(key);
+            }
+            return byNric.isEmpty() ? null : byNric.get(normalize(nric));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether a user with the given NRIC is indexed.
+     *
+     * @param nric The NRIC to check.
+     * @return true if a user is indexed under the NRIC, false otherwise.
+     */
+    public boolean contains(String nric) {
+        return get(nric) != null;
+    }
+
+    /**
+     * Removes all entries from the index.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            byKey.clear();
+            byNric.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of indexed users.
+     * @return The number of entries in the index.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byKey.size() + byNric.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
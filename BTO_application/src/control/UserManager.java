@@ -1,6 +1,7 @@
 package control;
 
 import entities.User;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -24,9 +25,20 @@ public interface UserManager<T extends User> {
     void saveUsers();
 
     /**
-     * Adds a new user to the internal list of users.
+     * Saves the data of users that were changed. Implementations that store users across several
+     * files rewrite only the files holding these users; by default all users are saved.
      *
-     * @param user The user to be added.
+     * @param changedUsers The users whose data changed.
+     */
+    default void saveUsers(Collection<? extends T> changedUsers) {
+        saveUsers();
+    }
+
+    /**
+     * Retrieves all users as an immutable snapshot, which stays valid and unchanged
+     * while other threads add or remove users.
+     *
+     * @return The users, in load order.
      */
     List<T> getUsers();
 
@@ -45,4 +57,25 @@ public interface UserManager<T extends User> {
      * @return true if the user exists, false otherwise.
      */
     boolean changePassword(String nric, String newPassword);
+
+    /**
+     * Adds a user to the internal list and NRIC index.
+     *
+     * @param user The user to be added.
+     * @return true if the user was added, false if the user is null or the NRIC already exists.
+     */
+    boolean addUser(T user);
+
+    /**
+     * Removes a user from the internal list and NRIC index.
+     *
+     * @param user The user to be removed.
+     * @return true if the user was found and removed, false otherwise.
+     */
+    boolean removeUser(T user);
+
+    /**
+     * Removes every user from the internal list and NRIC index, e.g. before restoring them from a snapshot.
+     */
+    void clearUsers();
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package entities;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 
 import enums.ApplicationStatus;
 import enums.Role;
@@ -14,7 +16,16 @@ import enums.RoomType;
 public class Applicant extends User{
 	private Project appliedProject;
 	private RoomType chosenRoom;
-	private ApplicationStatus status;
+	private volatile ApplicationStatus status;
+
+	private static final VarHandle STATUS;
+	static {
+		try {
+			STATUS = MethodHandles.lookup().findVarHandle(Applicant.class, "status", ApplicationStatus.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
 	
     /**
      * Constructs a new Applicant object.
@@ -85,6 +96,18 @@ public class Applicant extends User{
         this.status = status;
     }
 
+    /**
+     * Atomically sets the status to a new value if it currently holds the expected value.
+     * Used by the application state machine, so that of two conflicting status changes only one succeeds.
+     *
+     * @param expected The status the application must currently have (null for no application).
+     * @param status   The new ApplicationStatus for the application.
+     * @return true if the status was changed, false if it no longer held the expected value.
+     */
+    public boolean compareAndSetStatus(ApplicationStatus expected, ApplicationStatus status) {
+        return STATUS.compareAndSet(this, expected, status);
+    }
+
     /**
      * Returns a string representation of the Applicant object, including basic user info
      * and current application details (project name and status).
@@ -98,8 +121,8 @@ public class Applicant extends User{
                 ", NRIC='" + getNRIC() + '\'' +
                 ", age=" + getAge() +
                 ", maritalStatus=" + (isMarried() ? "Married" : "Single") +
-                ", appliedProject=" + (appliedProject != null ? appliedProject.getName() : "None") +
-                ", status=" + (status != null ? status : "None") +
+                ", appliedProject=" + (getAppliedProject() != null ? getAppliedProject().getName() : "None") +
+                ", status=" + (getStatus() != null ? getStatus() : "None") +
                 '}';
     }
 }
@@ -0,0 +1,249 @@
+package entities;
+
+import enums.ApplicationStatus;
+import enums.RoomType;
+import utils.NricKey;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar in-memory store for applicants.
+ * Instead of each Applicant holding its own fields and strings, the data of every applicant
+ * is kept in parallel primitive arrays indexed by row: packed NRIC, age, marital flag,
+ * status ordinal, room ordinal and project id, with names and passwords stored as ids into
+ * a shared string table. The Applicant objects handed out by {@link #add} are lightweight
+ * views that only hold their row number and read and write through to the columns.
+ * Not thread-safe, except that the status of existing rows can be read and compared-and-set
+ * concurrently (see {@link Applicant#compareAndSetStatus}).
+ */
+public class ApplicantColumns {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final byte NONE = 0; // enum columns store ordinal + 1, 0 for null
+
+    private int size = 0;
+    private long[] nricKeys = new long[INITIAL_CAPACITY];
+    private int[] nameIds = new int[INITIAL_CAPACITY];
+    private int[] passwordIds = new int[INITIAL_CAPACITY];
+    private short[] ages = new short[INITIAL_CAPACITY];
+    private final BitSet married = new BitSet();
+    private byte[] statuses = new byte[INITIAL_CAPACITY];
+    private byte[] rooms = new byte[INITIAL_CAPACITY];
+    private int[] projectIds = new int[INITIAL_CAPACITY];
+
+    // NRICs that cannot be packed into a long are kept as strings by row
+    private final Map<Integer, String> otherNrics = new HashMap<>();
+
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private final List<Project> projects = new ArrayList<>();
+    private final Map<Project, Integer> projectIdsByProject = new IdentityHashMap<>();
+
+    private static final ApplicationStatus[] STATUS_VALUES = ApplicationStatus.values();
+    private static final RoomType[] ROOM_VALUES = RoomType.values();
+    private static final VarHandle STATUS_CELLS = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    /**
+     * Adds an applicant row and returns the view over it.
+     *
+     * @param name      The name of the applicant.
+     * @param NRIC      The NRIC of the applicant.
+     * @param age       The age of the applicant.
+     * @param isMarried The marital status of the applicant.
+     * @param password  The login password for the applicant.
+     * @return An Applicant backed by the new row.
+     */
+    public Applicant add(String name, String NRIC, int age, boolean isMarried, String password) {
+        ensureCapacity(size + 1);
+        int row = size++;
+        long key = NricKey.encode(NRIC);
+        nricKeys[row] = key;
+        if (key == NricKey.INVALID) {
+            otherNrics.put(row, NRIC);
+        }
+        nameIds[row] = stringId(name);
+        passwordIds[row] = stringId(password);
+        ages[row] = (short) age;
+        married.set(row, isMarried);
+        statuses[row] = NONE;
+        rooms[row] = NONE;
+        projectIds[row] = -1;
+        return new Row(this, row);
+    }
+
+    /**
+     * Removes all rows and clears the string and project tables.
+     * Views handed out before the call must no longer be used.
+     */
+    public void clear() {
+        size = 0;
+        married.clear();
+        otherNrics.clear();
+        strings.clear();
+        stringIds.clear();
+        projects.clear();
+        projectIdsByProject.clear();
+    }
+
+    /**
+     * Gets the number of rows.
+     * @return The number of applicants in the store.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of distinct strings (names and passwords) in the string table.
+     * @return The size of the string table.
+     */
+    public int getStringTableSize() {
+        return strings.size();
+    }
+
+    private int stringId(String s) {
+        if (s == null) {
+            return -1;
+        }
+        Integer id = stringIds.get(s);
+        if (id == null) {
+            id = strings.size();
+            strings.add(s);
+            stringIds.put(s, id);
+        }
+        return id;
+    }
+
+    private String string(int id) {
+        return id < 0 ? null : strings.get(id);
+    }
+
+    private int projectId(Project project) {
+        if (project == null) {
+            return -1;
+        }
+        Integer id = projectIdsByProject.get(project);
+        if (id == null) {
+            id = projects.size();
+            projects.add(project);
+            projectIdsByProject.put(project, id);
+        }
+        return id;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= nricKeys.length) {
+            return;
+        }
+        int capacity = Math.max(needed, nricKeys.length * 2);
+        nricKeys = Arrays.copyOf(nricKeys, capacity);
+        nameIds = Arrays.copyOf(nameIds, capacity);
+        passwordIds = Arrays.copyOf(passwordIds, capacity);
+        ages = Arrays.copyOf(ages, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        rooms = Arrays.copyOf(rooms, capacity);
+        projectIds = Arrays.copyOf(projectIds, capacity);
+    }
+
+    /**
+     * An Applicant that reads and writes its data through a row of the store.
+     * The fields inherited from User and Applicant are left unset.
+     */
+    private static final class Row extends Applicant {
+        private final ApplicantColumns store;
+        private final int row;
+
+        private Row(ApplicantColumns store, int row) {
+            super(null, null, 0, false, null);
+            this.store = store;
+            this.row = row;
+        }
+
+        @Override
+        public String getName() {
+            return store.string(store.nameIds[row]);
+        }
+
+        @Override
+        public String getNRIC() {
+            long key = store.nricKeys[row];
+            return key == NricKey.INVALID ? store.otherNrics.get(row) : NricKey.decode(key);
+        }
+
+        @Override
+        public int getAge() {
+            return store.ages[row];
+        }
+
+        @Override
+        public boolean isMarried() {
+            return store.married.get(row);
+        }
+
+        @Override
+        public String getPassword() {
+            return store.string(store.passwordIds[row]);
+        }
+
+        @Override
+        public void setPassword(String newPass) {
+            store.passwordIds[row] = store.stringId(newPass);
+        }
+
+        @Override
+        public boolean verifyPassword(String pass) {
+            String password = getPassword();
+            return password != null && password.equals(pass);
+        }
+
+        @Override
+        public Project getAppliedProject() {
+            int id = store.projectIds[row];
+            return id < 0 ? null : store.projects.get(id);
+        }
+
+        @Override
+        public void setAppliedProject(Project appliedProject) {
+            store.projectIds[row] = store.projectId(appliedProject);
+        }
+
+        @Override
+        public RoomType getRoomChosen() {
+            byte ordinal = store.rooms[row];
+            return ordinal == NONE ? null : ROOM_VALUES[ordinal - 1];
+        }
+
+        @Override
+        public void setRoomChosen(RoomType flatTypeChosen) {
+            store.rooms[row] = flatTypeChosen == null ? NONE : (byte) (flatTypeChosen.ordinal() + 1);
+        }
+
+        @Override
+        public ApplicationStatus getStatus() {
+            byte ordinal = (byte) STATUS_CELLS.getVolatile(store.statuses, row);
+            return ordinal == NONE ? null : STATUS_VALUES[ordinal - 1];
+        }
+
+        @Override
+        public void setStatus(ApplicationStatus status) {
+            STATUS_CELLS.setVolatile(store.statuses, row, statusCell(status));
+        }
+
+        @Override
+        public boolean compareAndSetStatus(ApplicationStatus expected, ApplicationStatus status) {
+            return STATUS_CELLS.compareAndSet(store.statuses, row, statusCell(expected), statusCell(status));
+        }
+
+        private static byte statusCell(ApplicationStatus status) {
+            return status == null ? NONE : (byte) (status.ordinal() + 1);
+        }
+    }
+}
@@ -10,6 +10,8 @@ import control.ProjectManager;
 import java.util.ArrayList;
 
 import enums.RoomType;
+import utils.CsvReader;
+import utils.StringPool;
 
 /**
  * Represents a Build-To-Order (BTO) housing project listing in the system.
@@ -66,6 +68,8 @@ public class Project {
 
 	/**
 	 * Sets the name of the project.
+	 * Projects held by a ProjectManager should be renamed through {@code ProjectManager.renameProject}
+	 * so that its name index is updated.
 	 * @param projectName The new project name.
 	 */
 	public void setProjectName(String projectName) {
@@ -263,15 +267,25 @@ public class Project {
      * @return A Project object parsed from the line, or null if parsing fails.
      */
     public static Project fromCSV(String csvLine) {
-        String[] parts = csvLine.split(",");
+        return fromCSV(CsvReader.parseLine(csvLine));
+    }
+
+    /**
+     * Creates a Project object from the already-split fields of a `ProjectList.csv` record.
+     * Quoted fields must already be unescaped (as produced by {@link CsvReader}).
+     *
+     * @param parts The 16 fields of a project record.
+     * @return A Project object parsed from the fields, or null if parsing fails.
+     */
+    public static Project fromCSV(String[] parts) {
         if (parts.length < 16) {
-            System.err.println("Skipping line: Not enough columns in CSV line. Expected 16, got " + parts.length + ". Line: " + csvLine);
+            System.err.println("Skipping line: Not enough columns in CSV line. Expected 16, got " + parts.length + ". Line: " + String.join(",", parts));
             return null;
         }
 
         try {
             String projectName = parts[0].trim();
-            String neighborhood = parts[1].trim();
+            String neighborhood = StringPool.canonical(parts[1].trim());
 
             List<Room> rooms = new ArrayList<>();
 
@@ -296,22 +310,22 @@ public class Project {
             LocalDate openDate = LocalDate.parse(parts[10].trim(), dtf);
             LocalDate closeDate = LocalDate.parse(parts[11].trim(), dtf);
 
-            String manager = parts[12].trim();
+            String manager = StringPool.canonical(parts[12].trim());
             int officerSlot = Integer.parseInt(parts[13].trim());
-            String officer = parts[14].trim();
+            String officer = StringPool.canonical(parts[14].trim());
 
             boolean visibility = Boolean.parseBoolean(parts[15].trim());
 
             return new Project(projectName, neighborhood, openDate, closeDate, manager, officerSlot, rooms, visibility, officer);
 
         } catch (DateTimeParseException e) {
-            System.err.println("Error parsing date in project from line: " + csvLine + " - " + e.getMessage());
+            System.err.println("Error parsing date in project from line: " + String.join(",", parts) + " - " + e.getMessage());
         } catch (NumberFormatException e) {
-            System.err.println("Error parsing number (units, price, slots) in project from line: " + csvLine + " - " + e.getMessage());
+            System.err.println("Error parsing number (units, price, slots) in project from line: " + String.join(",", parts) + " - " + e.getMessage());
         } catch (IllegalArgumentException e) {
-             System.err.println("Error parsing enum (RoomType) in project from line: " + csvLine + " - " + e.getMessage());
+             System.err.println("Error parsing enum (RoomType) in project from line: " + String.join(",", parts) + " - " + e.getMessage());
         } catch (Exception e) {
-            System.err.println("Unexpected error parsing project from line: " + csvLine);
+            System.err.println("Unexpected error parsing project from line: " + String.join(",", parts));
             e.printStackTrace();
         }
         return null;
@@ -2,16 +2,23 @@ package entities;
 
 import enums.RoomType;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Represents a specific type of flat (room) offered within a BTO Project.
  * Stores details about the room type (e.g., TwoRoom, ThreeRoom), the total number
  * of units, the currently available units, and the selling price.
  * Provides methods to manage the availability count.
+ *
+ * The available count is an atomic counter updated with compare-and-set, so concurrent
+ * reservations and releases are safe without locking. Each Room (one per project and room type)
+ * has its own counter, so activity on one project never blocks another.
+ * The count never goes below zero or above the total number of units.
  */
 public class Room {
 	private RoomType type;
-	private int totalRooms;
-	private int availableRooms;
+	private volatile int totalRooms;
+	private final AtomicInteger availableRooms;
 	private double price;
 
 	/**
@@ -28,7 +35,7 @@ public class Room {
 		this.type = type;
 		this.totalRooms = totalRooms;
 		this.price = price;
-		this.availableRooms = Math.min(availableRooms, totalRooms);
+		this.availableRooms = new AtomicInteger(Math.max(0, Math.min(availableRooms, totalRooms)));
 		if (availableRooms > totalRooms) {
 		    System.err.println("Warning: Initial available rooms (" + availableRooms +
 		                       ") greater than total rooms (" + totalRooms +
@@ -57,7 +64,7 @@ public class Room {
 	 * @return The number of available units.
 	 */
 	public int getAvailableRooms() {
-		return availableRooms;
+		return availableRooms.get();
 	}
 
 	/**
@@ -67,7 +74,7 @@ public class Room {
 	 * @param availableRooms The new number of available units.
 	 */
 	public void setAvailableRooms(int availableRooms) {
-		this.availableRooms = Math.max(0, Math.min(availableRooms, this.totalRooms));
+		this.availableRooms.set(Math.max(0, Math.min(availableRooms, this.totalRooms)));
 	}
 
 	/**
@@ -93,15 +100,58 @@ public class Room {
 	 *
 	 * @param additionalUnits The number of units to add. Must be a positive number.
 	 */
-	public void increaseRoomSupply(int additionalUnits) {
+	public synchronized void increaseRoomSupply(int additionalUnits) {
 	    if (additionalUnits > 0) {
+	        // Raise the total first so a concurrent release never sees available above total
 	        this.totalRooms += additionalUnits;
-	        this.availableRooms += additionalUnits;
+	        this.availableRooms.addAndGet(additionalUnits);
 	    } else {
 	        System.err.println("Cannot increase room supply by non-positive number.");
 	    }
 	}
 	
+	/**
+	 * Atomically reserves a number of units. Either all units are reserved or none are.
+	 *
+	 * @param units The number of units to reserve. Must be positive.
+	 * @return true if the units were reserved, false if fewer than that many units are available.
+	 */
+	public boolean tryReserve(int units) {
+		if (units <= 0) {
+			return false;
+		}
+		while (true) {
+			int current = availableRooms.get();
+			if (current < units) {
+				return false;
+			}
+			if (availableRooms.compareAndSet(current, current - units)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Atomically returns a number of units to the available pool. Either all units are released or none are.
+	 *
+	 * @param units The number of units to release. Must be positive.
+	 * @return true if the units were released, false if that would exceed the total number of units.
+	 */
+	public boolean release(int units) {
+		if (units <= 0) {
+			return false;
+		}
+		while (true) {
+			int current = availableRooms.get();
+			if (current + units > totalRooms) {
+				return false;
+			}
+			if (availableRooms.compareAndSet(current, current + units)) {
+				return true;
+			}
+		}
+	}
+
 	/**
 	 * Increments the count of available rooms by one.
 	 * This is typically used when an application withdrawal is approved,
@@ -111,11 +161,10 @@ public class Room {
 	 * @return true if the count was successfully incremented, false otherwise (e.g., already at max).
 	 */
 	public boolean incrementAvailableRooms() {
-		if(availableRooms < totalRooms) {
-			availableRooms++;
+		if (release(1)) {
 			return true;
 		}
-		System.err.println("Increment failed: Available rooms already at maximum (" + availableRooms + "/" + totalRooms + ").");
+		System.err.println("Increment failed: Available rooms already at maximum (" + getAvailableRooms() + "/" + totalRooms + ").");
 		return false;
 	}
 
@@ -128,11 +177,10 @@ public class Room {
 	 * @return true if the count was successfully decremented, false otherwise (e.g., already at zero).
 	 */
 	public boolean decrementAvailableRooms() {
-		if (availableRooms > 0) {
-			availableRooms--;
+		if (tryReserve(1)) {
 			return true;
 		}
-		System.err.println("Decrement failed: No available rooms left (" + availableRooms + "/" + totalRooms + ").");
+		System.err.println("Decrement failed: No available rooms left (" + getAvailableRooms() + "/" + totalRooms + ").");
 		return false;
 	}
 
@@ -148,7 +196,7 @@ public class Room {
                "type=" + type +
                ", totalRooms=" + totalRooms +
                ", price=" + price +
-               ", availableRooms=" + availableRooms +
+               ", availableRooms=" + availableRooms.get() +
                '}';
     }
 }
\ No newline at end of file
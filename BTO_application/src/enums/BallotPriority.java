@@ -0,0 +1,8 @@
+package enums;
+
+public enum BallotPriority {
+    NONE,
+    MARRIED_FIRST,
+    AGE_BANDS,
+    MARRIED_THEN_AGE_BANDS
+}
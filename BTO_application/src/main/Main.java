@@ -6,9 +6,20 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import auth.LoginManager;
+import boundary.ApiServer;
+import boundary.SessionConsole;
+import boundary.SessionServer;
 import entities.*;
+import utils.Compression;
+import utils.FileManager;
+import utils.Journal;
+import utils.PersistenceScheduler;
+import utils.RecordStores;
+import utils.ShardedCsvStore;
+import utils.StringPool;
 
 /**
  * The main entry point for the BTO Management System application.
@@ -22,21 +33,108 @@ public class Main {
      * The main method that starts the BTO Management System.
      *
      * Initializes all manager classes (ProjectManager, UserManagers, ApplicationManager, etc.).
-     * Loads data from various CSV files (Projects, Users, Applications, Enquiries, Filters).
+     * Restores all data from the binary snapshot when it is newer than every CSV file; otherwise
+     * loads data from various CSV files (Projects, Users, Applications, Enquiries, Filters),
+     * running independent files concurrently through the StartupLoader.
+     * Replays the write-ahead journal on top of the loaded snapshots and compacts it.
      * Displays the current date and a welcome banner.
      * Instantiates and starts the LoginManager to handle user authentication and UI navigation.
-     * Upon termination of the login loop (application exit), it saves all potentially modified data back to their respective CSV files.
+     * Upon termination of the login loop (application exit), it saves all potentially modified data back to their respective CSV files
+     * and then writes a fresh snapshot.
      *
-     * @param args Command line arguments.
+     * @param args Command line arguments. {@code --mmap} loads data files through memory-mapped buffers;
+     *             {@code --columnar} stores applicants in a columnar store;
+     *             {@code --no-snapshot} loads the CSV files even when a current snapshot exists;
+     *             {@code --compress=gzip|deflate|none} selects how data files are compressed when written;
+     *             {@code --shards=<n>} partitions applicant, officer and application files into n files by NRIC
+     *             (existing files are migrated to the new layout on load);
+     *             {@code --save-window=<ms>} sets how long repeated saves of a file are coalesced;
+     *             {@code --project-slots} keeps projects in a fixed-width record file that is updated in place
+     *             (the project CSV file is migrated on load, and back again when the flag is dropped);
+     *             {@code --jdbc=<url>} stores all data in an embedded database (e.g. {@code jdbc:h2:./data/bto}
+     *             or {@code jdbc:sqlite:data/bto.db}, driver on the class path), imported from the CSV files on first use;
+     *             {@code --server=<port>} serves concurrent sessions over a local TCP socket instead of the console,
+     *             until {@code stop} is typed on the console;
+     *             {@code --api=<port>} serves a JSON API over HTTP on the loopback address, alongside or instead of the sessions.
      */
     public static void main(String[] args) {
 
         System.out.println("Initializing BTO Management System...");
 
+        boolean columnar = false;
+        boolean useSnapshot = true;
+        boolean projectSlots = false;
+        String jdbcUrl = null;
+        int serverPort = -1;
+        int apiPort = -1;
+        for (String arg : args) {
+            if (arg.equals("--mmap")) {
+                FileManager.setMemoryMapped(true);
+                System.out.println("Loading data files through memory-mapped buffers.");
+            } else if (arg.equals("--columnar")) {
+                columnar = true;
+                System.out.println("Storing applicants in a columnar store.");
+            } else if (arg.equals("--project-slots")) {
+                projectSlots = true;
+                System.out.println("Storing projects in a fixed-width record file.");
+            } else if (arg.startsWith("--jdbc=")) {
+                jdbcUrl = arg.substring("--jdbc=".length());
+            } else if (arg.startsWith("--server=")) {
+                try {
+                    serverPort = Integer.parseInt(arg.substring("--server=".length()));
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid server port, using the console: " + arg);
+                }
+            } else if (arg.startsWith("--api=")) {
+                try {
+                    apiPort = Integer.parseInt(arg.substring("--api=".length()));
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid API port, not serving the API: " + arg);
+                }
+            } else if (arg.equals("--no-snapshot")) {
+                useSnapshot = false;
+                System.out.println("Ignoring the binary snapshot, loading CSV files.");
+            } else if (arg.startsWith("--compress=")) {
+                Compression codec = Compression.fromName(arg.substring("--compress=".length()));
+                if (codec != null) {
+                    FileManager.setCompression(codec);
+                    System.out.println("Writing data files with " + codec.name().toLowerCase() + " compression.");
+                } else {
+                    System.out.println("Unknown compression, writing plain files: " + arg);
+                }
+            } else if (arg.startsWith("--shards=")) {
+                try {
+                    ShardedCsvStore.setShardCount(Integer.parseInt(arg.substring("--shards=".length())));
+                    System.out.println("Storing applicants, officers and applications in "
+                            + ShardedCsvStore.getShardCount() + " file(s) each.");
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid shard count, using a single file: " + arg);
+                }
+            } else if (arg.startsWith("--save-window=")) {
+                try {
+                    FileManager.setSaveWindowMillis(Long.parseLong(arg.substring("--save-window=".length())));
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid save window, using the default: " + arg);
+                }
+            }
+        }
+
+        // The database is the primary store: the CSV-based snapshot, record file and journal are not used with it
+        boolean database = jdbcUrl != null && RecordStores.useDatabase(jdbcUrl);
+        if (database) {
+            System.out.println("Storing data in database " + jdbcUrl + ".");
+            useSnapshot = false;
+            if (projectSlots) {
+                System.out.println("Projects are stored in the database, ignoring --project-slots.");
+                projectSlots = false;
+            }
+        }
+
         ProjectManager projectManager = new ProjectManager();
-        projectManager.loadProjects("data/ProjectList.csv"); 
-        
-        UserManager<Applicant> applicantUserManager = new ApplicantUserManager();
+        if (projectSlots) {
+            projectManager.setSlotFile(new ProjectSlotFile(ProjectManager.SLOT_FILE_PATH));
+        }
+        ApplicantUserManager applicantUserManager = new ApplicantUserManager(columnar);
         OfficerUserManager officerUserManager = new OfficerUserManager(projectManager); //need officer specific methods in the csv
         UserManager<Manager> managerUserManager = new ManagerUserManager();
 
@@ -47,23 +145,62 @@ public class Main {
         OfficerRegistrationManager officerRegistrationManager = new OfficerRegistrationManager(projectManager, officerUserManager);
         BookingManager bookingManager = new BookingManager(projectManager, applicantUserManager, applicationManager);
         ReportManager reportManager = new ReportManager(applicantUserManager, officerUserManager, applicationManager);
-        FilterManager filterManager = new FilterManager("data/Filter.csv");
+        BallotManager ballotManager = new BallotManager(applicationManager, projectManager);
+        FilterManager filterManager = new FilterManager("data/Filter.csv", false);
 
-        applicantUserManager.loadUsers();
-        officerUserManager.loadUsers();
-        managerUserManager.loadUsers();
+        SnapshotManager snapshotManager = new SnapshotManager("data/snapshot.bin", projectManager,
+                applicantUserManager, officerUserManager, managerUserManager, enquiryManager, filterManager);
 
-        enquiryManager.loadEnquiries();
+        // Restore from the binary snapshot unless a CSV file has been written since it was taken
+        boolean restored = useSnapshot && snapshotManager.isSnapshotCurrent() && snapshotManager.loadSnapshot();
+        if (!restored) {
+            // Officers and applications link to projects (and applications to applicants and officers);
+            // the remaining files are independent and load at the same time
+            StartupLoader loader = new StartupLoader();
+            loader.addStep("ProjectList.csv", () -> projectManager.loadProjects("data/ProjectList.csv"));
+            loader.addStep("ApplicantList.csv", applicantUserManager::loadUsers);
+            loader.addStep("OfficerList.csv", officerUserManager::loadUsers, "ProjectList.csv");
+            loader.addStep("ManagerList.csv", managerUserManager::loadUsers);
+            loader.addStep("enquiries.csv", enquiryManager::loadEnquiries);
+            loader.addStep("Filter.csv", filterManager::loadFilters);
+            loader.addStep("Applications.csv", () -> {
+                List<Applicant> allApplicants = new ArrayList<>();
+                allApplicants.addAll(applicantUserManager.getUsers());
+                allApplicants.addAll(officerUserManager.getUsers()); // include officers who apply as applicant
 
-        List<Applicant> allApplicants = new ArrayList<>();
-        allApplicants.addAll(applicantUserManager.getUsers());
-        allApplicants.addAll(officerUserManager.getUsers()); // include officers who apply as applicant
+                applicationManager.loadApplications(
+                     "data/Applications.csv",
+                     allApplicants,
+                     projectManager.getProjects()
+                );
+            }, "ProjectList.csv", "ApplicantList.csv", "OfficerList.csv");
+            loader.run();
+        }
+        StringPool.release(); // repeated values loaded above stay shared
 
-        applicationManager.loadApplications(
-             "data/Applications.csv",
-             allApplicants,
-             projectManager.getProjects()
-        );
+        // Replay state changes recorded since the last snapshot, then fold them into the CSVs
+        Journal journal = new Journal("data/journal.log");
+        journal.setCompactionTask(() -> {
+            applicantUserManager.saveUsers();
+            officerUserManager.saveUsers();
+            applicationManager.saveApplications();
+            projectManager.saveProjects("data/ProjectList.csv");
+            FileManager.flushPendingWrites(); // snapshots must be on disk before the journal is truncated
+        });
+        int replayed = journal.replay(record -> {
+            if (!projectManager.applyJournalRecord(record)) {
+                applicationManager.applyJournalRecord(record);
+            }
+        });
+        if (replayed > 0) {
+            System.out.println("Recovered " + replayed + " journal record(s).");
+            journal.compact();
+        }
+        applicationManager.rebuildStatusIndex(); // statuses were set directly while loading
+        if (!database) {
+            projectManager.setJournal(journal);
+            applicationManager.setJournal(journal);
+        }
 
         System.out.println("Initialization complete. Redirecting to Login Page...");
         System.out.println();
@@ -86,23 +223,53 @@ public class Main {
             officerRegistrationManager,
             bookingManager,
             reportManager,
+            ballotManager,
             filterManager
         );
-        loginManager.welcomeBanner();
-
         // --- Start the Application ---
-        loginManager.login(); //
+        // Changes to the managers take turns; read-only API requests run in parallel
+        ReentrantReadWriteLock managerLock = new ReentrantReadWriteLock(true);
+        SessionServer server = serverPort >= 0 ? new SessionServer(loginManager, serverPort, managerLock) : null;
+        ApiServer api = apiPort >= 0 ? new ApiServer(apiPort, managerLock, loginManager, applicantManager,
+                applicationManager, projectManager, bookingManager, enquiryManager, reportManager) : null;
+        boolean serving = server != null && server.start();
+        if (api != null && api.start()) {
+            serving = true;
+        }
+        if (serving) {
+            SessionConsole.awaitStopCommand();
+            if (api != null) {
+                api.stop();
+            }
+            if (server != null) {
+                server.stop();
+            }
+            SessionConsole.uninstall();
+        } else {
+            loginManager.welcomeBanner();
+            loginManager.login(); //
+        }
 
         // --- Save Data on Exit ---
         System.out.println("\n-----------------------------------------");
         System.out.println("Exiting BTO Management System. Saving data...");
-        applicantUserManager.saveUsers();
-        applicationManager.saveApplications("data/applications.csv", allApplicants);
-        officerUserManager.saveUsers();
+        journal.compact(); // saves applicants, officers, applications and projects
+        journal.close();
+        projectManager.close();
         managerUserManager.saveUsers();
-        projectManager.saveProjects("data/ProjectList.csv");
         enquiryManager.saveEnquiries("data/enquiries.csv");
         filterManager.saveFilters();
+        FileManager.shutdownWriters(); // drain background writes before exiting
+        if (database) {
+            RecordStores.close();
+        } else {
+            snapshotManager.writeSnapshot(); // taken last, so it is newer than every CSV file
+        }
+        PersistenceScheduler persistence = FileManager.getScheduler();
+        System.out.println("Saves requested: " + persistence.getSavesRequested()
+                + ", writes performed: " + persistence.getWritesPerformed()
+                + " (unchanged skipped: " + persistence.getSavesSkipped()
+                + ", coalesced: " + persistence.getSavesCoalesced() + ")");
 
         System.out.println("Goodbye!");
     }
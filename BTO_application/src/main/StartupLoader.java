@@ -0,0 +1,110 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads the startup data files concurrently while respecting the dependencies between them.
+ * Each load step is registered with the steps it depends on (e.g. officers and applications
+ * need projects to be loaded first). Steps without a dependency between them run at the
+ * same time on virtual threads, and a step starts as soon as all of its dependencies finish.
+ * The time taken by each step is reported once loading completes.
+ */
+public class StartupLoader {
+
+    private final Map<String, Runnable> steps = new LinkedHashMap<>();
+    private final Map<String, String[]> dependencies = new LinkedHashMap<>();
+    private final Map<String, Long> timings = new LinkedHashMap<>();
+
+    /**
+     * Registers a load step. Dependencies must be registered before the steps that use them.
+     *
+     * @param name      The name of the step, usually the file it loads.
+     * @param loader    The code that loads the file.
+     * @param dependsOn The names of the steps that must finish before this one starts.
+     * @throws IllegalArgumentException if the name is already registered or a dependency is unknown.
+     */
+    public void addStep(String name, Runnable loader, String... dependsOn) {
+        if (steps.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate load step: " + name);
+        }
+        for (String dependency : dependsOn) {
+            if (!steps.containsKey(dependency)) {
+                throw new IllegalArgumentException("Load step " + name + " depends on unknown step " + dependency);
+            }
+        }
+        steps.put(name, loader);
+        dependencies.put(name, dependsOn);
+    }
+
+    /**
+     * Runs all registered steps and waits for them to finish, then prints the per-step timings.
+     * If a step fails, the steps that depend on it are skipped and the error is reported.
+     *
+     * @return true if every step completed, false if any step failed or was skipped.
+     */
+    public boolean run() {
+        Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+        long start = System.nanoTime();
+        boolean success = true;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Map.Entry<String, Runnable> step : steps.entrySet()) {
+                String name = step.getKey();
+                Runnable loader = step.getValue();
+                List<CompletableFuture<Void>> required = new ArrayList<>();
+                for (String dependency : dependencies.get(name)) {
+                    required.add(futures.get(dependency));
+                }
+                CompletableFuture<Void> future = CompletableFuture
+                        .allOf(required.toArray(new CompletableFuture<?>[0]))
+                        .thenRunAsync(() -> runTimed(name, loader), executor);
+                futures.put(name, future);
+            }
+
+            for (Map.Entry<String, CompletableFuture<Void>> entry : futures.entrySet()) {
+                try {
+                    entry.getValue().join();
+                } catch (CompletionException e) {
+                    success = false;
+                    if (timings.containsKey(entry.getKey())) {
+                        System.out.println("Error loading " + entry.getKey() + ": " + e.getCause());
+                    } else {
+                        System.out.println("Skipped loading " + entry.getKey() + " because a step it depends on failed.");
+                    }
+                }
+            }
+        }
+
+        long total = System.nanoTime() - start;
+        printTimings(total);
+        return success;
+    }
+
+    private void runTimed(String name, Runnable loader) {
+        long start = System.nanoTime();
+        try {
+            loader.run();
+        } finally {
+            synchronized (timings) {
+                timings.put(name, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private void printTimings(long totalNanos) {
+        System.out.println("Startup load times:");
+        for (String name : steps.keySet()) {
+            Long nanos = timings.get(name);
+            String time = nanos == null ? "not run" : String.format("%.1f ms", nanos / 1_000_000.0);
+            System.out.println(String.format("  %-20s %s", name, time));
+        }
+        System.out.println(String.format("  %-20s %.1f ms", "Total (wall clock)", totalNanos / 1_000_000.0));
+    }
+}
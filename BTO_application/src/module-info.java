@@ -5,4 +5,6 @@
  * 
  */
 module BTO_application {
+    requires java.sql;
+    requires jdk.httpserver;
 }
\ No newline at end of file
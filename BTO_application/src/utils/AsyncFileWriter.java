@@ -0,0 +1,119 @@
+package utils;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Writes whole files in the background, with one writer thread per file.
+ * Each write takes an immutable snapshot of the lines, so the caller can keep changing its data
+ * while the write runs. Writes to the same file run in the order they were submitted; writes to
+ * different files run in parallel. A file is written to a temporary file next to it, forced to disk,
+ * and then renamed over the target, so readers and crashes only ever see the old or the new content.
+ * Files named with a compression extension are compressed while they are written (see {@link Compression}).
+ * Files are written as UTF-8 with every line ended by {@code '\n'}, whatever the platform defaults are.
+ */
+public class AsyncFileWriter {
+
+    private final Map<Path, ExecutorService> writers = new HashMap<>();
+    private final Map<Path, CompletableFuture<Void>> lastWrites = new HashMap<>();
+
+    /**
+     * Queues a write of the lines to the file.
+     *
+     * @param filePath The file to replace.
+     * @param lines    The new content of the file. A copy is taken before this method returns.
+     * @return A future that completes when the file has been replaced, or completes exceptionally if the write failed.
+     */
+    public CompletableFuture<Void> write(String filePath, List<String> lines) {
+        List<String> snapshot = Collections.unmodifiableList(new ArrayList<>(lines));
+        Path target = Paths.get(filePath).toAbsolutePath().normalize();
+        synchronized (this) {
+            ExecutorService writer = writers.computeIfAbsent(target, path -> Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "file-writer-" + path.getFileName());
+                t.setDaemon(true);
+                return t;
+            }));
+            CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
+                try {
+                    writeAtomically(target, snapshot);
+                } catch (IOException e) {
+                    System.out.println("Error writing to file: " + filePath);
+                    throw new RuntimeException(e);
+                }
+            }, writer);
+            lastWrites.put(target, future);
+            return future;
+        }
+    }
+
+    /**
+     * Waits until every write queued so far has finished. Failed writes have already been reported.
+     */
+    public void drain() {
+        List<CompletableFuture<Void>> outstanding;
+        synchronized (this) {
+            outstanding = new ArrayList<>(lastWrites.values());
+            lastWrites.clear();
+        }
+        // Writes to one file run in order, so the last write of each file finishing means all of them have
+        for (CompletableFuture<Void> future : outstanding) {
+            try {
+                future.join();
+            } catch (Exception e) {
+                // already reported by the writer thread
+            }
+        }
+    }
+
+    /**
+     * Waits for all queued writes, then stops the writer threads.
+     * Writes queued afterwards start new writer threads.
+     */
+    public void shutdown() {
+        drain();
+        synchronized (this) {
+            for (ExecutorService writer : writers.values()) {
+                writer.shutdown();
+            }
+            writers.clear();
+        }
+    }
+
+    private static void writeAtomically(Path target, List<String> lines) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp.toFile());
+             OutputStream encoded = Compression.forPath(target.toString()).wrapOutput(out);
+             BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(encoded, StandardCharsets.UTF_8))) {
+            // UTF-8 with '\n' on every platform, matching the fingerprints of the persistence scheduler
+            for (String line : lines) {
+                bw.write(line);
+                bw.write('\n');
+            }
+            bw.flush();
+            Compression.finish(encoded);
+            out.getChannel().force(true);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
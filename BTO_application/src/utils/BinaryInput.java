@@ -0,0 +1,185 @@
+package utils;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Reads values written by {@link BinaryOutput}.
+ * Every read method throws an IOException on truncated or malformed input.
+ */
+public class BinaryInput implements Closeable {
+
+    private final InputStream in;
+    private byte[] buffer = new byte[256];
+    private long bytesRead = 0;
+
+    /**
+     * Constructs a BinaryInput over a stream. Wrap the stream in a BufferedInputStream for file input.
+     *
+     * @param in The source stream. It is closed when this input is closed.
+     */
+    public BinaryInput(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads an unsigned varint written by {@link BinaryOutput#writeVarInt(int)}.
+     * @return The value.
+     * @throws IOException if the input is truncated or the varint is too long.
+     */
+    public int readVarInt() throws IOException {
+        long value = readVarLong();
+        if ((value >>> 32) != 0) {
+            throw new IOException("Varint out of int range: " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Reads an unsigned varint.
+     * @return The value.
+     * @throws IOException if the input is truncated or the varint is too long.
+     */
+    public long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * Reads a zigzag-encoded signed varint.
+     * @return The value.
+     * @throws IOException if the input is truncated or malformed.
+     */
+    public long readSignedVarLong() throws IOException {
+        long v = readVarLong();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /**
+     * Reads a boolean byte.
+     * @return The value.
+     * @throws IOException if the input is truncated.
+     */
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    /**
+     * Reads an eight-byte IEEE 754 double.
+     * @return The value.
+     * @throws IOException if the input is truncated.
+     */
+    public double readDouble() throws IOException {
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | readByte();
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    /**
+     * Reads a nullable length-prefixed UTF-8 string.
+     * @return The value, or null.
+     * @throws IOException if the input is truncated or malformed.
+     */
+    public String readString() throws IOException {
+        int length = readVarInt();
+        if (length == 0) {
+            return null;
+        }
+        length--;
+        if (length < 0) {
+            throw new IOException("Malformed string length");
+        }
+        if (buffer.length < length) {
+            buffer = new byte[Math.max(length, buffer.length * 2)];
+        }
+        int off = 0;
+        while (off < length) {
+            int n = in.read(buffer, off, length - off);
+            if (n < 0) {
+                throw new EOFException("Truncated string");
+            }
+            off += n;
+        }
+        bytesRead += length;
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a nullable enum written as ordinal + 1.
+     *
+     * @param values The constants of the enum type, in declaration order.
+     * @param <E>    The enum type.
+     * @return The value, or null.
+     * @throws IOException if the ordinal is out of range.
+     */
+    public <E extends Enum<E>> E readEnum(E[] values) throws IOException {
+        int code = readVarInt();
+        if (code == 0) {
+            return null;
+        }
+        if (code > values.length) {
+            throw new IOException("Enum ordinal out of range: " + (code - 1));
+        }
+        return values[code - 1];
+    }
+
+    /**
+     * Reads a nullable date written as an epoch day.
+     * @return The value, or null.
+     * @throws IOException if the input is truncated or malformed.
+     */
+    public LocalDate readDate() throws IOException {
+        long v = readVarLong();
+        if (v == 0) {
+            return null;
+        }
+        v--;
+        return LocalDate.ofEpochDay((v >>> 1) ^ -(v & 1));
+    }
+
+    /**
+     * Skips over bytes without decoding them.
+     * @param count The number of bytes to skip.
+     * @throws IOException if the input ends before that many bytes.
+     */
+    public void skipBytes(long count) throws IOException {
+        for (long i = 0; i < count; i++) {
+            readByte();
+        }
+    }
+
+    /**
+     * Gets the number of bytes read so far.
+     * @return The byte count.
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    private int readByte() throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Unexpected end of snapshot data");
+        }
+        bytesRead++;
+        return b;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,148 @@
+package utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Writes primitive values in the compact binary encoding used by snapshot files.
+ * Integers are LEB128 varints (signed values zigzag-encoded), strings are length-prefixed UTF-8,
+ * enums are ordinals and dates are epoch days. Nullable values reserve 0 for null.
+ * Every value is written straight to the underlying stream, so nothing is buffered here
+ * beyond a small scratch array.
+ */
+public class BinaryOutput implements Closeable {
+
+    private final OutputStream out;
+    private final byte[] scratch = new byte[10];
+    private long bytesWritten = 0;
+
+    /**
+     * Constructs a BinaryOutput over a stream. Wrap the stream in a BufferedOutputStream for file output.
+     *
+     * @param out The destination stream. It is closed when this output is closed.
+     */
+    public BinaryOutput(OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes an unsigned varint (negative values take five bytes).
+     * @param value The value.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void writeVarInt(int value) throws IOException {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Writes an unsigned varint.
+     * @param value The value.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void writeVarLong(long value) throws IOException {
+        int n = 0;
+        while ((value & ~0x7FL) != 0) {
+            scratch[n++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        scratch[n++] = (byte) value;
+        out.write(scratch, 0, n);
+        bytesWritten += n;
+    }
+
+    /**
+     * Writes a signed value as a zigzag varint, so small negative numbers stay short.
+     * @param value The value.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void writeSignedVarLong(long value) throws IOException {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Writes a boolean as one byte.
+     * @param value The value.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void writeBoolean(boolean value) throws IOException {
+        out.write(value ? 1 : 0);
+        bytesWritten++;
+    }
+
+    /**
+     * Writes a double as its eight IEEE 754 bytes.
+     * @param value The value.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void writeDouble(double value) throws IOException {
+        long bits = Double.doubleToLongBits(value);
+        for (int i = 0; i < 8; i++) {
+            scratch[i] = (byte) (bits >>> (56 - 8 * i));
+        }
+        out.write(scratch, 0, 8);
+        bytesWritten += 8;
+    }
+
+    /**
+     * Writes a nullable string as a varint (UTF-8 length + 1, 0 for null) followed by its UTF-8 bytes.
+     * @param value The value, may be null.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void writeString(String value) throws IOException {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length + 1);
+        out.write(bytes);
+        bytesWritten += bytes.length;
+    }
+
+    /**
+     * Writes a nullable enum as a varint (ordinal + 1, 0 for null).
+     * @param value The value, may be null.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void writeEnum(Enum<?> value) throws IOException {
+        writeVarInt(value == null ? 0 : value.ordinal() + 1);
+    }
+
+    /**
+     * Writes a nullable date as a zigzag varint of its epoch day, shifted by one so 0 means null.
+     * @param value The value, may be null.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void writeDate(LocalDate value) throws IOException {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        long day = value.toEpochDay();
+        writeVarLong(((day << 1) ^ (day >> 63)) + 1);
+    }
+
+    /**
+     * Gets the number of bytes written so far.
+     * @return The byte count.
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Flushes the underlying stream.
+     * @throws IOException if the stream cannot be flushed.
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
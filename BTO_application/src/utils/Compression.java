@@ -0,0 +1,142 @@
+package utils;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Streaming compression codecs for data files, chosen by file extension:
+ * {@code .gz} is gzip, {@code .deflate} is a zlib (deflate) stream and anything else is stored as is.
+ * Streams are compressed and decompressed as they are written and read, so a file is never held
+ * in memory as a whole.
+ */
+public enum Compression {
+    /** Plain, uncompressed file. */
+    NONE(""),
+    /** gzip ({@code .gz}); appends add a new gzip member, which readers handle transparently. */
+    GZIP(".gz"),
+    /** zlib deflate stream ({@code .deflate}); cannot be appended to in place. */
+    DEFLATE(".deflate");
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final String extension;
+
+    Compression(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Gets the file extension of this codec, including the dot ("" for NONE).
+     * @return The extension.
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Checks whether data can be appended to an existing file of this codec without rewriting it.
+     * @return true for plain and gzip files.
+     */
+    public boolean supportsAppend() {
+        return this != DEFLATE;
+    }
+
+    /**
+     * Picks the codec for a file from its extension.
+     *
+     * @param filePath The file path.
+     * @return The matching codec, NONE if the extension is not a compression extension.
+     */
+    public static Compression forPath(String filePath) {
+        for (Compression codec : values()) {
+            if (codec != NONE && filePath.endsWith(codec.extension)) {
+                return codec;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Parses a codec name as given on the command line (none, gzip/gz, deflate).
+     *
+     * @param name The codec name.
+     * @return The codec, or null if the name is not recognised.
+     */
+    public static Compression fromName(String name) {
+        switch (name.trim().toLowerCase()) {
+            case "none": return NONE;
+            case "gzip":
+            case "gz": return GZIP;
+            case "deflate": return DEFLATE;
+            default: return null;
+        }
+    }
+
+    /**
+     * Wraps a raw stream so that data read from it is decompressed.
+     *
+     * @param in The raw (compressed) stream.
+     * @return A stream of the decompressed data.
+     * @throws IOException if the compressed header cannot be read.
+     */
+    public InputStream wrapInput(InputStream in) throws IOException {
+        switch (this) {
+            case GZIP: return new GZIPInputStream(in, BUFFER_SIZE);
+            case DEFLATE: return new InflaterInputStream(in);
+            default: return in;
+        }
+    }
+
+    /**
+     * Wraps a raw stream so that data written to it is compressed.
+     * Call {@link #finish(OutputStream)} before syncing the raw stream to disk.
+     *
+     * @param out The raw destination stream.
+     * @return A stream that compresses into the raw stream.
+     * @throws IOException if the compressed header cannot be written.
+     */
+    public OutputStream wrapOutput(OutputStream out) throws IOException {
+        switch (this) {
+            case GZIP: return new GZIPOutputStream(out, BUFFER_SIZE);
+            case DEFLATE: return new DeflaterOutputStream(out);
+            default: return out;
+        }
+    }
+
+    /**
+     * Opens a file for reading, decompressing it according to its extension.
+     *
+     * @param filePath The file to read.
+     * @return A buffered stream of the decompressed content.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static InputStream openInput(String filePath) throws IOException {
+        InputStream raw = new BufferedInputStream(new FileInputStream(filePath), BUFFER_SIZE);
+        try {
+            return forPath(filePath).wrapInput(raw);
+        } catch (IOException e) {
+            raw.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes out any data still held by a compressing stream and its trailer, without closing the raw stream.
+     *
+     * @param out A stream returned by {@link #wrapOutput(OutputStream)}.
+     * @throws IOException if the data cannot be written.
+     */
+    public static void finish(OutputStream out) throws IOException {
+        if (out instanceof DeflaterOutputStream) {
+            ((DeflaterOutputStream) out).finish();
+        }
+        out.flush();
+    }
+}
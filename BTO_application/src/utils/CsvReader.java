@@ -0,0 +1,239 @@
+package utils;
+
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * Streaming RFC 4180 CSV reader.
+ * Reads one record at a time from the underlying Reader instead of loading the whole file,
+ * and keeps the characters of the current record in a single reusable buffer.
+ * Field Strings are only created when a field is requested with {@link #get(int)}.
+ *
+ * Quoted fields may contain commas, line breaks and doubled quotes ("" for a literal quote).
+ * Records may end with LF, CRLF or CR. Blank lines are skipped.
+ */
+public class CsvReader implements Closeable {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char[] readBuffer;
+    private int readPos = 0;
+    private int readLimit = 0;
+
+    // Characters of all fields of the current record, stored back to back
+    private char[] fieldChars = new char[256];
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+    private int fieldCount = 0;
+    private int charCount = 0;
+    private long recordNumber = 0;
+
+    /**
+     * Constructs a CsvReader over a character stream.
+     *
+     * @param reader The source of CSV text. It is closed when this reader is closed.
+     */
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+        this.readBuffer = new char[READ_BUFFER_SIZE];
+    }
+
+    /**
+     * Constructor for subclasses that read records from another kind of source
+     * and override {@link #next()}, {@link #size()}, {@link #get(int)} and {@link #close()}.
+     */
+    protected CsvReader() {
+        this.reader = null;
+        this.readBuffer = null;
+    }
+
+    /**
+     * Advances to the next record.
+     *
+     * @return true if a record was read, false at the end of the input.
+     * @throws IOException if the underlying stream cannot be read.
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            fieldCount = 0;
+            charCount = 0;
+            int c = read();
+            if (c == -1) {
+                return false;
+            }
+            if (c == '\n') {
+                continue; // blank line
+            }
+            if (c == '\r') {
+                if (peek() == '\n') read();
+                continue; // blank line
+            }
+            parseRecord(c);
+            recordNumber++;
+            return true;
+        }
+    }
+
+    private void parseRecord(int c) throws IOException {
+        startField();
+        boolean quoted = false;
+        boolean fieldStart = true;
+        while (true) {
+            if (c == -1) {
+                endField();
+                return;
+            }
+            if (quoted) {
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    append((char) c);
+                }
+            } else if (c == ',') {
+                endField();
+                startField();
+                fieldStart = true;
+                c = read();
+                continue;
+            } else if (c == '\n') {
+                endField();
+                return;
+            } else if (c == '\r') {
+                if (peek() == '\n') read();
+                endField();
+                return;
+            } else if (c == '"' && fieldStart) {
+                quoted = true;
+            } else {
+                append((char) c);
+            }
+            fieldStart = false;
+            c = read();
+        }
+    }
+
+    /**
+     * Gets the number of fields in the current record.
+     * @return The field count.
+     */
+    public int size() {
+        return fieldCount;
+    }
+
+    /**
+     * Gets a field of the current record, with surrounding quotes and escapes removed.
+     *
+     * @param index The zero-based field index.
+     * @return The field value, or an empty string if the record has no such field.
+     */
+    public String get(int index) {
+        if (index < 0 || index >= fieldCount) {
+            return "";
+        }
+        return new String(fieldChars, fieldStarts[index], fieldEnds[index] - fieldStarts[index]);
+    }
+
+    /**
+     * Gets all fields of the current record as a new array.
+     * @return The fields of the current record.
+     */
+    public String[] toArray() {
+        String[] fields = new String[size()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = get(i);
+        }
+        return fields;
+    }
+
+    /**
+     * Gets the 1-based number of the current record (counting the header, excluding blank lines).
+     * @return The record number.
+     */
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    /**
+     * Gets the fields of the current record joined by commas, for use in log messages.
+     * @return A readable form of the current record.
+     */
+    public String recordText() {
+        return String.join(",", toArray());
+    }
+
+    /**
+     * Parses a single CSV line into its fields.
+     *
+     * @param line The CSV line.
+     * @return The fields of the line, or an empty array if the line is blank.
+     */
+    public static String[] parseLine(String line) {
+        try (CsvReader csv = new CsvReader(new StringReader(line))) {
+            return csv.next() ? csv.toArray() : new String[0];
+        } catch (IOException e) {
+            return new String[0];
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Increments the record counter. For subclasses that parse records themselves.
+     */
+    protected void countRecord() {
+        recordNumber++;
+    }
+
+    private void startField() {
+        if (fieldCount == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+        }
+        fieldStarts[fieldCount] = charCount;
+    }
+
+    private void endField() {
+        fieldEnds[fieldCount] = charCount;
+        fieldCount++;
+    }
+
+    private void append(char c) {
+        if (charCount == fieldChars.length) {
+            fieldChars = Arrays.copyOf(fieldChars, charCount * 2);
+        }
+        fieldChars[charCount++] = c;
+    }
+
+    private int read() throws IOException {
+        if (readPos == readLimit && !fill()) {
+            return -1;
+        }
+        return readBuffer[readPos++];
+    }
+
+    private int peek() throws IOException {
+        if (readPos == readLimit && !fill()) {
+            return -1;
+        }
+        return readBuffer[readPos];
+    }
+
+    private boolean fill() throws IOException {
+        int n = reader.read(readBuffer, 0, readBuffer.length);
+        if (n <= 0) {
+            return false;
+        }
+        readPos = 0;
+        readLimit = n;
+        return true;
+    }
+}
@@ -1,14 +1,80 @@
 package utils;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class FileManager {
 
+    // When true, CSV files are read through memory-mapped buffers instead of a Reader
+    private static boolean memoryMapped = false;
+
+    // Selects the loading mode used by forEachRecord
+    public static void setMemoryMapped(boolean enabled) {
+        memoryMapped = enabled;
+    }
+
+    public static boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+
+    // Codec used when files are written; each logical file may exist as plain, .gz or .deflate
+    private static Compression compression = Compression.NONE;
+
+    // Selects the codec for files written from now on; files stored with another codec are still read
+    // and are replaced by the new codec on their next write, which also deletes the old copy
+    public static void setCompression(Compression codec) {
+        compression = codec;
+    }
+
+    public static Compression getCompression() {
+        return compression;
+    }
+
+    // Default time saves to the same file are collected before one write is made
+    private static final long DEFAULT_SAVE_WINDOW_MILLIS = 200;
+
+    // Writes files in the background, one writer thread per file, via temp file and atomic rename
+    private static final AsyncFileWriter asyncWriter = new AsyncFileWriter();
+
+    // All writeFile calls go through the scheduler, which skips unchanged content and coalesces repeated saves
+    private static final PersistenceScheduler scheduler = new PersistenceScheduler(
+            (path, lines) -> asyncWriter.write(path, lines).thenRun(() -> deleteOtherCopies(path)),
+            DEFAULT_SAVE_WINDOW_MILLIS);
+
+    public static PersistenceScheduler getScheduler() {
+        return scheduler;
+    }
+
+    // Sets how long saves to the same file are coalesced; 0 writes every changed save immediately
+    public static void setSaveWindowMillis(long windowMillis) {
+        scheduler.setWindowMillis(windowMillis);
+    }
+
+    // Writes every pending save now and waits until all background writes have finished
+    public static void flushPendingWrites() {
+        scheduler.flushAll();
+        asyncWriter.drain();
+    }
+
+    // Flushes all writes and stops the writer threads (called on exit)
+    public static void shutdownWriters() {
+        flushPendingWrites();
+        asyncWriter.shutdown();
+    }
+
     // Reads the entire file and returns each line as a string in a list
     public static List<String> readFile(String filePath) {
+        awaitWrites(filePath); // make pending saves visible to the read
+        String source = sourcePath(filePath);
         List<String> lines = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(Compression.openInput(source), StandardCharsets.UTF_8))) {
             String line;
             while((line = br.readLine()) != null) {
                 lines.add(line);
@@ -16,30 +82,207 @@ public class FileManager {
         } catch (IOException e) {
             System.out.println("Error reading file: " + filePath);
             e.printStackTrace();
+            return lines;
+        }
+        if (source.equals(storagePath(filePath))) {
+            scheduler.markClean(source, lines);
         }
         return lines;
     }
 
-    // Optional: Writes a list of strings to a file (overwrite)
-    public static void writeFile(String filePath, List<String> lines) {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(filePath))) {
-            for (String line : lines) {
-                bw.write(line);
-                bw.newLine();
+    // Streams the records of a CSV file one at a time without loading the whole file.
+    // The same CsvReader is passed to the handler for every record, so fields must be read
+    // inside the handler. Returns the number of records handled (excluding a skipped header).
+    // The content is fingerprinted as it streams past, so saving it back unchanged is skipped.
+    public static long forEachRecord(String filePath, boolean skipHeader, Consumer<CsvReader> handler) {
+        long count = 0;
+        awaitWrites(filePath);
+        String source = sourcePath(filePath);
+        MessageDigest digest = source.equals(storagePath(filePath)) ? PersistenceScheduler.newDigest() : null;
+        try (CsvReader csv = openCsv(source, digest)) {
+            boolean more = csv.next();
+            if (skipHeader && more) {
+                more = csv.next();
+            }
+            while (more) {
+                handler.accept(csv);
+                count++;
+                more = csv.next();
             }
         } catch (IOException e) {
-            System.out.println("Error writing to file: " + filePath);
+            System.out.println("Error reading file: " + filePath);
+            e.printStackTrace();
+            return count;
+        }
+        if (digest != null) {
+            scheduler.markClean(source, digest.digest());
+        }
+        return count;
+    }
+
+    // Opens a CSV reader for the file using the selected loading mode.
+    // Compressed files are always decompressed through a stream, since they cannot be mapped.
+    public static CsvReader openCsv(String filePath) throws IOException {
+        return openCsv(sourcePath(filePath), null);
+    }
+
+    // Opens a CSV reader for a stored copy, feeding the bytes read into the digest if one is given
+    private static CsvReader openCsv(String source, MessageDigest digest) throws IOException {
+        Compression codec = Compression.forPath(source);
+        if (memoryMapped && codec == Compression.NONE) {
+            return new MappedCsvReader(source, digest);
+        }
+        InputStream in = Compression.openInput(source);
+        if (digest != null) {
+            in = new DigestInputStream(in, digest);
         }
+        return new CsvReader(new InputStreamReader(in, StandardCharsets.UTF_8));
     }
 
-    // Optional: Appends a single line to a file
+    // Joins fields into a CSV line. A field containing a comma, double quote or line break is wrapped in
+    // double quotes with its quotes doubled; null fields are written as empty fields.
+    public static String toCsvLine(String[] fields) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            String field = fields[i] == null ? "" : fields[i];
+            if (field.contains(",") || field.contains("\"") || field.contains("\n")) {
+                line.append('"').append(field.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(field);
+            }
+        }
+        return line.toString();
+    }
+
+    // True if the file exists under any codec
+    public static boolean exists(String filePath) {
+        return new File(sourcePath(filePath)).exists();
+    }
+
+    // Last-modified time of the newest stored copy of the file, 0 if it does not exist
+    public static long lastModified(String filePath) {
+        return new File(sourcePath(filePath)).lastModified();
+    }
+
+    // The path a file is written to: the logical path with the current codec's extension,
+    // unless the path already names a codec explicitly
+    private static String storagePath(String filePath) {
+        if (Compression.forPath(filePath) != Compression.NONE) {
+            return filePath;
+        }
+        return filePath + compression.getExtension();
+    }
+
+    // The path a file is read from: the most recently written of its plain and compressed copies,
+    // so switching codecs never reads a stale copy
+    private static String sourcePath(String filePath) {
+        if (Compression.forPath(filePath) != Compression.NONE) {
+            return filePath;
+        }
+        String newest = storagePath(filePath);
+        long newestTime = new File(newest).lastModified();
+        for (Compression codec : Compression.values()) {
+            String candidate = filePath + codec.getExtension();
+            long time = new File(candidate).lastModified();
+            if (time > newestTime) {
+                newest = candidate;
+                newestTime = time;
+            }
+        }
+        return newest;
+    }
+
+    // Saves a list of strings as the content of a file (overwrite) without blocking on disk I/O.
+    // The write is skipped if the content is unchanged and coalesced with other saves of the file within the save window.
+    // Returns a future that completes once the content is on disk.
+    public static CompletableFuture<Void> writeFile(String filePath, List<String> lines) {
+        return scheduler.save(storagePath(filePath), Collections.unmodifiableList(new ArrayList<>(lines)));
+    }
+
+    // Starts any pending save of the file and waits until its writes have finished
+    private static void awaitWrites(String filePath) {
+        try {
+            scheduler.flush(storagePath(filePath)).join();
+        } catch (Exception e) {
+            // the failed write has already been reported
+        }
+    }
+
+    // Deletes a file, including its compressed copies, after any pending writes to it have finished
+    public static void deleteFile(String filePath) {
+        awaitWrites(filePath);
+        for (Compression codec : Compression.values()) {
+            File file = new File(filePath + codec.getExtension());
+            scheduler.forget(file.getPath());
+            if (file.exists() && !file.delete()) {
+                System.out.println("Error deleting file: " + file.getPath());
+            }
+        }
+    }
+
+    // Optional: Appends a single line to a file.
+    // Plain and gzip files are appended to in place (gzip as a new member); a deflate file, or a file
+    // still stored under another codec, is streamed into a new copy with the line added.
     public static void appendToFile(String filePath, String line) {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(filePath, true))) {
-            bw.write(line);
-            bw.newLine();
+        awaitWrites(filePath);
+        String source = sourcePath(filePath);
+        String target = storagePath(filePath);
+        Compression codec = Compression.forPath(target);
+        scheduler.forget(target);
+        try {
+            if (source.equals(target) && codec.supportsAppend()) {
+                try (OutputStream raw = new FileOutputStream(target, true);
+                     OutputStream encoded = codec.wrapOutput(raw);
+                     BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(encoded, StandardCharsets.UTF_8))) {
+                    bw.write(line);
+                    bw.write('\n');
+                }
+            } else {
+                rewriteWithLine(source, target, line);
+                deleteOtherCopies(target);
+            }
         } catch (IOException e) {
             System.out.println("Error appending to file: " + filePath);
         }
     }
-}
 
+    // Deletes the copies of a file stored under other codecs once the given copy has been written,
+    // so a stale copy can neither be read nor be taken as the file's current content
+    private static void deleteOtherCopies(String storedPath) {
+        Compression stored = Compression.forPath(storedPath);
+        String filePath = storedPath.substring(0, storedPath.length() - stored.getExtension().length());
+        for (Compression codec : Compression.values()) {
+            if (codec == stored) {
+                continue;
+            }
+            File file = new File(filePath + codec.getExtension());
+            scheduler.forget(file.getPath());
+            if (file.exists() && !file.delete()) {
+                System.out.println("Error deleting file: " + file.getPath());
+            }
+        }
+    }
+
+    private static void rewriteWithLine(String source, String target, String line) throws IOException {
+        File temp = new File(target + ".tmp");
+        try (OutputStream raw = new FileOutputStream(temp);
+             OutputStream encoded = Compression.forPath(target).wrapOutput(raw);
+             BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(encoded, StandardCharsets.UTF_8))) {
+            if (new File(source).exists()) {
+                try (BufferedReader br = new BufferedReader(new InputStreamReader(Compression.openInput(source), StandardCharsets.UTF_8))) {
+                    String existing;
+                    while ((existing = br.readLine()) != null) {
+                        bw.write(existing);
+                        bw.write('\n');
+                    }
+                }
+            }
+            bw.write(line);
+            bw.write('\n');
+        }
+        Files.move(temp.toPath(), new File(target).toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,347 @@
+package utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Stores the records of one data set in a table of an embedded database reached through JDBC
+ * (e.g. H2 or SQLite in file mode; the driver must be on the class path).
+ * The table has one text column per column of the data set's CSV header, plus the record key, which is
+ * indexed, and a position column that keeps the records in the order they were saved.
+ * <p>
+ * The store remembers the records held by the table. A save formats only the items whose keys were marked
+ * as changed and writes only the rows whose fields differ from the stored ones, with batched prepared
+ * UPDATE, DELETE and INSERT statements in one transaction, so changing one user or project updates one row.
+ * <p>
+ * A table is created on first use and filled from the data set's CSV files: the first load reads the
+ * CSV store and reports a pending migration, and the following save inserts every record and registers
+ * the table as imported. From then on the table is the primary store and the CSV files are not read.
+ */
+public class JdbcRecordStore implements RecordStore {
+
+    private static final String IMPORTED_TABLE = "bto_imported_tables";
+
+    private final Connection connection;
+    private final String table;
+    private final String[] columns;
+    private final RecordStore importSource;
+    // Rows currently in the table by record key, in table order
+    private final Map<String, List<String[]>> stored = new HashMap<>();
+    private final Set<String> dirtyKeys = new HashSet<>();
+    private boolean allDirty = false;
+    private boolean importPending = false;
+    private boolean tableReady = false;
+    private long nextPosition = 0;
+
+    /**
+     * Constructs a store for a table of the given database.
+     *
+     * @param connection   The database connection, shared by all stores; autocommit must be off.
+     * @param table        The table name.
+     * @param header       The CSV header of the data set; each column becomes a table column.
+     * @param importSource The CSV store the table is filled from when it has not been imported yet.
+     */
+    public JdbcRecordStore(Connection connection, String table, String header, RecordStore importSource) {
+        this.connection = connection;
+        this.table = table;
+        String[] names = header.split(",");
+        this.columns = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            columns[i] = columnName(names[i]);
+        }
+        this.importSource = importSource;
+    }
+
+    /**
+     * Reads all rows of the table in position order, or the CSV records if the table has not been imported yet.
+     *
+     * @param handler Receives the fields of each record.
+     * @return The number of records read.
+     */
+    @Override
+    public long forEachRecord(Consumer<String[]> handler) {
+        List<String[]> records = new ArrayList<>();
+        synchronized (connection) {
+            try {
+                ensureTable();
+                stored.clear();
+                dirtyKeys.clear();
+                allDirty = false;
+                nextPosition = 0;
+                if (!isImported()) {
+                    importPending = true;
+                    allDirty = true;
+                } else {
+                    importPending = false;
+                    String sql = "SELECT pos, record_key, " + String.join(", ", quoted(columns))
+                            + " FROM " + quote(table) + " ORDER BY pos";
+                    try (Statement statement = connection.createStatement();
+                         ResultSet rows = statement.executeQuery(sql)) {
+                        while (rows.next()) {
+                            nextPosition = Math.max(nextPosition, rows.getLong(1) + 1);
+                            String[] record = new String[columns.length];
+                            for (int i = 0; i < columns.length; i++) {
+                                String value = rows.getString(i + 3);
+                                record[i] = value != null ? value : "";
+                            }
+                            stored.computeIfAbsent(rows.getString(2), k -> new ArrayList<>()).add(record);
+                            records.add(record);
+                        }
+                    }
+                    connection.commit();
+                }
+            } catch (SQLException e) {
+                System.out.println("Error reading table " + table + ": " + e.getMessage());
+                rollback();
+                return 0;
+            }
+        }
+        if (importPending) {
+            System.out.println("Importing table " + table + " from CSV.");
+            return importSource.forEachRecord(handler);
+        }
+        for (String[] record : records) {
+            handler.accept(record.clone());
+        }
+        return records.size();
+    }
+
+    @Override
+    public boolean needsMigration() {
+        synchronized (connection) {
+            return importPending;
+        }
+    }
+
+    @Override
+    public void markDirty(String key) {
+        synchronized (connection) {
+            dirtyKeys.add(key == null ? "" : key);
+        }
+    }
+
+    @Override
+    public void markAllDirty() {
+        synchronized (connection) {
+            allDirty = true;
+        }
+    }
+
+    /**
+     * Writes the rows of the changed keys that differ from the table. A key with one row before and after
+     * is updated in place, keeping its position; other changed keys have their rows deleted and inserted
+     * again at the end. Runs as one transaction, which is rolled back (keeping the keys marked) on failure.
+     */
+    @Override
+    public <T> CompletableFuture<Void> save(Iterable<T> items, Function<T, String> keyOf, Function<T, String[]> formatter) {
+        synchronized (connection) {
+            if (!allDirty && dirtyKeys.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            boolean all = allDirty;
+            Set<String> keys = new HashSet<>(dirtyKeys);
+
+            Map<String, List<String[]>> current = new LinkedHashMap<>();
+            for (T item : items) {
+                String key = keyOf.apply(item);
+                key = key == null ? "" : key;
+                if (all || keys.contains(key)) {
+                    String[] fields = formatter.apply(item);
+                    if (fields != null) {
+                        current.computeIfAbsent(key, k -> new ArrayList<>()).add(normalize(fields));
+                    }
+                }
+            }
+            // Keys in item order, so that inserted rows keep the order of the items, then keys without items
+            Set<String> changed = new LinkedHashSet<>(current.keySet());
+            changed.addAll(all ? stored.keySet() : keys);
+
+            String cols = String.join(", ", quoted(columns));
+            StringBuilder assignments = new StringBuilder();
+            for (String column : columns) {
+                assignments.append(assignments.length() > 0 ? ", " : "").append(quote(column)).append(" = ?");
+            }
+            String insertSql = "INSERT INTO " + quote(table) + " (pos, record_key, " + cols + ") VALUES (?, ?"
+                    + ", ?".repeat(columns.length) + ")";
+            String updateSql = "UPDATE " + quote(table) + " SET " + assignments + " WHERE record_key = ?";
+            String deleteSql = "DELETE FROM " + quote(table) + " WHERE record_key = ?";
+
+            long position = nextPosition;
+            int rowsWritten = 0;
+            try {
+                ensureTable();
+                try (PreparedStatement insert = connection.prepareStatement(insertSql);
+                     PreparedStatement update = connection.prepareStatement(updateSql);
+                     PreparedStatement delete = connection.prepareStatement(deleteSql)) {
+                    for (String key : changed) {
+                        List<String[]> before = stored.getOrDefault(key, List.of());
+                        List<String[]> after = current.getOrDefault(key, List.of());
+                        if (sameRecords(before, after)) {
+                            continue;
+                        }
+                        if (before.size() == 1 && after.size() == 1) {
+                            String[] record = after.get(0);
+                            for (int i = 0; i < columns.length; i++) {
+                                update.setString(i + 1, record[i]);
+                            }
+                            update.setString(columns.length + 1, key);
+                            update.addBatch();
+                        } else {
+                            if (!before.isEmpty()) {
+                                delete.setString(1, key);
+                                delete.addBatch();
+                            }
+                            for (String[] record : after) {
+                                insert.setLong(1, position++);
+                                insert.setString(2, key);
+                                for (int i = 0; i < columns.length; i++) {
+                                    insert.setString(i + 3, record[i]);
+                                }
+                                insert.addBatch();
+                            }
+                        }
+                        rowsWritten += Math.max(before.size(), after.size());
+                    }
+                    delete.executeBatch();
+                    insert.executeBatch();
+                    update.executeBatch();
+                }
+                if (importPending) {
+                    try (PreparedStatement register = connection.prepareStatement(
+                            "INSERT INTO " + IMPORTED_TABLE + " (table_name) VALUES (?)")) {
+                        register.setString(1, table);
+                        register.executeUpdate();
+                    }
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                System.out.println("Error saving table " + table + ", changes kept for the next save: " + e.getMessage());
+                rollback();
+                return CompletableFuture.failedFuture(e);
+            }
+
+            for (String key : changed) {
+                List<String[]> after = current.get(key);
+                if (after == null) {
+                    stored.remove(key);
+                } else {
+                    stored.put(key, after);
+                }
+            }
+            nextPosition = position;
+            if (all) {
+                allDirty = false;
+            }
+            dirtyKeys.removeAll(keys);
+            if (importPending) {
+                importPending = false;
+                System.out.println("Imported " + rowsWritten + " record(s) into table " + table + ".");
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    // Creates the table, its key index and the import registry if they do not exist yet
+    private void ensureTable() throws SQLException {
+        if (tableReady) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder("CREATE TABLE IF NOT EXISTS " + quote(table)
+                + " (pos BIGINT NOT NULL, record_key VARCHAR(255) NOT NULL");
+        for (String column : columns) {
+            sql.append(", ").append(quote(column)).append(" VARCHAR");
+        }
+        sql.append(")");
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql.toString());
+            statement.executeUpdate("CREATE INDEX IF NOT EXISTS " + quote(table + "_key")
+                    + " ON " + quote(table) + " (record_key)");
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + IMPORTED_TABLE
+                    + " (table_name VARCHAR(255) PRIMARY KEY)");
+        }
+        connection.commit();
+        tableReady = true;
+    }
+
+    private boolean isImported() throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT 1 FROM " + IMPORTED_TABLE + " WHERE table_name = ?")) {
+            query.setString(1, table);
+            try (ResultSet rows = query.executeQuery()) {
+                return rows.next();
+            }
+        }
+    }
+
+    private void rollback() {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            System.out.println("Error rolling back changes to table " + table + ": " + e.getMessage());
+        }
+    }
+
+    // Pads or truncates a record to the column count and replaces null fields by empty ones
+    private String[] normalize(String[] fields) {
+        String[] record = Arrays.copyOf(fields, columns.length);
+        for (int i = 0; i < record.length; i++) {
+            if (record[i] == null) {
+                record[i] = "";
+            }
+        }
+        return record;
+    }
+
+    private static boolean sameRecords(List<String[]> a, List<String[]> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (!Arrays.equals(a.get(i), b.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Derives a table or column name from a file or header name: lower case, with runs of other characters
+     * than letters and digits replaced by underscores and an underscore between a lower and an upper case
+     * letter, e.g. {@code ApplicantList} becomes {@code applicant_list} and {@code Num Units 1} becomes {@code num_units_1}.
+     *
+     * @param name The file or header name.
+     * @return The SQL name.
+     */
+    public static String columnName(String name) {
+        String snake = name.trim().replaceAll("([a-z0-9])([A-Z])", "$1_$2").replaceAll("[^A-Za-z0-9]+", "_");
+        return snake.replaceAll("^_+|_+$", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static String quote(String name) {
+        return "\"" + name + "\"";
+    }
+
+    private static String[] quoted(String[] names) {
+        String[] result = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            result[i] = quote(names[i]);
+        }
+        return result;
+    }
+}
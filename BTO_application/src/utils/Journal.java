@@ -0,0 +1,249 @@
+package utils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Append-only write-ahead journal for incremental state changes.
+ * Each state change is written as one record (a line of tab-separated fields)
+ * instead of rewriting the full CSV snapshot it belongs to. Records are flushed
+ * to the operating system on every append and fsynced in groups.
+ * Once enough records accumulate, the journal is compacted by running the
+ * registered compaction task (which rewrites the CSV snapshots) and truncating the journal.
+ * On startup, {@link #replay(Consumer)} re-applies the records on top of the loaded snapshots.
+ */
+public class Journal {
+
+    private static final int DEFAULT_GROUP_SIZE = 32;
+    private static final int DEFAULT_COMPACT_THRESHOLD = 1000;
+
+    private final String filePath;
+    private final int groupSize;
+    private final int compactThreshold;
+    private Runnable compactionTask;
+
+    private FileOutputStream out;
+    private BufferedWriter writer;
+    private int unsyncedRecords = 0;
+    private int recordsSinceCompaction = 0;
+    private boolean compacting = false;
+
+    /**
+     * Constructs a Journal with the default group size and compaction threshold.
+     *
+     * @param filePath The path of the journal file.
+     */
+    public Journal(String filePath) {
+        this(filePath, DEFAULT_GROUP_SIZE, DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    /**
+     * Constructs a Journal.
+     *
+     * @param filePath         The path of the journal file.
+     * @param groupSize        The number of records written between fsyncs.
+     * @param compactThreshold The number of records after which the journal is compacted.
+     */
+    public Journal(String filePath, int groupSize, int compactThreshold) {
+        this.filePath = filePath;
+        this.groupSize = Math.max(1, groupSize);
+        this.compactThreshold = Math.max(1, compactThreshold);
+    }
+
+    /**
+     * Sets the task that writes full CSV snapshots during compaction.
+     * After the task completes, the journal is truncated.
+     *
+     * @param compactionTask The snapshot task to run.
+     */
+    public void setCompactionTask(Runnable compactionTask) {
+        this.compactionTask = compactionTask;
+    }
+
+    /**
+     * Appends one record to the journal. The record is flushed to the operating system
+     * immediately and fsynced once a full group of records has been written.
+     * Triggers compaction when the compaction threshold is reached.
+     *
+     * @param fields The fields of the record. The first field is the record type.
+     */
+    public synchronized void append(String... fields) {
+        try {
+            openIfNeeded();
+            writer.write(encode(fields));
+            writer.newLine();
+            writer.flush();
+            unsyncedRecords++;
+            recordsSinceCompaction++;
+            if (unsyncedRecords >= groupSize) {
+                sync();
+            }
+        } catch (IOException e) {
+            System.out.println("Error appending to journal: " + filePath);
+            return;
+        }
+        if (recordsSinceCompaction >= compactThreshold && !compacting) {
+            compact();
+        }
+    }
+
+    /**
+     * Forces all records written so far to disk.
+     */
+    public synchronized void sync() {
+        if (out == null || unsyncedRecords == 0) {
+            return;
+        }
+        try {
+            writer.flush();
+            out.getChannel().force(false);
+            unsyncedRecords = 0;
+        } catch (IOException e) {
+            System.out.println("Error syncing journal: " + filePath);
+        }
+    }
+
+    /**
+     * Reads every complete record in the journal, in order, and passes it to the consumer.
+     * Lines that cannot be decoded (e.g. a partially written last line) are skipped.
+     *
+     * @param consumer Receives the fields of each record.
+     * @return The number of records replayed.
+     */
+    public synchronized int replay(Consumer<String[]> consumer) {
+        File file = new File(filePath);
+        if (!file.exists()) {
+            return 0;
+        }
+        int count = 0;
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                try {
+                    consumer.accept(decode(line));
+                    count++;
+                } catch (Exception e) {
+                    System.err.println("Skipping unreadable journal record: " + line + " - " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Error reading journal: " + filePath);
+        }
+        recordsSinceCompaction = count;
+        return count;
+    }
+
+    /**
+     * Compacts the journal: runs the compaction task to write full snapshots,
+     * then truncates the journal. If no compaction task is set, the journal is kept.
+     *
+     * @return true if the snapshots were written and the journal truncated, false if no compaction task is set.
+     */
+    public synchronized boolean compact() {
+        if (compactionTask == null) {
+            return false;
+        }
+        compacting = true;
+        try {
+            sync();
+            compactionTask.run();
+            truncate();
+        } finally {
+            compacting = false;
+        }
+        return true;
+    }
+
+    /**
+     * Syncs and closes the journal file. The journal reopens on the next append.
+     */
+    public synchronized void close() {
+        sync();
+        closeQuietly();
+    }
+
+    /**
+     * Gets the number of records written since the last compaction.
+     * @return The number of pending records.
+     */
+    public synchronized int getPendingRecordCount() {
+        return recordsSinceCompaction;
+    }
+
+    private void truncate() {
+        closeQuietly();
+        try (FileOutputStream fos = new FileOutputStream(filePath, false)) {
+            fos.getChannel().force(true);
+            recordsSinceCompaction = 0;
+        } catch (IOException e) {
+            System.out.println("Error truncating journal: " + filePath);
+        }
+    }
+
+    private void openIfNeeded() throws IOException {
+        if (out == null) {
+            out = new FileOutputStream(filePath, true);
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        }
+    }
+
+    private void closeQuietly() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                System.out.println("Error closing journal: " + filePath);
+            }
+        }
+        writer = null;
+        out = null;
+        unsyncedRecords = 0;
+    }
+
+    // Fields are tab-separated; backslash, tab and line breaks inside a field are escaped.
+    private static String encode(String[] fields) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) sb.append('\t');
+            String f = fields[i] == null ? "" : fields[i];
+            for (int j = 0; j < f.length(); j++) {
+                char c = f.charAt(j);
+                switch (c) {
+                    case '\\': sb.append("\\\\"); break;
+                    case '\t': sb.append("\\t"); break;
+                    case '\n': sb.append("\\n"); break;
+                    case '\r': sb.append("\\r"); break;
+                    default: sb.append(c);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String[] decode(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\t') {
+                fields.add(sb.toString());
+                sb.setLength(0);
+            } else if (c == '\\' && i + 1 < line.length()) {
+                char next = line.charAt(++i);
+                switch (next) {
+                    case 't': sb.append('\t'); break;
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    default: sb.append(next);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        fields.add(sb.toString());
+        return fields.toArray(new String[0]);
+    }
+}
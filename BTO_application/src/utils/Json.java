@@ -0,0 +1,241 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON support for the HTTP API: string escaping for writing responses and a parser for request bodies.
+ * Parsed objects become a {@code Map<String, Object>} (keys in document order), arrays a {@code List<Object>},
+ * numbers a {@code Long} or {@code Double}, and {@code true}, {@code false} and {@code null} the matching Java values.
+ */
+public class Json {
+
+    private static final int MAX_DEPTH = 64;
+
+    private final String text;
+    private int pos = 0;
+    private int depth = 0;
+
+    private Json(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Formats a string as a JSON string literal, or {@code null} for a null string.
+     *
+     * @param value The string to format.
+     * @return The quoted and escaped string.
+     */
+    public static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Parses a JSON document whose top-level value is an object.
+     *
+     * @param text The JSON text.
+     * @return The object's members.
+     * @throws IllegalArgumentException If the text is not a well-formed JSON object.
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> parseObject(String text) {
+        Json parser = new Json(text);
+        parser.skipWhitespace();
+        if (parser.peek() != '{') {
+            throw parser.error("Expected a JSON object");
+        }
+        Object value = parser.readValue();
+        parser.skipWhitespace();
+        if (parser.pos < text.length()) {
+            throw parser.error("Unexpected text after the JSON object");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    private Object readValue() {
+        skipWhitespace();
+        char c = peek();
+        if ((c == '{' || c == '[') && depth >= MAX_DEPTH) {
+            throw error("Nesting too deep");
+        }
+        switch (c) {
+            case '{': return readObject();
+            case '[': return readArray();
+            case '"': return readString();
+            case 't': expectWord("true"); return Boolean.TRUE;
+            case 'f': expectWord("false"); return Boolean.FALSE;
+            case 'n': expectWord("null"); return null;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return readNumber();
+                }
+                throw error("Unexpected character '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> readObject() {
+        Map<String, Object> members = new LinkedHashMap<>();
+        pos++; // {
+        depth++;
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            depth--;
+            return members;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("Expected a member name");
+            }
+            String name = readString();
+            skipWhitespace();
+            expect(':');
+            members.put(name, readValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                pos++;
+            } else {
+                expect('}');
+                depth--;
+                return members;
+            }
+        }
+    }
+
+    private List<Object> readArray() {
+        List<Object> values = new ArrayList<>();
+        pos++; // [
+        depth++;
+        skipWhitespace();
+        if (peek() == ']') {
+            pos++;
+            depth--;
+            return values;
+        }
+        while (true) {
+            values.add(readValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                pos++;
+            } else {
+                expect(']');
+                depth--;
+                return values;
+            }
+        }
+    }
+
+    private String readString() {
+        pos++; // opening quote
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            if (pos >= text.length()) {
+                throw error("Unterminated string");
+            }
+            char c = text.charAt(pos++);
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (pos >= text.length()) {
+                throw error("Unterminated escape");
+            }
+            char escaped = text.charAt(pos++);
+            switch (escaped) {
+                case '"': case '\\': case '/': sb.append(escaped); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'u':
+                    if (pos + 4 > text.length()) {
+                        throw error("Incomplete unicode escape");
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Invalid unicode escape");
+                    }
+                    pos += 4;
+                    break;
+                default:
+                    throw error("Invalid escape '\\" + escaped + "'");
+            }
+        }
+    }
+
+    private Object readNumber() {
+        int start = pos;
+        boolean decimal = false;
+        while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if (c == '.' || c == 'e' || c == 'E') {
+                decimal = true;
+            } else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+                break;
+            }
+            pos++;
+        }
+        String number = text.substring(start, pos);
+        try {
+            return decimal ? (Object) Double.parseDouble(number) : (Object) Long.parseLong(number);
+        } catch (NumberFormatException e) {
+            throw error("Invalid number '" + number + "'");
+        }
+    }
+
+    private void expectWord(String word) {
+        if (!text.startsWith(word, pos)) {
+            throw error("Expected '" + word + "'");
+        }
+        pos += word.length();
+    }
+
+    private void expect(char c) {
+        if (peek() != c) {
+            throw error("Expected '" + c + "'");
+        }
+        pos++;
+    }
+
+    private char peek() {
+        return pos < text.length() ? text.charAt(pos) : '\0';
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + pos);
+    }
+}
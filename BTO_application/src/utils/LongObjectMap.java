@@ -0,0 +1,266 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive {@code long} keys to object values.
+ * Keys are stored in a {@code long[]} next to a parallel value array, so no key objects are
+ * allocated and lookups do not box. Collisions are resolved by linear probing and removals
+ * use backward-shift deletion, so no tombstones accumulate. Null values are not allowed;
+ * a null value slot marks an empty bucket.
+ * Not thread-safe.
+ *
+ * @param <V> The type of the values.
+ */
+public class LongObjectMap<V> {
+
+    /**
+     * Receives the entries of the map in {@link #forEach(EntryConsumer)}.
+     *
+     * @param <V> The type of the values.
+     */
+    public interface EntryConsumer<V> {
+        /**
+         * Accepts one entry.
+         *
+         * @param key   The key.
+         * @param value The value.
+         */
+        void accept(long key, V value);
+    }
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private Object[] values;
+    private int size = 0;
+    private int resizeAt;
+
+    /**
+     * Constructs an empty map with the default capacity.
+     */
+    public LongObjectMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty map sized to hold the expected number of entries without resizing.
+     *
+     * @param expectedSize The expected number of entries.
+     */
+    public LongObjectMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    /**
+     * Gets the value mapped to a key.
+     *
+     * @param key The key.
+     * @return The value, or null if the key is not present.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return (V) values[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a key is present.
+     *
+     * @param key The key.
+     * @return true if the key is mapped to a value.
+     */
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Maps a key to a value, replacing any existing value.
+     *
+     * @param key   The key.
+     * @param value The value. Must not be null.
+     * @return The previous value, or null if the key was not present.
+     */
+    public V put(long key, V value) {
+        return insert(key, value, true);
+    }
+
+    /**
+     * Maps a key to a value only if the key is not already present.
+     *
+     * @param key   The key.
+     * @param value The value. Must not be null.
+     * @return The existing value, or null if the value was inserted.
+     */
+    public V putIfAbsent(long key, V value) {
+        return insert(key, value, false);
+    }
+
+    /**
+     * Removes the mapping for a key.
+     *
+     * @param key The key.
+     * @return The removed value, or null if the key was not present.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                V old = (V) values[i];
+                deleteAt(i);
+                return old;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes the mapping for a key only if it is currently mapped to the given value (by identity).
+     *
+     * @param key   The key.
+     * @param value The expected value.
+     * @return true if the mapping was removed.
+     */
+    public boolean remove(long key, V value) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                if (values[i] != value) {
+                    return false;
+                }
+                deleteAt(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Passes every entry to the consumer, in table order.
+     *
+     * @param consumer Receives each key and value.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<V> consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null) {
+                consumer.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of entries.
+     * @return The number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the map is empty.
+     * @return true if the map has no entries.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all entries, keeping the current capacity.
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V insert(long key, V value, boolean replace) {
+        if (value == null) {
+            throw new IllegalArgumentException("LongObjectMap does not allow null values.");
+        }
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                V old = (V) values[i];
+                if (replace) {
+                    values[i] = value;
+                }
+                return old;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > resizeAt) {
+            resize(keys.length * 2);
+        }
+        return null;
+    }
+
+    // Backward-shift deletion: move later entries of the probe run into the gap
+    private void deleteAt(int gap) {
+        int mask = keys.length - 1;
+        values[gap] = null;
+        size--;
+        for (int i = (gap + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+            int home = slot(keys[i], mask);
+            // Move the entry if its home slot is not cyclically within (gap, i]
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                values[i] = null;
+                gap = i;
+            }
+        }
+    }
+
+    private void resize(int newCapacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(newCapacity);
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] != null) {
+                int i = slot(oldKeys[j], mask);
+                while (values[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        long needed = (long) Math.ceil(Math.max(expectedSize, 1) / (double) LOAD_FACTOR) + 1;
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < needed && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int slot(long key, int mask) {
+        // 64-bit finalizer from MurmurHash3 spreads sequential NRIC keys across the table
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93e5ee3ac71L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+}
@@ -0,0 +1,222 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * CSV reader that memory-maps the file and scans record boundaries directly in the mapped bytes.
+ * Only the byte offsets of each field are recorded while scanning; a field is decoded from UTF-8
+ * (and unescaped, if quoted) when it is requested with {@link #get(int)}.
+ * Large files are mapped in windows; a window is re-mapped at the start of the record that crosses its end.
+ * Parsing follows the same rules as {@link CsvReader}.
+ * An optional digest is fed every byte of the file as the scan passes it, without a second pass.
+ */
+public class MappedCsvReader extends CsvReader {
+
+    private static final long WINDOW_SIZE = 256L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final MessageDigest digest;
+    private long digested = 0;
+    private MappedByteBuffer window;
+    private long windowStart = 0;
+    private int windowLimit = 0;
+    private int pos = 0;
+
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+    private int fieldCount = 0;
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Opens a file for memory-mapped reading.
+     *
+     * @param filePath The path of the CSV file.
+     * @throws IOException if the file cannot be opened or mapped.
+     */
+    public MappedCsvReader(String filePath) throws IOException {
+        this(filePath, null);
+    }
+
+    /**
+     * Opens a file for memory-mapped reading and digests its bytes as they are scanned.
+     * The digest has seen the whole file once {@link #next()} has returned false.
+     *
+     * @param filePath The path of the CSV file.
+     * @param digest   The digest to update, or null for none.
+     * @throws IOException if the file cannot be opened or mapped.
+     */
+    public MappedCsvReader(String filePath, MessageDigest digest) throws IOException {
+        this.channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.digest = digest;
+        map(0);
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        while (true) {
+            // Skip blank lines
+            while (true) {
+                if (pos == windowLimit) {
+                    if (!hasMoreFile()) {
+                        fieldCount = 0;
+                        digestUpTo(windowStart + windowLimit);
+                        return false;
+                    }
+                    map(windowStart + pos);
+                }
+                byte b = window.get(pos);
+                if (b != '\n' && b != '\r') break;
+                pos++;
+            }
+            int end = scanRecord(pos);
+            if (end >= 0) {
+                pos = end;
+                countRecord();
+                return true;
+            }
+            if (pos == 0) {
+                throw new IOException("CSV record larger than the mapping window at byte offset " + windowStart);
+            }
+            map(windowStart + pos); // record crosses the window end, re-map from its start
+        }
+    }
+
+    // Records the field offsets of the record starting at p.
+    // Returns the position after the record terminator, or -1 if the window ends before the record does.
+    private int scanRecord(int p) {
+        fieldCount = 0;
+        int fieldStart = p;
+        boolean quoted = false;
+        boolean atFieldStart = true;
+        while (true) {
+            if (p == windowLimit) {
+                if (hasMoreFile()) return -1;
+                addField(fieldStart, p);
+                return p;
+            }
+            byte b = window.get(p);
+            if (quoted) {
+                if (b == '"') {
+                    if (p + 1 == windowLimit && hasMoreFile()) return -1;
+                    if (p + 1 < windowLimit && window.get(p + 1) == '"') {
+                        p++;
+                    } else {
+                        quoted = false;
+                    }
+                }
+            } else if (b == ',') {
+                addField(fieldStart, p);
+                fieldStart = p + 1;
+                atFieldStart = true;
+                p++;
+                continue;
+            } else if (b == '\n') {
+                addField(fieldStart, p);
+                return p + 1;
+            } else if (b == '\r') {
+                if (p + 1 == windowLimit && hasMoreFile()) return -1;
+                addField(fieldStart, p);
+                return (p + 1 < windowLimit && window.get(p + 1) == '\n') ? p + 2 : p + 1;
+            } else if (b == '"' && atFieldStart) {
+                quoted = true;
+            }
+            atFieldStart = false;
+            p++;
+        }
+    }
+
+    @Override
+    public int size() {
+        return fieldCount;
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= fieldCount) {
+            return "";
+        }
+        int start = fieldStarts[index];
+        int end = fieldEnds[index];
+        int len = 0;
+        ensureScratch(end - start);
+        if (start < end && window.get(start) == '"') {
+            // Quoted field: drop the quotes and collapse doubled quotes
+            boolean quoted = false;
+            for (int p = start; p < end; p++) {
+                byte b = window.get(p);
+                if (quoted) {
+                    if (b != '"') {
+                        scratch[len++] = b;
+                    } else if (p + 1 < end && window.get(p + 1) == '"') {
+                        scratch[len++] = '"';
+                        p++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (b == '"' && p == start) {
+                    quoted = true;
+                } else {
+                    scratch[len++] = b;
+                }
+            }
+        } else {
+            window.get(start, scratch, 0, end - start);
+            len = end - start;
+        }
+        return new String(scratch, 0, len, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    private boolean hasMoreFile() {
+        return windowStart + windowLimit < fileSize;
+    }
+
+    private void map(long offset) throws IOException {
+        digestUpTo(offset);
+        long length = Math.min(WINDOW_SIZE, fileSize - offset);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        windowStart = offset;
+        windowLimit = (int) length;
+        pos = 0;
+    }
+
+    // Feeds the bytes of the current window from the last digested offset up to the given file offset
+    private void digestUpTo(long offset) {
+        if (digest == null || window == null || offset <= digested) {
+            return;
+        }
+        int from = (int) (digested - windowStart);
+        digest.update(window.slice(from, (int) (offset - digested)));
+        digested = offset;
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+        }
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldCount++;
+    }
+
+    private void ensureScratch(int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+    }
+}
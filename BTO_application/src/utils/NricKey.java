@@ -0,0 +1,92 @@
+package utils;
+
+/**
+ * Packs an NRIC of the form {@code [ST]ddddddd[A-Z]} into a single {@code long} key, and back.
+ * Encoding reads the characters in place, so it allocates nothing and ignores case and
+ * surrounding whitespace. Layout of a key (always non-negative):
+ * prefix (1 bit: S=0, T=1) | 7 digits (24 bits) | check letter (5 bits: A=0 .. Z=25).
+ */
+public final class NricKey {
+
+    /** Returned by {@link #encode(String)} for strings that are not valid NRICs. */
+    public static final long INVALID = -1L;
+
+    private static final int LETTER_BITS = 5;
+    private static final int DIGIT_BITS = 24;
+
+    private NricKey() {
+    }
+
+    /**
+     * Encodes an NRIC into its packed key.
+     *
+     * @param nric The NRIC, in any case, optionally surrounded by whitespace.
+     * @return The packed key, or {@link #INVALID} if the NRIC does not match {@code [ST]ddddddd[A-Z]}.
+     */
+    public static long encode(String nric) {
+        if (nric == null) {
+            return INVALID;
+        }
+        int start = 0;
+        int end = nric.length();
+        while (start < end && Character.isWhitespace(nric.charAt(start))) start++;
+        while (end > start && Character.isWhitespace(nric.charAt(end - 1))) end--;
+        if (end - start != 9) {
+            return INVALID;
+        }
+
+        char prefix = Character.toUpperCase(nric.charAt(start));
+        long prefixBit;
+        if (prefix == 'S') {
+            prefixBit = 0;
+        } else if (prefix == 'T') {
+            prefixBit = 1;
+        } else {
+            return INVALID;
+        }
+
+        long digits = 0;
+        for (int i = start + 1; i < start + 8; i++) {
+            char c = nric.charAt(i);
+            if (c < '0' || c > '9') {
+                return INVALID;
+            }
+            digits = digits * 10 + (c - '0');
+        }
+
+        char letter = Character.toUpperCase(nric.charAt(start + 8));
+        if (letter < 'A' || letter > 'Z') {
+            return INVALID;
+        }
+
+        return (prefixBit << (DIGIT_BITS + LETTER_BITS)) | (digits << LETTER_BITS) | (letter - 'A');
+    }
+
+    /**
+     * Decodes a packed key back into its upper-case NRIC.
+     *
+     * @param key A key produced by {@link #encode(String)}.
+     * @return The NRIC string.
+     * @throws IllegalArgumentException if the key is not a valid packed NRIC.
+     */
+    public static String decode(long key) {
+        if (key < 0 || key >>> (DIGIT_BITS + LETTER_BITS + 1) != 0) {
+            throw new IllegalArgumentException("Not a packed NRIC key: " + key);
+        }
+        int letter = (int) (key & ((1 << LETTER_BITS) - 1));
+        long digits = (key >>> LETTER_BITS) & ((1 << DIGIT_BITS) - 1);
+        long prefixBit = key >>> (DIGIT_BITS + LETTER_BITS);
+        if (letter > 25 || digits > 9_999_999) {
+            throw new IllegalArgumentException("Not a packed NRIC key: " + key);
+        }
+
+        char[] chars = new char[9];
+        chars[0] = prefixBit == 0 ? 'S' : 'T';
+        for (int i = 7; i >= 1; i--) {
+            chars[i] = (char) ('0' + digits % 10);
+            digits /= 10;
+        }
+        chars[8] = (char) ('A' + letter);
+        return new String(chars);
+    }
+}
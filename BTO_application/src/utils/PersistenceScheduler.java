@@ -0,0 +1,291 @@
+package utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces and filters whole-file saves before they reach the disk.
+ * Every save request for a file replaces the pending content for that file; the pending
+ * content is written once the coalescing window has passed, so several saves within the
+ * window collapse into one write. Each file also remembers a SHA-256 fingerprint (its version) of
+ * the content last written or read through {@link FileManager}, and a save whose content has that
+ * fingerprint is skipped entirely. A file with no recorded fingerprint is never read back to compare;
+ * its first save is simply written.
+ * Counters record saves requested versus writes performed.
+ * Writes are handed to the {@link Writer}, which may complete them asynchronously;
+ * every save returns a future that completes once its content (or newer content) is on disk.
+ */
+public class PersistenceScheduler {
+
+    /**
+     * Performs the actual write of a file's lines.
+     */
+    public interface Writer {
+        /**
+         * Writes the lines to the file, replacing its content.
+         * Writes to the same file must complete in the order they were requested.
+         *
+         * @param filePath The file to write.
+         * @param lines    The lines to write.
+         * @return A future that completes when the write has finished.
+         */
+        CompletableFuture<Void> write(String filePath, List<String> lines);
+    }
+
+    private final Writer writer;
+    private long windowMillis;
+    private final Map<String, List<String>> pending = new HashMap<>();
+    private final Map<String, byte[]> pendingChecksums = new HashMap<>();
+    private final Map<String, byte[]> writtenChecksums = new HashMap<>();
+    private final Map<String, CompletableFuture<Void>> pendingFutures = new HashMap<>();
+    private final Map<String, CompletableFuture<Void>> lastWrites = new HashMap<>();
+    private ScheduledExecutorService timer;
+
+    private final AtomicLong savesRequested = new AtomicLong();
+    private final AtomicLong writesPerformed = new AtomicLong();
+    private final AtomicLong savesSkipped = new AtomicLong();
+    private final AtomicLong savesCoalesced = new AtomicLong();
+
+    /**
+     * Constructs a PersistenceScheduler.
+     *
+     * @param writer       Performs the writes.
+     * @param windowMillis The coalescing window in milliseconds; 0 writes every changed save immediately.
+     */
+    public PersistenceScheduler(Writer writer, long windowMillis) {
+        this.writer = writer;
+        this.windowMillis = Math.max(0, windowMillis);
+    }
+
+    /**
+     * Sets the coalescing window. Pending saves keep their current schedule.
+     *
+     * @param windowMillis The window in milliseconds; 0 writes every changed save immediately.
+     */
+    public synchronized void setWindowMillis(long windowMillis) {
+        this.windowMillis = Math.max(0, windowMillis);
+    }
+
+    /**
+     * Requests a save of a file's full content.
+     * The save is skipped if the content matches what was last written, and otherwise
+     * replaces any save still pending for the file.
+     *
+     * @param filePath The file to save.
+     * @param lines    The full content of the file. Must not be modified afterwards.
+     * @return A future that completes when the content is on disk.
+     */
+    public CompletableFuture<Void> save(String filePath, List<String> lines) {
+        savesRequested.incrementAndGet();
+        byte[] checksum = checksum(lines);
+        CompletableFuture<Void> result;
+        boolean writeNow;
+        synchronized (this) {
+            byte[] current = pending.containsKey(filePath) ? pendingChecksums.get(filePath) : writtenChecksums.get(filePath);
+            if (current != null && MessageDigest.isEqual(current, checksum)) {
+                savesSkipped.incrementAndGet();
+                CompletableFuture<Void> same = pending.containsKey(filePath) ? pendingFutures.get(filePath) : lastWrites.get(filePath);
+                return same != null ? same : CompletableFuture.completedFuture(null);
+            }
+            boolean alreadyScheduled = pending.containsKey(filePath);
+            if (alreadyScheduled) {
+                savesCoalesced.incrementAndGet();
+            }
+            pending.put(filePath, lines);
+            pendingChecksums.put(filePath, checksum);
+            result = pendingFutures.computeIfAbsent(filePath, k -> new CompletableFuture<>());
+            writeNow = windowMillis == 0;
+            if (!writeNow && !alreadyScheduled) {
+                timer().schedule(() -> flush(filePath), windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (writeNow) {
+            flush(filePath);
+        }
+        return result;
+    }
+
+    /**
+     * Starts writing the pending content of a file now, if there is any.
+     *
+     * @param filePath The file to flush.
+     * @return A future that completes when the latest content of the file is on disk.
+     */
+    public synchronized CompletableFuture<Void> flush(String filePath) {
+        List<String> lines = pending.remove(filePath);
+        if (lines == null) {
+            CompletableFuture<Void> last = lastWrites.get(filePath);
+            return last != null ? last : CompletableFuture.completedFuture(null);
+        }
+        byte[] checksum = pendingChecksums.remove(filePath);
+        CompletableFuture<Void> done = pendingFutures.remove(filePath);
+        // Handed to the writer under the lock so writes of one file are queued in save order
+        CompletableFuture<Void> write = writer.write(filePath, lines);
+        writtenChecksums.put(filePath, checksum);
+        writesPerformed.incrementAndGet();
+        lastWrites.put(filePath, write);
+        write.whenComplete((ignored, error) -> {
+            if (error != null) {
+                synchronized (this) {
+                    // Forget the failed content so the next save of it is retried
+                    writtenChecksums.remove(filePath, checksum);
+                }
+                done.completeExceptionally(error);
+            } else {
+                done.complete(null);
+            }
+        });
+        return done;
+    }
+
+    /**
+     * Writes all pending content, waits until every write has finished and stops the coalescing timer.
+     * Later saves start a new timer when needed.
+     */
+    public void flushAll() {
+        ScheduledExecutorService stopped;
+        Map<String, CompletableFuture<Void>> writes;
+        synchronized (this) {
+            for (String filePath : pending.keySet().toArray(new String[0])) {
+                flush(filePath);
+            }
+            writes = new HashMap<>(lastWrites);
+            lastWrites.clear();
+            stopped = timer;
+            timer = null;
+        }
+        if (stopped != null) {
+            stopped.shutdownNow();
+        }
+        for (Map.Entry<String, CompletableFuture<Void>> write : writes.entrySet()) {
+            try {
+                write.getValue().join();
+            } catch (Exception e) {
+                // reported by the writer; the file's content is unknown until it is read or written again
+                forget(write.getKey());
+            }
+        }
+    }
+
+    /**
+     * Gets the fingerprints of the files whose content is known and has no save pending,
+     * e.g. to record them next to a snapshot taken after {@link #flushAll()}.
+     *
+     * @return The fingerprint of each clean file, by path.
+     */
+    public synchronized Map<String, byte[]> getCleanFingerprints() {
+        Map<String, byte[]> clean = new HashMap<>(writtenChecksums);
+        clean.keySet().removeAll(pending.keySet());
+        return clean;
+    }
+
+    /**
+     * Records the content of a file as it was read from disk, so that saving the same
+     * content back is recognised as clean.
+     *
+     * @param filePath The file that was read.
+     * @param lines    The lines read from the file.
+     */
+    public void markClean(String filePath, List<String> lines) {
+        markClean(filePath, checksum(lines));
+    }
+
+    /**
+     * Records the fingerprint of a file's content as it was streamed from disk, so that saving the
+     * same content back is recognised as clean.
+     *
+     * @param filePath    The file that was read.
+     * @param fingerprint The digest of the file's bytes, from a digest made by {@link #newDigest()}.
+     */
+    public synchronized void markClean(String filePath, byte[] fingerprint) {
+        if (!pending.containsKey(filePath)) {
+            writtenChecksums.put(filePath, fingerprint);
+        }
+    }
+
+    /**
+     * Creates a digest that fingerprints content the same way saves do. Feeding it a file's bytes
+     * gives the fingerprint of the lines the file holds, when every line ends with a line feed.
+     *
+     * @return A new SHA-256 digest.
+     */
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Forgets the recorded content of a file after it was changed outside the scheduler
+     * (e.g. appended to), so that the next save is written.
+     *
+     * @param filePath The file that was changed.
+     */
+    public synchronized void forget(String filePath) {
+        writtenChecksums.remove(filePath);
+    }
+
+    /**
+     * Gets the number of saves requested.
+     * @return The number of save requests.
+     */
+    public long getSavesRequested() {
+        return savesRequested.get();
+    }
+
+    /**
+     * Gets the number of writes actually performed.
+     * @return The number of file writes.
+     */
+    public long getWritesPerformed() {
+        return writesPerformed.get();
+    }
+
+    /**
+     * Gets the number of saves skipped because the content was unchanged.
+     * @return The number of skipped saves.
+     */
+    public long getSavesSkipped() {
+        return savesSkipped.get();
+    }
+
+    /**
+     * Gets the number of saves that replaced a save still pending for the same file.
+     * @return The number of coalesced saves.
+     */
+    public long getSavesCoalesced() {
+        return savesCoalesced.get();
+    }
+
+    private ScheduledExecutorService timer() {
+        if (timer == null) {
+            timer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "persistence-scheduler");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return timer;
+    }
+
+    private static byte[] checksum(List<String> lines) {
+        MessageDigest digest = newDigest();
+        for (String line : lines) {
+            digest.update(line.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+        return digest.digest();
+    }
+}
@@ -0,0 +1,56 @@
+package utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Repository for the records of one data set (applicants, officers, managers, projects, applications,
+ * enquiries or filters). Managers map their entities to and from records, arrays of string fields in
+ * the column order of the data set's CSV header, and each record is identified by a key such as an NRIC
+ * or a project name. Implementations decide how records are stored: {@link ShardedCsvStore} keeps them
+ * in CSV files, {@link JdbcRecordStore} in a table of an embedded database.
+ * Use {@link RecordStores#open(String, String, boolean)} to get the store of the configured backend.
+ */
+public interface RecordStore {
+
+    /**
+     * Reads all records, passing the fields of each record to the handler in stored order.
+     *
+     * @param handler Receives the fields of each record.
+     * @return The number of records read.
+     */
+    long forEachRecord(Consumer<String[]> handler);
+
+    /**
+     * Checks whether the records were read from another layout or backend than the one in use,
+     * in which case the caller should save them to complete the migration.
+     *
+     * @return true if a migration is pending.
+     */
+    boolean needsMigration();
+
+    /**
+     * Marks the record(s) with the given key as changed, so that the next save writes them.
+     *
+     * @param key The key of the changed, added or removed record.
+     */
+    void markDirty(String key);
+
+    /**
+     * Marks every record as changed, e.g. when it is not known which records changed.
+     */
+    void markAllDirty();
+
+    /**
+     * Writes the changed records. Items are passed in their stored order; records of keys marked
+     * as changed that no longer have an item are removed.
+     *
+     * @param items     All items of the data set.
+     * @param keyOf     Gives the key of an item.
+     * @param formatter Formats an item as the fields of its record, or returns null to leave the item out.
+     * @param <T>       The item type.
+     * @return A future that completes once the records are stored.
+     */
+    <T> CompletableFuture<Void> save(Iterable<T> items, Function<T, String> keyOf, Function<T, String[]> formatter);
+}
@@ -0,0 +1,94 @@
+package utils;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * Selects the storage backend of the managers' record stores. CSV files are the default; after
+ * {@link #useDatabase(String)} every store opened is backed by a table of that database instead,
+ * filled from the CSV files on first use. The backend must be chosen before the managers are created.
+ */
+public class RecordStores {
+
+    private static Connection connection;
+    private static String databaseUrl;
+
+    private RecordStores() {
+    }
+
+    /**
+     * Connects to an embedded database and stores all records in it from now on.
+     *
+     * @param jdbcUrl The JDBC URL, e.g. {@code jdbc:h2:./data/bto} or {@code jdbc:sqlite:data/bto.db}.
+     * @return true if connected, false if the database cannot be opened (the CSV backend is kept).
+     */
+    public static synchronized boolean useDatabase(String jdbcUrl) {
+        try {
+            Connection opened = DriverManager.getConnection(jdbcUrl);
+            opened.setAutoCommit(false);
+            close();
+            connection = opened;
+            databaseUrl = jdbcUrl;
+            return true;
+        } catch (SQLException e) {
+            System.out.println("Cannot open database " + jdbcUrl + " (is its JDBC driver on the class path?): " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether records are stored in a database.
+     * @return true if a database is in use, false for CSV files.
+     */
+    public static synchronized boolean isDatabase() {
+        return connection != null;
+    }
+
+    /**
+     * Gets the JDBC URL of the database in use.
+     * @return The URL, or null if CSV files are used.
+     */
+    public static synchronized String getDatabaseUrl() {
+        return databaseUrl;
+    }
+
+    /**
+     * Opens the record store of a data set in the selected backend.
+     *
+     * @param filePath  The CSV file of the data set, e.g. {@code data/ApplicantList.csv}; it also names the table.
+     * @param header    The CSV header of the data set.
+     * @param shardable true if the records are keyed by NRIC and the CSV file may be sharded.
+     * @return The record store.
+     */
+    public static synchronized RecordStore open(String filePath, String header, boolean shardable) {
+        RecordStore csv = new ShardedCsvStore(filePath, header, shardable);
+        if (connection == null) {
+            return csv;
+        }
+        String name = new File(filePath).getName();
+        int dot = name.indexOf('.');
+        String table = "bto_" + JdbcRecordStore.columnName(dot > 0 ? name.substring(0, dot) : name);
+        return new JdbcRecordStore(connection, table, header, csv);
+    }
+
+    /**
+     * Commits and closes the database connection, if one is open. Call once all data is saved.
+     */
+    public static synchronized void close() {
+        if (connection == null) {
+            return;
+        }
+        synchronized (connection) {
+            try {
+                connection.commit();
+                connection.close();
+            } catch (SQLException e) {
+                System.out.println("Error closing database " + databaseUrl + ": " + e.getMessage());
+            }
+        }
+        connection = null;
+        databaseUrl = null;
+    }
+}
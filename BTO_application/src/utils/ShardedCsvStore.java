@@ -0,0 +1,349 @@
+package utils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Stores the records of one CSV file either in that single file or partitioned into N shard files
+ * by a hash of each record's NRIC, so that a change to one user only rewrites that user's shard.
+ * Shards live next to the file in a {@code shards} directory, named
+ * {@code <name>-<shard>-of-<count>.csv}, and a small layout file records the shard count in use.
+ * Every shard has a dirty flag; {@link #save} writes only the dirty shards.
+ * <p>
+ * The shard count is configured globally with {@link #setShardCount(int)} (1, the default, keeps
+ * the single-file layout). When the layout found on disk differs from the configured one, the
+ * records are read from the old layout and the next save writes every shard of the new layout,
+ * records the new layout and then removes the old files. This migrates the single-file layout to
+ * shards and back, or between shard counts. Shard files of different counts never share a name,
+ * so an interrupted migration leaves the old layout intact.
+ * <p>
+ * Stores of files that are not keyed by NRIC are created unshardable and always use the single-file layout.
+ * Fields are escaped as CSV when they are written, see {@link FileManager#toCsvLine(String[])}.
+ */
+public class ShardedCsvStore implements RecordStore {
+
+    private static volatile int configuredShards = 1;
+
+    private final String filePath;
+    private final String header;
+    private final String shardDirectory;
+    private final String baseName;
+    private final boolean shardable;
+    // Shard count used for saving, decided on the first load or save; 0 until then
+    private int shardCount = 0;
+    // Shard count of the layout to remove after the next save, 0 if no migration is pending
+    private int migrateFrom = 0;
+    private final BitSet dirty = new BitSet();
+
+    /**
+     * Constructs a store for a CSV file whose records are keyed by NRIC, sharded by the configured shard count.
+     *
+     * @param filePath The path of the file in the single-file layout, e.g. {@code data/ApplicantList.csv}.
+     * @param header   The header row written at the top of the file and of every shard.
+     */
+    public ShardedCsvStore(String filePath, String header) {
+        this(filePath, header, true);
+    }
+
+    /**
+     * Constructs a store for a CSV file.
+     *
+     * @param filePath  The path of the file in the single-file layout, e.g. {@code data/ApplicantList.csv}.
+     * @param header    The header row written at the top of the file and of every shard.
+     * @param shardable true if the records are keyed by NRIC and may be sharded, false to always keep one file.
+     */
+    public ShardedCsvStore(String filePath, String header, boolean shardable) {
+        this.filePath = filePath;
+        this.header = header;
+        this.shardable = shardable;
+        File file = new File(filePath);
+        String parent = file.getParent();
+        this.shardDirectory = (parent != null ? parent + File.separator : "") + "shards";
+        String name = file.getName();
+        this.baseName = name.endsWith(".csv") ? name.substring(0, name.length() - 4) : name;
+    }
+
+    /**
+     * Sets the number of shard files used by stores that are loaded or saved from now on.
+     *
+     * @param count The shard count; 1 keeps each file in the single-file layout.
+     */
+    public static void setShardCount(int count) {
+        configuredShards = Math.max(1, count);
+    }
+
+    /**
+     * Gets the configured shard count.
+     * @return The shard count (1 for the single-file layout).
+     */
+    public static int getShardCount() {
+        return configuredShards;
+    }
+
+    /**
+     * Gets the directory that holds the shard files of stores of data files in the given directory.
+     *
+     * @param dataDirectory The directory of the data files, e.g. {@code data}.
+     * @return The shard directory.
+     */
+    public static String shardDirectory(String dataDirectory) {
+        return dataDirectory + File.separator + "shards";
+    }
+
+    /**
+     * Gets the shard a record belongs to.
+     * Valid NRICs are hashed through their packed key, so case and surrounding whitespace do not matter.
+     *
+     * @param nric The NRIC of the record.
+     * @return The shard index, between 0 and the shard count (exclusive).
+     */
+    public synchronized int shardOf(String nric) {
+        return shardOf(nric, layout());
+    }
+
+    /**
+     * Marks the shard of a record as changed, so that the next save writes it.
+     *
+     * @param nric The NRIC of the changed record.
+     */
+    @Override
+    public synchronized void markDirty(String nric) {
+        dirty.set(shardOf(nric, layout()));
+    }
+
+    /**
+     * Marks every shard as changed, e.g. when it is not known which records changed.
+     */
+    @Override
+    public synchronized void markAllDirty() {
+        dirty.set(0, layout());
+    }
+
+    /**
+     * Reads all records in the layout found on disk, passing the fields of each record (header excluded)
+     * to the handler. Shards are handled one after another in shard order on the calling thread, each streamed
+     * record by record; while a shard is handled, the next one is read ahead on a virtual thread, so at most
+     * one shard is held in memory. If the layout on disk differs from the configured one, a migration is
+     * scheduled for the next save.
+     *
+     * @param handler Receives the fields of each record.
+     * @return The number of records read.
+     */
+    @Override
+    public long forEachRecord(Consumer<String[]> handler) {
+        int onDisk = readLayout();
+        synchronized (this) {
+            shardCount = configuredCount();
+            dirty.clear();
+            if (onDisk != shardCount) {
+                migrateFrom = onDisk;
+                dirty.set(0, shardCount);
+            } else {
+                migrateFrom = 0;
+            }
+        }
+        if (onDisk == 1) {
+            if (!FileManager.exists(filePath)) {
+                return 0;
+            }
+            return FileManager.forEachRecord(filePath, true, record -> handler.accept(record.toArray()));
+        }
+
+        long count = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<List<String[]>> next = null;
+            for (int i = 0; i < onDisk; i++) {
+                List<String[]> current = next != null ? next.join() : null;
+                next = i + 1 < onDisk ? readAhead(shardPath(i + 1, onDisk), executor) : null;
+                if (current == null) {
+                    count += FileManager.forEachRecord(shardPath(i, onDisk), true, record -> handler.accept(record.toArray()));
+                } else {
+                    for (String[] record : current) {
+                        handler.accept(record);
+                    }
+                    count += current.size();
+                }
+            }
+        }
+        return count;
+    }
+
+    // Reads the records of a shard in the background, to be handled once the shard before it is done
+    private static CompletableFuture<List<String[]>> readAhead(String path, ExecutorService executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<String[]> records = new ArrayList<>();
+            FileManager.forEachRecord(path, true, record -> records.add(record.toArray()));
+            return records;
+        }, executor);
+    }
+
+    /**
+     * Checks whether the records were read from a layout other than the configured one,
+     * in which case the caller should save them to complete the migration.
+     *
+     * @return true if a migration is pending.
+     */
+    @Override
+    public synchronized boolean needsMigration() {
+        return migrateFrom != 0;
+    }
+
+    /**
+     * Writes the dirty shards. Each dirty shard is written with the header followed by the lines of
+     * the items that belong to it, in item order; clean shards are left untouched.
+     * Completes a pending migration once the new shards are on disk.
+     *
+     * @param items     All items of the store.
+     * @param keyOf     Gives the NRIC an item is sharded by.
+     * @param formatter Formats an item as the fields of its CSV line, or returns null to leave the item out.
+     * @param <T>       The item type.
+     * @return A future that completes once the dirty shards are on disk.
+     */
+    @Override
+    public <T> CompletableFuture<Void> save(Iterable<T> items, Function<T, String> keyOf, Function<T, String[]> formatter) {
+        int count;
+        BitSet toWrite;
+        int oldLayout;
+        synchronized (this) {
+            count = layout();
+            toWrite = (BitSet) dirty.clone();
+            dirty.clear();
+            oldLayout = migrateFrom;
+        }
+        if (toWrite.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // Group the items of the dirty shards first, so only those items are formatted
+        List<List<T>> groups = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            groups.add(toWrite.get(i) ? new ArrayList<>() : null);
+        }
+        for (T item : items) {
+            List<T> group = groups.get(count == 1 ? 0 : shardOf(keyOf.apply(item), count));
+            if (group != null) {
+                group.add(item);
+            }
+        }
+
+        if (count > 1) {
+            new File(shardDirectory).mkdirs();
+        }
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = toWrite.nextSetBit(0); i >= 0; i = toWrite.nextSetBit(i + 1)) {
+            List<T> group = groups.get(i);
+            groups.set(i, null);
+            List<String> lines = new ArrayList<>(group.size() + 1);
+            lines.add(header);
+            for (T item : group) {
+                String[] fields = formatter.apply(item);
+                if (fields != null) {
+                    lines.add(FileManager.toCsvLine(fields));
+                }
+            }
+            writes.add(FileManager.writeFile(shardPath(i, count), lines));
+        }
+        if (oldLayout != 0) {
+            completeMigration(oldLayout, count, writes);
+        }
+        return CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0]));
+    }
+
+    // Removes the old layout once every shard of the new one is on disk and the new layout is recorded
+    private void completeMigration(int oldLayout, int newLayout, List<CompletableFuture<Void>> writes) {
+        try {
+            CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0])).join();
+            if (newLayout == 1) {
+                FileManager.deleteFile(layoutPath());
+            } else {
+                FileManager.writeFile(layoutPath(), List.of("shards=" + newLayout)).join();
+            }
+        } catch (Exception e) {
+            System.out.println("Migration of " + filePath + " to " + newLayout + " file(s) failed, keeping the old layout.");
+            synchronized (this) {
+                dirty.set(0, newLayout); // retried on the next save
+            }
+            return;
+        }
+        for (int i = 0; i < oldLayout; i++) {
+            FileManager.deleteFile(shardPath(i, oldLayout));
+        }
+        synchronized (this) {
+            if (migrateFrom == oldLayout) {
+                migrateFrom = 0;
+            }
+        }
+        System.out.println("Migrated " + filePath + " from " + oldLayout + " to " + newLayout + " file(s).");
+    }
+
+    // The shard count used for saving; decided from the configuration and the layout on disk when first needed
+    private int layout() {
+        if (shardCount == 0) {
+            shardCount = configuredCount();
+            int onDisk = readLayout();
+            if (onDisk != shardCount) {
+                migrateFrom = onDisk;
+                dirty.set(0, shardCount);
+            }
+        }
+        return shardCount;
+    }
+
+    private int configuredCount() {
+        return shardable ? configuredShards : 1;
+    }
+
+    // Shard count of the layout on disk: the recorded count, or 1 when no layout file exists
+    private int readLayout() {
+        if (!shardable) {
+            return 1;
+        }
+        String layout = layoutPath();
+        if (!FileManager.exists(layout)) {
+            return 1;
+        }
+        for (String line : FileManager.readFile(layout)) {
+            if (line.startsWith("shards=")) {
+                try {
+                    return Math.max(1, Integer.parseInt(line.substring("shards=".length()).trim()));
+                } catch (NumberFormatException e) {
+                    break;
+                }
+            }
+        }
+        System.out.println("Invalid shard layout file " + layout + ", reading " + filePath + " instead.");
+        return 1;
+    }
+
+    private String layoutPath() {
+        return shardDirectory + File.separator + baseName + ".layout";
+    }
+
+    private String shardPath(int shard, int count) {
+        if (count == 1) {
+            return filePath;
+        }
+        return String.format("%s%s%s-%02d-of-%02d.csv", shardDirectory, File.separator, baseName, shard, count);
+    }
+
+    private static int shardOf(String nric, int count) {
+        if (count == 1) {
+            return 0;
+        }
+        long key = NricKey.encode(nric);
+        long h = key != NricKey.INVALID ? key : (nric == null ? 0 : nric.trim().toUpperCase(Locale.ROOT).hashCode());
+        // Finalizer step of MurmurHash3, so consecutive NRICs spread over all shards
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) Math.floorMod(h, (long) count);
+    }
+}
@@ -0,0 +1,120 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A list with a single-writer, many-reader discipline for the managers' collections.
+ * Changes are made one at a time under the list's monitor; readers never lock and get an immutable
+ * snapshot of the list as of the last change, which they can iterate, index and stream while the
+ * list changes, without a {@code ConcurrentModificationException} or a partly applied change.
+ * <p>
+ * A snapshot is copied once per version, on the first read after a change, so a burst of changes
+ * (e.g. loading a file) costs one copy and reads between changes cost nothing. Changes to the
+ * elements themselves (e.g. an applicant's status) do not change the list and are seen by every snapshot.
+ *
+ * @param <T> The type of the elements.
+ */
+public class SnapshotList<T> {
+
+    private final List<T> items = new ArrayList<>();
+    private volatile List<T> snapshot = Collections.emptyList();
+    private volatile long version = 0;
+
+    /**
+     * Gets an immutable snapshot of the list.
+     * @return The elements as of the last change, in list order.
+     */
+    public List<T> snapshot() {
+        List<T> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = Collections.unmodifiableList(new ArrayList<>(items));
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Gets the version of the list, which increases with every change.
+     * @return The number of changes made so far.
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Gets the number of elements.
+     * @return The size of the current snapshot.
+     */
+    public int size() {
+        return snapshot().size();
+    }
+
+    /**
+     * Adds an element at the end.
+     * @param item The element to add.
+     */
+    public synchronized void add(T item) {
+        items.add(item);
+        changed();
+    }
+
+    /**
+     * Removes the first occurrence of an element.
+     *
+     * @param item The element to remove.
+     * @return true if the element was found and removed.
+     */
+    public synchronized boolean remove(T item) {
+        if (!items.remove(item)) {
+            return false;
+        }
+        changed();
+        return true;
+    }
+
+    /**
+     * Removes every element matching a condition.
+     *
+     * @param filter The condition.
+     * @return true if any element was removed.
+     */
+    public synchronized boolean removeIf(Predicate<? super T> filter) {
+        if (!items.removeIf(filter)) {
+            return false;
+        }
+        changed();
+        return true;
+    }
+
+    /**
+     * Replaces all elements, e.g. when loading or restoring data.
+     * @param replacement The new elements, in list order.
+     */
+    public synchronized void replaceAll(Collection<? extends T> replacement) {
+        items.clear();
+        items.addAll(replacement);
+        changed();
+    }
+
+    /**
+     * Removes all elements.
+     */
+    public synchronized void clear() {
+        items.clear();
+        changed();
+    }
+
+    // Called under the monitor; the next read copies the list
+    private void changed() {
+        snapshot = null;
+        version++;
+    }
+}
@@ -0,0 +1,57 @@
+package utils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load-time canonicalizing pool for low-cardinality CSV values (neighbourhoods, manager
+ * and officer names, project names in enquiries, ...). Loaders pass such values through
+ * {@link #canonical(String)} so that every repeat of a value shares one String instance
+ * instead of each record keeping its own copy.
+ * The pool is shared by all loaders (safe to use from concurrent loaders) and is meant to be
+ * released with {@link #release()} once startup loading completes; after that,
+ * {@link #canonical(String)} returns its argument unchanged.
+ */
+public final class StringPool {
+
+    // Approximate heap size of a compact Latin-1 String: object header and fields plus byte[] header
+    private static final int STRING_OVERHEAD_BYTES = 40;
+
+    private static final ConcurrentHashMap<String, String> pool = new ConcurrentHashMap<>();
+    private static final AtomicLong duplicates = new AtomicLong();
+    private static final AtomicLong savedBytes = new AtomicLong();
+    private static volatile boolean active = true;
+
+    private StringPool() {
+    }
+
+    /**
+     * Returns the pooled instance equal to the given value, adding it to the pool if it is new.
+     *
+     * @param value The value read from a file.
+     * @return The shared instance, or the value itself if it is null or the pool has been released.
+     */
+    public static String canonical(String value) {
+        if (value == null || !active) {
+            return value;
+        }
+        String existing = pool.putIfAbsent(value, value);
+        if (existing == null) {
+            return value;
+        }
+        duplicates.incrementAndGet();
+        savedBytes.addAndGet(STRING_OVERHEAD_BYTES + value.length());
+        return existing;
+    }
+
+    /**
+     * Prints how many values were shared and an estimate of the heap saved, then
+     * clears the pool and stops pooling. Values already returned stay shared.
+     */
+    public static void release() {
+        active = false;
+        System.out.println(String.format("String pool: %d distinct value(s), %d duplicate(s) shared, ~%.1f KB saved.",
+                pool.size(), duplicates.get(), savedBytes.get() / 1024.0));
+        pool.clear();
+    }
+}